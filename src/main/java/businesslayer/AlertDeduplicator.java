@@ -0,0 +1,198 @@
+package businesslayer;
+
+import dataaccesslayer.AlertDAO;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import observer.VehicleEvent;
+import transferobjects.AlertDTO;
+
+/**
+ * Decides whether a new alert should be raised or suppressed. An alert is
+ * suppressed when an equivalent one - same vehicle, event type and alert rule
+ * group - is still unresolved or was raised moments ago, or when the vehicle
+ * has already raised too many alerts recently. Suppressed alerts are counted
+ * so storms stay visible without flooding the Alert table and the listeners.
+ * An alert that was allowed but could not be stored is released, so it does
+ * not suppress its own retry.
+ * @author jaces
+ */
+public class AlertDeduplicator {
+
+    /**
+     * Default maximum number of alerts a vehicle may raise per window.
+     */
+    public static final int DEFAULT_MAX_ALERTS_PER_WINDOW = 5;
+
+    /**
+     * Default length of the rate limiting window in minutes.
+     */
+    public static final long DEFAULT_WINDOW_MINUTES = 10;
+
+    private final AlertDAO alertDAO;
+    private final int maxAlertsPerWindow;
+    private final long windowMillis;
+
+    /**
+     * Alerts raised recently, by key, with the time they were raised. Covers
+     * alerts that are not yet visible as unresolved, such as ones in an
+     * uncommitted transaction.
+     */
+    private final Map<String, Long> recentlyRaised = new ConcurrentHashMap<>();
+    private final Map<Integer, Deque<Long>> raisedPerVehicle = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> suppressedPerVehicle = new ConcurrentHashMap<>();
+    private final AtomicLong duplicatesSuppressed = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+
+    /**
+     * Constructs an AlertDeduplicator with the default rate limit.
+     *
+     * @param alertDAO data access object used to find unresolved alerts
+     */
+    public AlertDeduplicator(AlertDAO alertDAO) {
+        this(alertDAO, DEFAULT_MAX_ALERTS_PER_WINDOW, DEFAULT_WINDOW_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Constructs an AlertDeduplicator with the given rate limit.
+     *
+     * @param alertDAO data access object used to find unresolved alerts
+     * @param maxAlertsPerWindow maximum alerts a vehicle may raise per window
+     * @param window length of the rate limiting window
+     * @param unit the unit of window
+     * @throws IllegalArgumentException if alertDAO is null or a limit is not positive
+     */
+    public AlertDeduplicator(AlertDAO alertDAO, int maxAlertsPerWindow, long window, TimeUnit unit) {
+        if (alertDAO == null || maxAlertsPerWindow <= 0 || window <= 0) {
+            throw new IllegalArgumentException("Invalid deduplicator settings");
+        }
+        this.alertDAO = alertDAO;
+        this.maxAlertsPerWindow = maxAlertsPerWindow;
+        this.windowMillis = unit.toMillis(window);
+    }
+
+    /**
+     * Decides whether an alert should be raised, and if so records it.
+     *
+     * @param vehicleID the ID of the vehicle
+     * @param eventType the type of event
+     * @param ruleGroup the name of the alert rule group raising the alert
+     * @return true if the alert should be raised, false if it is suppressed
+     */
+    public boolean tryRaise(int vehicleID, VehicleEvent eventType, String ruleGroup) {
+        String key = key(vehicleID, eventType, ruleGroup);
+        long now = System.currentTimeMillis();
+
+        // All decisions for one vehicle are made under its lock, so two
+        // threads can never both raise the same alert
+        Deque<Long> raised = raisedPerVehicle.computeIfAbsent(vehicleID, id -> new ArrayDeque<>());
+        synchronized (raised) {
+            Long raisedAt = recentlyRaised.get(key);
+            if ((raisedAt != null && now - raisedAt < windowMillis)
+                    || hasOpenEquivalent(vehicleID, eventType, ruleGroup)) {
+                duplicatesSuppressed.incrementAndGet();
+                countSuppressed(vehicleID);
+                return false;
+            }
+            while (!raised.isEmpty() && now - raised.peekFirst() >= windowMillis) {
+                raised.pollFirst();
+            }
+            if (raised.size() >= maxAlertsPerWindow) {
+                rateLimited.incrementAndGet();
+                countSuppressed(vehicleID);
+                return false;
+            }
+            recentlyRaised.put(key, now);
+            raised.addLast(now);
+        }
+        return true;
+    }
+
+    /**
+     * Takes back an alert allowed by tryRaise that was not stored, for
+     * example because the insert failed or its transaction was rolled back,
+     * so it neither suppresses an equivalent alert nor counts against the
+     * vehicle's rate limit.
+     *
+     * @param vehicleID the ID of the vehicle
+     * @param eventType the type of event
+     * @param ruleGroup the name of the alert rule group that raised the alert
+     */
+    public void release(int vehicleID, VehicleEvent eventType, String ruleGroup) {
+        String key = key(vehicleID, eventType, ruleGroup);
+        Deque<Long> raised = raisedPerVehicle.get(vehicleID);
+        if (raised == null) {
+            return;
+        }
+        synchronized (raised) {
+            Long raisedAt = recentlyRaised.remove(key);
+            if (raisedAt != null) {
+                raised.removeLastOccurrence(raisedAt);
+            }
+        }
+    }
+
+    /**
+     * Forgets that an alert was raised, so an equivalent one can be raised
+     * again straight away. Called when an alert is resolved.
+     *
+     * @param alert the resolved alert
+     */
+    public void resolved(AlertDTO alert) {
+        VehicleEvent eventType;
+        try {
+            eventType = VehicleEvent.valueOf(alert.getAlertType());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return;
+        }
+        if (alert.getRuleGroup() != null) {
+            recentlyRaised.remove(key(alert.getVehicleID(), eventType, alert.getRuleGroup()));
+        }
+    }
+
+    /**
+     * @return the number of alerts suppressed because an equivalent was open
+     */
+    public long getDuplicatesSuppressed() {
+        return duplicatesSuppressed.get();
+    }
+
+    /**
+     * @return the number of alerts suppressed by the per-vehicle rate limit
+     */
+    public long getRateLimited() {
+        return rateLimited.get();
+    }
+
+    /**
+     * Returns how many alerts were suppressed for one vehicle.
+     *
+     * @param vehicleID the ID of the vehicle
+     * @return the number of suppressed alerts
+     */
+    public long getSuppressedCount(int vehicleID) {
+        LongAdder count = suppressedPerVehicle.get(vehicleID);
+        return count == null ? 0 : count.sum();
+    }
+
+    private boolean hasOpenEquivalent(int vehicleID, VehicleEvent eventType, String ruleGroup) {
+        for (AlertDTO open : alertDAO.getOpenAlertsByVehicle(vehicleID)) {
+            if (eventType.name().equals(open.getAlertType()) && ruleGroup.equals(open.getRuleGroup())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void countSuppressed(int vehicleID) {
+        suppressedPerVehicle.computeIfAbsent(vehicleID, id -> new LongAdder()).increment();
+    }
+
+    private static String key(int vehicleID, VehicleEvent eventType, String ruleGroup) {
+        return vehicleID + ":" + eventType.name() + ":" + ruleGroup;
+    }
+}
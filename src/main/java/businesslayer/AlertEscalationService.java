@@ -0,0 +1,183 @@
+package businesslayer;
+
+import dataaccesslayer.AlertDAO;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import observer.Listener;
+import observer.VehicleEvent;
+import transferobjects.AlertDTO;
+
+/**
+ * Escalates alerts that stay ACTIVE longer than the service level for their
+ * type. Listens for alert events: an active alert starts a timer, and
+ * acknowledging, resolving or escalating it cancels the timer. All timers share
+ * one HashedWheelTimer, so hundreds of thousands of pending alerts cost one
+ * small object each rather than a thread or scheduled task. After a restart
+ * the timers are rebuilt from the active alerts in the Alert table, counting
+ * from the time each alert was raised.
+ * @author jaces
+ */
+public class AlertEscalationService implements Listener {
+
+    private static final String ACTIVE = "ACTIVE";
+
+    private final AlertDAO alertDAO;
+    private final VehicleAlertBusinessLogic alertLogic;
+    private final Map<VehicleEvent, Long> slaMillis;
+    private final HashedWheelTimer timer;
+    private final Map<Integer, HashedWheelTimer.Timeout> timers = new ConcurrentHashMap<>();
+    private final ExecutorService escalator;
+    private final AtomicLong escalatedCount = new AtomicLong();
+
+    /**
+     * Constructs an AlertEscalationService with the default service levels and
+     * a timer that ticks once a second.
+     *
+     * @param alertDAO data access object for alert records
+     * @param alertLogic alert service used to escalate alerts
+     */
+    public AlertEscalationService(AlertDAO alertDAO, VehicleAlertBusinessLogic alertLogic) {
+        this(alertDAO, alertLogic, defaultServiceLevels(),
+                new HashedWheelTimer(1, TimeUnit.SECONDS, 512, "alert-escalation-timer"));
+    }
+
+    /**
+     * Constructs an AlertEscalationService.
+     *
+     * @param alertDAO data access object for alert records
+     * @param alertLogic alert service used to escalate alerts
+     * @param slaMillis milliseconds an alert of each type may stay ACTIVE;
+     * types without an entry are never escalated
+     * @param timer the timer holding the escalation deadlines
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public AlertEscalationService(AlertDAO alertDAO, VehicleAlertBusinessLogic alertLogic,
+            Map<VehicleEvent, Long> slaMillis, HashedWheelTimer timer) {
+        if (alertDAO == null || alertLogic == null || slaMillis == null || timer == null) {
+            throw new IllegalArgumentException("Dependencies cannot be null");
+        }
+        this.alertDAO = alertDAO;
+        this.alertLogic = alertLogic;
+        this.slaMillis = new EnumMap<>(VehicleEvent.class);
+        this.slaMillis.putAll(slaMillis);
+        this.timer = timer;
+        this.escalator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "alert-escalation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the default service levels: five minutes for accidents, fifteen
+     * for route events, thirty for refuelling and an hour for maintenance.
+     *
+     * @return milliseconds an alert of each type may stay ACTIVE
+     */
+    public static Map<VehicleEvent, Long> defaultServiceLevels() {
+        Map<VehicleEvent, Long> levels = new EnumMap<>(VehicleEvent.class);
+        levels.put(VehicleEvent.ACCIDENT, TimeUnit.MINUTES.toMillis(5));
+        levels.put(VehicleEvent.ROUTE_START, TimeUnit.MINUTES.toMillis(15));
+        levels.put(VehicleEvent.ROUTE_END, TimeUnit.MINUTES.toMillis(15));
+        levels.put(VehicleEvent.REFUEL, TimeUnit.MINUTES.toMillis(30));
+        levels.put(VehicleEvent.MAINTENANCE, TimeUnit.HOURS.toMillis(1));
+        return levels;
+    }
+
+    /**
+     * Starts or cancels the escalation timer of an alert as its status changes.
+     *
+     * @param eventType the type of vehicle event
+     * @param alert the alert
+     */
+    @Override
+    public void onAlert(VehicleEvent eventType, AlertDTO alert) {
+        if (alert == null || alert.getAlertID() <= 0) {
+            return;
+        }
+        if (ACTIVE.equals(alert.getStatus())) {
+            track(eventType, alert);
+        } else {
+            cancel(alert.getAlertID());
+        }
+    }
+
+    /**
+     * Starts a timer for every active alert in the database. Called at startup.
+     *
+     * @return the number of alerts being timed
+     */
+    public int rebuild() {
+        for (AlertDTO alert : alertDAO.getActiveAlerts()) {
+            try {
+                track(VehicleEvent.valueOf(alert.getAlertType()), alert);
+            } catch (IllegalArgumentException | NullPointerException e) {
+                // Alerts of unknown types are never escalated
+            }
+        }
+        return timers.size();
+    }
+
+    /**
+     * @return the number of alerts waiting to be escalated
+     */
+    public int getPendingCount() {
+        return timers.size();
+    }
+
+    /**
+     * @return the number of alerts escalated automatically
+     */
+    public long getEscalatedCount() {
+        return escalatedCount.get();
+    }
+
+    /**
+     * Stops the timer and the escalation thread. Pending alerts stay ACTIVE and
+     * are picked up again by rebuild on the next start.
+     */
+    public void stop() {
+        timer.stop();
+        escalator.shutdownNow();
+    }
+
+    private void track(VehicleEvent eventType, AlertDTO alert) {
+        Long sla = slaMillis.get(eventType);
+        if (sla == null) {
+            return;
+        }
+        long raisedAt = alert.getAlertTime() != null ? alert.getAlertTime().getTime() : System.currentTimeMillis();
+        long delay = raisedAt + sla - System.currentTimeMillis();
+        int alertID = alert.getAlertID();
+        timers.computeIfAbsent(alertID, id -> timer.newTimeout(
+                () -> escalator.execute(() -> escalate(id)), delay, TimeUnit.MILLISECONDS));
+    }
+
+    private void cancel(int alertID) {
+        HashedWheelTimer.Timeout timeout = timers.remove(alertID);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    private void escalate(int alertID) {
+        timers.remove(alertID);
+        try {
+            AlertDTO alert = alertDAO.getAlertById(alertID);
+            // Only escalates if nobody acknowledged it while the timer was firing
+            if (alert != null && ACTIVE.equals(alert.getStatus())
+                    && alertDAO.transitionStatus(alertID, ACTIVE, "ESCALATED")) {
+                alert.setStatus("ESCALATED");
+                alertLogic.alertChanged(alert);
+                escalatedCount.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Failed to escalate alert " + alertID + ": " + e.getMessage());
+        }
+    }
+}
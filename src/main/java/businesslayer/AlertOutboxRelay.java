@@ -0,0 +1,284 @@
+package businesslayer;
+
+import dataaccesslayer.AlertOutboxDAO;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import observer.Listener;
+import observer.VehicleEvent;
+import transferobjects.AlertDTO;
+import transferobjects.OutboxEntryDTO;
+
+/**
+ * Delivers the alert changes recorded in the outbox to listeners, in batches
+ * on a background thread, so announcing an alert never holds up the request
+ * that raised it. Each listener is registered under a name and has its own
+ * cursor in the database, advanced only after a batch has been delivered to
+ * it. Delivery is at least once: after a failure or a restart a listener may
+ * see an entry again, but never misses one. A listener that fails is retried
+ * on the next round without holding up the others. Entries every listener
+ * has read are removed.
+ * <p>
+ * Outbox IDs are handed out when a row is inserted, not when it commits, so
+ * a gap in the IDs may be a transaction that has not committed yet. Delivery
+ * stops at a gap until it has stayed open for GAP_TIMEOUT_MILLIS, after which
+ * the missing IDs are taken to belong to rolled back transactions.
+ * @author Simon
+ */
+public class AlertOutboxRelay {
+
+    /**
+     * Default number of entries read per round.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    /**
+     * How long a gap in the outbox IDs is waited on before it is skipped.
+     */
+    static final long GAP_TIMEOUT_MILLIS = 10_000;
+
+    private final AlertOutboxDAO outbox;
+    private final int batchSize;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final NavigableMap<Long, Long> gapsSeenAt = new TreeMap<>();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong failedDeliveries = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs an AlertOutboxRelay with the default batch size.
+     *
+     * @param outbox data access object for the outbox and the cursors
+     */
+    public AlertOutboxRelay(AlertOutboxDAO outbox) {
+        this(outbox, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs an AlertOutboxRelay.
+     *
+     * @param outbox data access object for the outbox and the cursors
+     * @param batchSize the most entries read per round
+     * @throws IllegalArgumentException if outbox is null or batchSize is not positive
+     */
+    public AlertOutboxRelay(AlertOutboxDAO outbox, int batchSize) {
+        if (outbox == null || batchSize <= 0) {
+            throw new IllegalArgumentException("Invalid relay settings");
+        }
+        this.outbox = outbox;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * A named listener and how far it has read the outbox.
+     */
+    private static final class Subscription {
+        private final String name;
+        private final Listener listener;
+        private volatile long cursor = -1;
+
+        Subscription(String name, Listener listener) {
+            this.name = name;
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * Registers a listener. Its cursor is read from the database on the first
+     * round, so a listener registered under the same name after a restart
+     * carries on where it stopped.
+     *
+     * @param name a name that identifies the listener across restarts
+     * @param listener the listener
+     * @throws IllegalArgumentException if name or listener is null
+     */
+    public void subscribe(String name, Listener listener) {
+        if (name == null || listener == null) {
+            throw new IllegalArgumentException("Name and listener cannot be null");
+        }
+        subscriptions.add(new Subscription(name, listener));
+    }
+
+    /**
+     * Removes a listener. Its cursor stays in the database, so subscribing
+     * again under the same name carries on where it stopped.
+     *
+     * @param name the name the listener was registered under
+     */
+    public void unsubscribe(String name) {
+        subscriptions.removeIf(subscription -> subscription.name.equals(name));
+    }
+
+    /**
+     * Delivers one batch of outbox entries to every listener.
+     *
+     * @return the number of entries read, or 0 if the furthest behind listener
+     * made no progress
+     * @throws RuntimeException if the outbox cannot be read
+     */
+    public synchronized int relay() {
+        if (subscriptions.isEmpty()) {
+            return 0;
+        }
+        long from = Long.MAX_VALUE;
+        for (Subscription subscription : subscriptions) {
+            if (subscription.cursor < 0) {
+                subscription.cursor = outbox.getCursor(subscription.name);
+            }
+            from = Math.min(from, subscription.cursor);
+        }
+
+        List<OutboxEntryDTO> entries = outbox.getEntriesAfter(from, batchSize);
+        int ready = readyCount(entries, from);
+        if (ready == 0) {
+            return 0;
+        }
+        List<OutboxEntryDTO> batch = entries.subList(0, ready);
+        long last = batch.get(ready - 1).getOutboxID();
+
+        long slowest = Long.MAX_VALUE;
+        for (Subscription subscription : subscriptions) {
+            if (subscription.cursor < last && deliver(subscription, batch)) {
+                subscription.cursor = last;
+            }
+            slowest = Math.min(slowest, subscription.cursor);
+        }
+        if (slowest <= from) {
+            // The furthest behind listener failed; it is retried next round
+            return 0;
+        }
+        outbox.deleteUpTo(slowest);
+        return ready;
+    }
+
+    /**
+     * @return the number of entries delivered, counted once per listener
+     */
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    /**
+     * @return the number of batches a listener failed to take
+     */
+    public long getFailedDeliveries() {
+        return failedDeliveries.get();
+    }
+
+    /**
+     * Starts relaying at a fixed interval. Each round drains the outbox in
+     * batches until it is caught up.
+     *
+     * @param period time between rounds
+     * @param unit the unit of period
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "alert-outbox-relay");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    while (relay() == batchSize) {
+                        // A full batch means more may be waiting
+                    }
+                } catch (Exception e) {
+                    System.err.println("Failed to relay alert outbox: " + e.getMessage());
+                }
+            }, 0, period, unit);
+        }
+    }
+
+    /**
+     * Stops relaying. Undelivered entries stay in the outbox for the next start.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Delivers a batch to one listener, skipping the entries it already has.
+     *
+     * @param subscription the listener
+     * @param batch the entries
+     * @return true if the whole batch was delivered and the cursor saved
+     */
+    private boolean deliver(Subscription subscription, List<OutboxEntryDTO> batch) {
+        long delivered = subscription.cursor;
+        try {
+            for (OutboxEntryDTO entry : batch) {
+                if (entry.getOutboxID() <= subscription.cursor) {
+                    continue;
+                }
+                AlertDTO alert = entry.getAlert();
+                VehicleEvent eventType = eventTypeOf(alert);
+                if (eventType != null) {
+                    subscription.listener.onAlert(eventType, alert);
+                    deliveredCount.incrementAndGet();
+                }
+                delivered = entry.getOutboxID();
+            }
+            outbox.saveCursor(subscription.name, delivered);
+            return true;
+        } catch (RuntimeException e) {
+            failedDeliveries.incrementAndGet();
+            System.err.println("Listener " + subscription.name + " failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Counts how many entries at the start of a batch can be delivered: those
+     * up to the first gap in the IDs that is still young enough to be an
+     * uncommitted transaction.
+     *
+     * @param entries the entries read, in outbox order
+     * @param from the position they were read after
+     * @return the number of entries that can be delivered
+     */
+    private int readyCount(List<OutboxEntryDTO> entries, long from) {
+        long now = System.currentTimeMillis();
+        long expected = from + 1;
+        int ready = 0;
+        for (OutboxEntryDTO entry : entries) {
+            long id = entry.getOutboxID();
+            // A listener starting from scratch has no gap before its first entry
+            if (id != expected && (from > 0 || ready > 0)) {
+                long seenAt = gapsSeenAt.computeIfAbsent(expected, gap -> now);
+                if (now - seenAt < GAP_TIMEOUT_MILLIS) {
+                    break;
+                }
+                gapsSeenAt.remove(expected);
+            }
+            expected = id + 1;
+            ready++;
+        }
+        // Gaps before the next undelivered position are settled
+        gapsSeenAt.headMap(expected).clear();
+        return ready;
+    }
+
+    /**
+     * Reads the event type of an alert.
+     *
+     * @param alert the alert
+     * @return the VehicleEvent, or null for alert types that are not events
+     */
+    private static VehicleEvent eventTypeOf(AlertDTO alert) {
+        try {
+            return VehicleEvent.valueOf(alert.getAlertType());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return null;
+        }
+    }
+}
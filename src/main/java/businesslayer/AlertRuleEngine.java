@@ -0,0 +1,390 @@
+package businesslayer;
+
+import constants.VehicleType;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import observer.VehicleEvent;
+import transferobjects.BusDTO;
+import transferobjects.DieselTrainDTO;
+import transferobjects.ElectricLightRailDTO;
+import transferobjects.VehicleDTO;
+
+/**
+ * Evaluates the vehicle monitoring rules defined in alert-rules.properties.
+ * The rules are compiled once per vehicle type into flat arrays of metric,
+ * threshold and comparison, so checking a vehicle is a single loop without
+ * branching on its type. Rules of the same group that match are combined
+ * into one alert, which carries the group's name so equivalent alerts can be
+ * recognised without reading their message. The rules can be reloaded while
+ * the application runs; a reload that fails leaves the previous rules in
+ * place.
+ * @author jaces
+ */
+public class AlertRuleEngine {
+
+    /**
+     * Classpath resource holding the default rules.
+     */
+    public static final String DEFAULT_RESOURCE = "alert-rules.properties";
+
+    /**
+     * System property naming a rules file to use instead of the resource.
+     */
+    public static final String RULES_FILE_PROPERTY = "alertRules.file";
+
+    private static final int BUS = 0;
+    private static final int DIESEL_TRAIN = 1;
+    private static final int ELECTRIC_LIGHT_RAIL = 2;
+    private static final int OTHER = 3;
+    private static final VehicleMetric[] METRICS = VehicleMetric.values();
+
+    private final AtomicReference<CompiledRules> rules = new AtomicReference<>();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Creates an engine with the rules from the rules file or the default resource.
+     *
+     * @throws IllegalStateException if the rules cannot be read or are invalid
+     */
+    public AlertRuleEngine() {
+        rules.set(compile(loadConfiguration()));
+    }
+
+    /**
+     * Creates an engine with the given rules.
+     *
+     * @param configuration the rules, in the alert-rules.properties format
+     * @throws IllegalArgumentException if the rules are invalid
+     */
+    public AlertRuleEngine(Properties configuration) {
+        rules.set(compile(configuration));
+    }
+
+    /**
+     * An alert raised by the rules.
+     */
+    public static final class RaisedAlert {
+        private final int vehicleID;
+        private final VehicleEvent eventType;
+        private final String group;
+        private final String reason;
+
+        RaisedAlert(int vehicleID, VehicleEvent eventType, String group, String reason) {
+            this.vehicleID = vehicleID;
+            this.eventType = eventType;
+            this.group = group;
+            this.reason = reason;
+        }
+
+        /**
+         * @return the ID of the vehicle
+         */
+        public int getVehicleID() {
+            return vehicleID;
+        }
+
+        /**
+         * @return the type of event
+         */
+        public VehicleEvent getEventType() {
+            return eventType;
+        }
+
+        /**
+         * @return the name of the rule group that raised the alert
+         */
+        public String getGroup() {
+            return group;
+        }
+
+        /**
+         * @return the alert reason
+         */
+        public String getReason() {
+            return reason;
+        }
+    }
+
+    /**
+     * Checks one vehicle against the rules.
+     *
+     * @param vehicle the vehicle to check
+     * @return the alerts raised, empty if none
+     */
+    public List<RaisedAlert> evaluate(VehicleDTO vehicle) {
+        List<RaisedAlert> raised = new ArrayList<>(2);
+        evaluate(rules.get(), vehicle, raised);
+        return raised;
+    }
+
+    /**
+     * Checks many vehicles against the same version of the rules.
+     *
+     * @param vehicles the vehicles to check
+     * @return the alerts raised, in vehicle order
+     */
+    public List<RaisedAlert> evaluate(List<? extends VehicleDTO> vehicles) {
+        CompiledRules current = rules.get();
+        List<RaisedAlert> raised = new ArrayList<>();
+        for (VehicleDTO vehicle : vehicles) {
+            if (vehicle != null) {
+                evaluate(current, vehicle, raised);
+            }
+        }
+        return raised;
+    }
+
+    /**
+     * Reads and compiles the rules again and swaps them in.
+     *
+     * @return true if the new rules are in use, false if they could not be
+     * loaded and the previous rules are kept
+     */
+    public boolean reload() {
+        try {
+            rules.set(compile(loadConfiguration()));
+            return true;
+        } catch (RuntimeException e) {
+            System.err.println("Failed to reload alert rules: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reloads the rules at a fixed interval.
+     *
+     * @param period time between reloads
+     * @param unit the unit of period
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "alert-rules-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::reload, period, period, unit);
+        }
+    }
+
+    /**
+     * Stops the scheduled reload.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * @return the number of rules currently compiled
+     */
+    public int getRuleCount() {
+        return rules.get().ruleCount;
+    }
+
+    private static void evaluate(CompiledRules current, VehicleDTO vehicle, List<RaisedAlert> raised) {
+        RuleSet set = current.byVehicleKind[kindOf(vehicle)];
+        StringBuilder[] reasons = null;
+        for (int i = 0; i < set.metrics.length; i++) {
+            double value = METRICS[set.metrics[i]].valueOf(vehicle);
+            boolean matched = set.atLeast[i] ? value >= set.thresholds[i] : value <= set.thresholds[i];
+            if (matched) {
+                if (reasons == null) {
+                    reasons = new StringBuilder[current.groupEvents.length];
+                }
+                int group = set.groups[i];
+                if (reasons[group] == null) {
+                    reasons[group] = new StringBuilder(current.groupPrefixes[group]);
+                }
+                if (reasons[group].length() > 0) {
+                    reasons[group].append(' ');
+                }
+                reasons[group].append(format(set.messages[i], value, vehicle));
+            }
+        }
+        if (reasons != null) {
+            for (int group = 0; group < reasons.length; group++) {
+                if (reasons[group] != null) {
+                    raised.add(new RaisedAlert(vehicle.getVehicleID(), current.groupEvents[group],
+                            current.groupNames[group], reasons[group].toString()));
+                }
+            }
+        }
+    }
+
+    private static String format(String message, double value, VehicleDTO vehicle) {
+        return message.replace("{value}", String.valueOf(value))
+                .replace("{route}", String.valueOf(vehicle.getCurrentRouteID()))
+                .replace("{vehicle}", String.valueOf(vehicle.getVehicleID()));
+    }
+
+    private static int kindOf(VehicleDTO vehicle) {
+        if (vehicle instanceof BusDTO) {
+            return BUS;
+        } else if (vehicle instanceof DieselTrainDTO) {
+            return DIESEL_TRAIN;
+        } else if (vehicle instanceof ElectricLightRailDTO) {
+            return ELECTRIC_LIGHT_RAIL;
+        }
+        return OTHER;
+    }
+
+    private static Properties loadConfiguration() {
+        Properties configuration = new Properties();
+        String file = System.getProperty(RULES_FILE_PROPERTY);
+        try (InputStream input = file != null ? new FileInputStream(file)
+                : AlertRuleEngine.class.getClassLoader().getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (input == null) {
+                throw new IllegalStateException("Alert rules not found: " + DEFAULT_RESOURCE);
+            }
+            configuration.load(input);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read alert rules", e);
+        }
+        return configuration;
+    }
+
+    private static CompiledRules compile(Properties configuration) {
+        Map<String, Integer> groupIndex = new LinkedHashMap<>();
+        List<VehicleEvent> groupEvents = new ArrayList<>();
+        List<String> groupPrefixes = new ArrayList<>();
+        for (String group : split(configuration.getProperty("groups", ""))) {
+            String event = required(configuration, "group." + group + ".event");
+            groupIndex.put(group, groupIndex.size());
+            groupEvents.add(VehicleEvent.valueOf(event.trim()));
+            groupPrefixes.add(configuration.getProperty("group." + group + ".prefix", "").trim());
+        }
+
+        List<String> ruleNames = split(configuration.getProperty("rules", ""));
+        List<List<Integer>> rulesByKind = new ArrayList<>();
+        for (int kind = 0; kind <= OTHER; kind++) {
+            rulesByKind.add(new ArrayList<>());
+        }
+        int[] metrics = new int[ruleNames.size()];
+        double[] thresholds = new double[ruleNames.size()];
+        boolean[] atLeast = new boolean[ruleNames.size()];
+        int[] groups = new int[ruleNames.size()];
+        String[] messages = new String[ruleNames.size()];
+
+        for (int i = 0; i < ruleNames.size(); i++) {
+            String prefix = "rule." + ruleNames.get(i) + ".";
+            VehicleMetric metric = VehicleMetric.valueOf(required(configuration, prefix + "metric").trim());
+            String operator = required(configuration, prefix + "operator").trim();
+            if (!">=".equals(operator) && !"<=".equals(operator)) {
+                throw new IllegalArgumentException("Unknown operator for " + prefix + ": " + operator);
+            }
+            Integer group = groupIndex.get(required(configuration, prefix + "group").trim());
+            if (group == null) {
+                throw new IllegalArgumentException("Unknown group for " + prefix);
+            }
+            metrics[i] = metric.ordinal();
+            thresholds[i] = Double.parseDouble(required(configuration, prefix + "threshold").trim());
+            atLeast[i] = ">=".equals(operator);
+            groups[i] = group;
+            messages[i] = required(configuration, prefix + "message").trim();
+
+            List<String> types = split(configuration.getProperty(prefix + "vehicleTypes", ""));
+            addIfApplicable(rulesByKind, BUS, BusDTO.class, VehicleType.BUS, metric, types, i);
+            addIfApplicable(rulesByKind, DIESEL_TRAIN, DieselTrainDTO.class, VehicleType.DIESELTRAIN, metric, types, i);
+            addIfApplicable(rulesByKind, ELECTRIC_LIGHT_RAIL, ElectricLightRailDTO.class,
+                    VehicleType.ELECTRICLIGHTRAIL, metric, types, i);
+            addIfApplicable(rulesByKind, OTHER, VehicleDTO.class, null, metric, types, i);
+        }
+
+        RuleSet[] byVehicleKind = new RuleSet[OTHER + 1];
+        for (int kind = 0; kind <= OTHER; kind++) {
+            List<Integer> selected = rulesByKind.get(kind);
+            RuleSet set = new RuleSet(selected.size());
+            for (int j = 0; j < selected.size(); j++) {
+                int rule = selected.get(j);
+                set.metrics[j] = metrics[rule];
+                set.thresholds[j] = thresholds[rule];
+                set.atLeast[j] = atLeast[rule];
+                set.groups[j] = groups[rule];
+                set.messages[j] = messages[rule];
+            }
+            byVehicleKind[kind] = set;
+        }
+        return new CompiledRules(byVehicleKind, groupIndex.keySet().toArray(new String[0]),
+                groupEvents.toArray(new VehicleEvent[0]), groupPrefixes.toArray(new String[0]),
+                ruleNames.size());
+    }
+
+    private static void addIfApplicable(List<List<Integer>> rulesByKind, int kind,
+            Class<? extends VehicleDTO> type, String typeName, VehicleMetric metric,
+            List<String> types, int rule) {
+        boolean typeSelected = types.isEmpty() || (typeName != null && types.contains(typeName));
+        if (typeSelected && metric.appliesTo(type)) {
+            rulesByKind.get(kind).add(rule);
+        }
+    }
+
+    private static String required(Properties configuration, String key) {
+        String value = configuration.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing alert rule setting: " + key);
+        }
+        return value;
+    }
+
+    private static List<String> split(String value) {
+        List<String> parts = new ArrayList<>();
+        for (String part : value.split(",")) {
+            if (!part.trim().isEmpty()) {
+                parts.add(part.trim());
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * The rules that apply to one kind of vehicle, as parallel arrays.
+     */
+    private static final class RuleSet {
+        private final int[] metrics;
+        private final double[] thresholds;
+        private final boolean[] atLeast;
+        private final int[] groups;
+        private final String[] messages;
+
+        RuleSet(int size) {
+            metrics = new int[size];
+            thresholds = new double[size];
+            atLeast = new boolean[size];
+            groups = new int[size];
+            messages = new String[size];
+        }
+    }
+
+    /**
+     * One immutable version of the compiled rules.
+     */
+    private static final class CompiledRules {
+        private final RuleSet[] byVehicleKind;
+        private final String[] groupNames;
+        private final VehicleEvent[] groupEvents;
+        private final String[] groupPrefixes;
+        private final int ruleCount;
+
+        CompiledRules(RuleSet[] byVehicleKind, String[] groupNames, VehicleEvent[] groupEvents,
+                String[] groupPrefixes, int ruleCount) {
+            this.byVehicleKind = byVehicleKind;
+            this.groupNames = groupNames;
+            this.groupEvents = groupEvents;
+            this.groupPrefixes = groupPrefixes;
+            this.ruleCount = ruleCount;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package businesslayer;
+
+import dataaccesslayer.VehicleDAO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import transferobjects.VehicleDTO;
+
+/**
+ * Checks the whole fleet against the alert rules in the background, so that
+ * vehicles that sit idle or are only updated by hand are monitored as well as
+ * those completing trips. Each sweep loads every vehicle in one query, splits
+ * the fleet across a fork-join pool to evaluate the rules, and stores the
+ * resulting alerts with batched inserts. The time budget covers the whole
+ * sweep, loading included. A sweep stops evaluating once its budget is spent
+ * and stores at most one more batch after that; the vehicles and alerts it
+ * skipped are reported and picked up by the next sweep.
+ * @author jaces
+ */
+public class FleetHealthSweep {
+
+    /**
+     * Default time budget of one sweep in seconds.
+     */
+    public static final long DEFAULT_BUDGET_SECONDS = 30;
+
+    /**
+     * Number of vehicles a single fork-join task evaluates without splitting.
+     */
+    private static final int CHUNK_SIZE = 512;
+
+    /**
+     * Maximum number of alerts stored with one batched insert.
+     */
+    private static final int ALERT_BATCH_SIZE = 1000;
+
+    private final VehicleDAO vehicleDao;
+    private final VehicleAlertBusinessLogic alertLogic;
+    private final ForkJoinPool pool;
+    private final long budgetNanos;
+
+    private final AtomicReference<SweepResult> lastResult = new AtomicReference<>();
+    private final AtomicLong sweepCount = new AtomicLong();
+    private final AtomicLong overBudgetCount = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a FleetHealthSweep that uses every core and the default budget.
+     *
+     * @param vehicleDao data access object the fleet is loaded from
+     * @param alertLogic alert service holding the rules and raising alerts
+     */
+    public FleetHealthSweep(VehicleDAO vehicleDao, VehicleAlertBusinessLogic alertLogic) {
+        this(vehicleDao, alertLogic, Runtime.getRuntime().availableProcessors(),
+                DEFAULT_BUDGET_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Constructs a FleetHealthSweep.
+     *
+     * @param vehicleDao data access object the fleet is loaded from
+     * @param alertLogic alert service holding the rules and raising alerts
+     * @param parallelism number of threads evaluating the rules
+     * @param budget the time one sweep may spend evaluating vehicles
+     * @param unit the unit of budget
+     * @throws IllegalArgumentException if a dependency is null or a limit is not positive
+     */
+    public FleetHealthSweep(VehicleDAO vehicleDao, VehicleAlertBusinessLogic alertLogic,
+            int parallelism, long budget, TimeUnit unit) {
+        if (vehicleDao == null || alertLogic == null || parallelism <= 0 || budget <= 0) {
+            throw new IllegalArgumentException("Invalid sweep settings");
+        }
+        this.vehicleDao = vehicleDao;
+        this.alertLogic = alertLogic;
+        this.pool = new ForkJoinPool(parallelism);
+        this.budgetNanos = unit.toNanos(budget);
+    }
+
+    /**
+     * The outcome and timings of one sweep.
+     */
+    public static final class SweepResult {
+        private final int vehiclesLoaded;
+        private final int vehiclesEvaluated;
+        private final int alertsMatched;
+        private final int alertsRaised;
+        private final int alertsDeferred;
+        private final long loadMillis;
+        private final long evaluateMillis;
+        private final long durationMillis;
+        private final long budgetMillis;
+
+        SweepResult(int vehiclesLoaded, int vehiclesEvaluated, int alertsMatched, int alertsRaised,
+                int alertsDeferred, long loadMillis, long evaluateMillis, long durationMillis,
+                long budgetMillis) {
+            this.vehiclesLoaded = vehiclesLoaded;
+            this.vehiclesEvaluated = vehiclesEvaluated;
+            this.alertsMatched = alertsMatched;
+            this.alertsRaised = alertsRaised;
+            this.alertsDeferred = alertsDeferred;
+            this.loadMillis = loadMillis;
+            this.evaluateMillis = evaluateMillis;
+            this.durationMillis = durationMillis;
+            this.budgetMillis = budgetMillis;
+        }
+
+        /**
+         * @return the number of vehicles loaded from the database
+         */
+        public int getVehiclesLoaded() {
+            return vehiclesLoaded;
+        }
+
+        /**
+         * @return the number of vehicles checked before the budget ran out
+         */
+        public int getVehiclesEvaluated() {
+            return vehiclesEvaluated;
+        }
+
+        /**
+         * @return true if every loaded vehicle was checked and all its alerts stored
+         */
+        public boolean isComplete() {
+            return vehiclesEvaluated == vehiclesLoaded && alertsDeferred == 0;
+        }
+
+        /**
+         * @return true if the whole sweep, loading included, finished within its budget
+         */
+        public boolean isWithinBudget() {
+            return durationMillis <= budgetMillis;
+        }
+
+        /**
+         * @return the number of alerts the rules produced
+         */
+        public int getAlertsMatched() {
+            return alertsMatched;
+        }
+
+        /**
+         * @return the number of alerts created after deduplication
+         */
+        public int getAlertsRaised() {
+            return alertsRaised;
+        }
+
+        /**
+         * @return the number of matched alerts left for the next sweep because
+         *         the budget ran out before they were stored
+         */
+        public int getAlertsDeferred() {
+            return alertsDeferred;
+        }
+
+        /**
+         * @return the time spent loading the fleet, in milliseconds, counted
+         *         against the budget
+         */
+        public long getLoadMillis() {
+            return loadMillis;
+        }
+
+        /**
+         * @return the time spent evaluating the rules, in milliseconds
+         */
+        public long getEvaluateMillis() {
+            return evaluateMillis;
+        }
+
+        /**
+         * @return the total duration of the sweep, in milliseconds
+         */
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        /**
+         * @return the time budget of the sweep, in milliseconds
+         */
+        public long getBudgetMillis() {
+            return budgetMillis;
+        }
+
+        /**
+         * @return vehicles evaluated per second over the whole sweep
+         */
+        public double getVehiclesPerSecond() {
+            return durationMillis == 0 ? vehiclesEvaluated * 1000.0 : vehiclesEvaluated * 1000.0 / durationMillis;
+        }
+    }
+
+    /**
+     * Runs one sweep over the whole fleet.
+     *
+     * @return the outcome of the sweep
+     * @throws RuntimeException if the fleet cannot be loaded or the alerts stored
+     */
+    public SweepResult sweep() {
+        long started = System.nanoTime();
+        long deadline = started + budgetNanos;
+        List<VehicleDTO> fleet = vehicleDao.getAllVehiclesDetailed();
+        long loaded = System.nanoTime();
+
+        AtomicInteger evaluated = new AtomicInteger();
+        List<AlertRuleEngine.RaisedAlert> matched = pool.invoke(
+                new EvaluateTask(alertLogic.getRules(), fleet, 0, fleet.size(), deadline, evaluated));
+        long evaluatedAt = System.nanoTime();
+
+        int raised = 0;
+        int stored = 0;
+        while (stored < matched.size()) {
+            int end = Math.min(stored + ALERT_BATCH_SIZE, matched.size());
+            raised += alertLogic.raiseAlerts(matched.subList(stored, end));
+            stored = end;
+            if (System.nanoTime() - deadline > 0) {
+                break;
+            }
+        }
+        long finished = System.nanoTime();
+
+        SweepResult result = new SweepResult(fleet.size(), evaluated.get(), matched.size(), raised,
+                matched.size() - stored,
+                TimeUnit.NANOSECONDS.toMillis(loaded - started),
+                TimeUnit.NANOSECONDS.toMillis(evaluatedAt - loaded),
+                TimeUnit.NANOSECONDS.toMillis(finished - started),
+                TimeUnit.NANOSECONDS.toMillis(budgetNanos));
+        lastResult.set(result);
+        sweepCount.incrementAndGet();
+        if (!result.isComplete() || finished - deadline > 0) {
+            overBudgetCount.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * @return the outcome of the most recent sweep, or null if none has run
+     */
+    public SweepResult getLastResult() {
+        return lastResult.get();
+    }
+
+    /**
+     * @return the number of sweeps run
+     */
+    public long getSweepCount() {
+        return sweepCount.get();
+    }
+
+    /**
+     * @return the number of sweeps that ran out of budget, loading included
+     */
+    public long getOverBudgetCount() {
+        return overBudgetCount.get();
+    }
+
+    /**
+     * Starts sweeping the fleet at a fixed interval.
+     *
+     * @param period time between the end of one sweep and the start of the next
+     * @param unit the unit of period
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "fleet-health-sweep");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    sweep();
+                } catch (Exception e) {
+                    System.err.println("Fleet health sweep failed: " + e.getMessage());
+                }
+            }, period, period, unit);
+        }
+    }
+
+    /**
+     * Stops the scheduled sweep and the evaluation threads.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        pool.shutdownNow();
+    }
+
+    /**
+     * Evaluates a range of the fleet, splitting it in half until it is small
+     * enough to check directly. Ranges started after the deadline are skipped.
+     */
+    private static final class EvaluateTask extends RecursiveTask<List<AlertRuleEngine.RaisedAlert>> {
+        private final AlertRuleEngine rules;
+        private final List<VehicleDTO> fleet;
+        private final int from;
+        private final int to;
+        private final long deadline;
+        private final AtomicInteger evaluated;
+
+        EvaluateTask(AlertRuleEngine rules, List<VehicleDTO> fleet, int from, int to,
+                long deadline, AtomicInteger evaluated) {
+            this.rules = rules;
+            this.fleet = fleet;
+            this.from = from;
+            this.to = to;
+            this.deadline = deadline;
+            this.evaluated = evaluated;
+        }
+
+        @Override
+        protected List<AlertRuleEngine.RaisedAlert> compute() {
+            if (System.nanoTime() - deadline > 0) {
+                return new ArrayList<>();
+            }
+            if (to - from <= CHUNK_SIZE) {
+                List<AlertRuleEngine.RaisedAlert> raised = rules.evaluate(fleet.subList(from, to));
+                evaluated.addAndGet(to - from);
+                return raised;
+            }
+            int middle = (from + to) >>> 1;
+            EvaluateTask left = new EvaluateTask(rules, fleet, from, middle, deadline, evaluated);
+            EvaluateTask right = new EvaluateTask(rules, fleet, middle, to, deadline, evaluated);
+            left.fork();
+            List<AlertRuleEngine.RaisedAlert> raised = right.compute();
+            List<AlertRuleEngine.RaisedAlert> leftRaised = left.join();
+            leftRaised.addAll(raised);
+            return leftRaised;
+        }
+    }
+}
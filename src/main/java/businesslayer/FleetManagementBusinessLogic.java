@@ -2,8 +2,6 @@ package businesslayer;
 
 import dataaccesslayer.VehicleDAO;
 import dataaccesslayer.UserDAO;
-import dataaccesslayer.VehicleDAOImpl;
-import dataaccesslayer.UserDAOImpl;
 import transferobjects.CredentialsDTO;
 import dataaccesslayer.InvalidCredentialsException;
 import factory.VehicleBuilderFactory;
@@ -18,7 +16,10 @@ import fuelpkg.DieselTrainConsumptionStrategy;
 import fuelpkg.ElectricLightRailConsumptionStrategy;
 import fuelpkg.FuelContext;
 import transferobjects.FuelDTO;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import transferobjects.RouteDTO;
 import java.time.LocalDateTime;
 import java.sql.Timestamp;
@@ -35,9 +36,9 @@ import command.RefuelBusCommand;
 import command.RefuelDieselTrainCommand;
 import command.RefuelElectricLightRailCommand;
 import constants.VehicleStatus;
-import dataaccesslayer.AlertDAO;
-import dataaccesslayer.AlertDAOImpl;
-import observer.VehicleEventNotifier;
+import dataaccesslayer.UnitOfWork;
+import dataaccesslayer.LocationIngestor;
+import java.sql.SQLException;
 
 
 
@@ -49,20 +50,72 @@ import observer.VehicleEventNotifier;
  */
 public class FleetManagementBusinessLogic {
     
-    private VehicleDAO vehicleDao;
-    private UserDAO userDao;
-    private VehicleAlertBusinessLogic alertLogic;
+    private final VehicleDAO vehicleDao;
+    private final UserDAO userDao;
+    private final VehicleAlertBusinessLogic alertLogic;
+    private final ReferenceDataService referenceData;
+    private final LocationIngestor locationIngestor;
+    private final LivePositionStore livePositions;
+    private final GeofenceEngine geofence;
     
     /**
-     * Constructs a FleetManagementBusinessLogic instance with default DAO implementations.
-     * Initializes the alert business logic with required dependencies.
+     * Constructs a FleetManagementBusinessLogic instance that uses the DAOs and
+     * services shared through the ServiceRegistry.
      */
     public FleetManagementBusinessLogic() {
-        vehicleDao = new VehicleDAOImpl();
-        userDao = new UserDAOImpl();
-        AlertDAO alertDao = new AlertDAOImpl();
-        VehicleEventNotifier notifier = new VehicleEventNotifier(); 
-        alertLogic = new VehicleAlertBusinessLogic(alertDao, notifier);
+        this(ServiceRegistry.getInstance());
+    }
+    
+    private FleetManagementBusinessLogic(ServiceRegistry registry) {
+        this(registry.getVehicleDAO(), registry.getUserDAO(),
+                registry.getAlertLogic(), registry.getReferenceData(), registry.getLocationIngestor(),
+                registry.getLivePositions(), registry.getGeofence());
+    }
+    
+    /**
+     * Constructs a FleetManagementBusinessLogic instance with the given dependencies.
+     *
+     * @param vehicleDao data access object for vehicle records
+     * @param userDao data access object for user records
+     * @param alertLogic business logic for vehicle alerts
+     * @param referenceData snapshot service for routes and stations
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public FleetManagementBusinessLogic(VehicleDAO vehicleDao, UserDAO userDao,
+            VehicleAlertBusinessLogic alertLogic, ReferenceDataService referenceData) {
+        this(vehicleDao, userDao, alertLogic, referenceData, null, null, null);
+    }
+    
+    /**
+     * Constructs a FleetManagementBusinessLogic instance that buffers location
+     * updates in an ingestor instead of writing each one straight away,
+     * serves current locations from memory and detects station visits.
+     *
+     * @param vehicleDao data access object for vehicle records
+     * @param userDao data access object for user records
+     * @param alertLogic business logic for vehicle alerts
+     * @param referenceData snapshot service for routes and stations
+     * @param locationIngestor buffer for location updates, or null to write
+     * each one directly
+     * @param livePositions in-memory store of current locations, or null to
+     * read them from the database
+     * @param geofence engine that detects station visits from location
+     * updates, or null to only log visits by hand
+     * @throws IllegalArgumentException if any other parameter is null
+     */
+    public FleetManagementBusinessLogic(VehicleDAO vehicleDao, UserDAO userDao,
+            VehicleAlertBusinessLogic alertLogic, ReferenceDataService referenceData,
+            LocationIngestor locationIngestor, LivePositionStore livePositions, GeofenceEngine geofence) {
+        if (vehicleDao == null || userDao == null || alertLogic == null || referenceData == null) {
+            throw new IllegalArgumentException("Dependencies cannot be null");
+        }
+        this.vehicleDao = vehicleDao;
+        this.userDao = userDao;
+        this.alertLogic = alertLogic;
+        this.referenceData = referenceData;
+        this.locationIngestor = locationIngestor;
+        this.livePositions = livePositions;
+        this.geofence = geofence;
     }
     
     /**
@@ -200,6 +253,16 @@ public class FleetManagementBusinessLogic {
        return vehicleDao.getVehicleById(vehicleId);
    }
    
+    /**
+     * Retrieves several vehicles by their IDs.
+     *
+     * @param vehicleIds the IDs of the vehicles to retrieve
+     * @return map of vehicle ID to VehicleDTO for every ID that exists
+     */
+   public Map<Integer, VehicleDTO> getVehiclesByIds(Collection<Integer> vehicleIds) {
+       return vehicleDao.getVehiclesByIds(vehicleIds);
+   }
+   
     /**
      * Retrieves all vehicles in the system.
      *
@@ -208,13 +271,33 @@ public class FleetManagementBusinessLogic {
    public List<VehicleDTO> getAllVehicles() {
        return vehicleDao.getAllVehicles();
    }
+    /**
+     * Retrieves all vehicles in the system with their type specific details
+     * in a single query.
+     *
+     * @return list of all vehicles as BusDTO, DieselTrainDTO or ElectricLightRailDTO
+     */
+   public List<VehicleDTO> getAllVehiclesDetailed() {
+       return vehicleDao.getAllVehiclesDetailed();
+   }
+   
     /**
      * Retrieves all routes in the system.
      *
      * @return list of all routes
      */
    public List<RouteDTO> getAllRoutes() {
-       return vehicleDao.getAllRoutes();
+       return referenceData.getSnapshot().getRoutes();
+   }
+   
+    /**
+     * Retrieves a route and its stations by ID.
+     *
+     * @param routeId the ID of the route
+     * @return the RouteDTO, or null if no route has that ID
+     */
+   public RouteDTO getRouteById(int routeId) {
+       return referenceData.getRouteById(routeId);
    }
    
     /**
@@ -223,7 +306,40 @@ public class FleetManagementBusinessLogic {
      * @return list of all stations
      */
    public List<StationDTO> getAllStations() {
-       return vehicleDao.getAllStations();
+       return referenceData.getSnapshot().getStations();
+   }
+   
+    /**
+     * Retrieves the routes that stop at a station.
+     *
+     * @param stationId the ID of the station
+     * @return list of routes serving the station, empty if none do
+     */
+   public List<RouteDTO> getRoutesServingStation(int stationId) {
+       ReferenceDataSnapshot snapshot = referenceData.getSnapshot();
+       int[] routeIds = snapshot.getGraph().getRouteIds(stationId);
+       List<RouteDTO> routes = new ArrayList<>(routeIds.length);
+       for(int routeId : routeIds) {
+           routes.add(snapshot.getRoute(routeId));
+       }
+       return routes;
+   }
+   
+    /**
+     * Returns the index of which stations lie on which routes.
+     *
+     * @return the current RouteStationGraph
+     */
+   public RouteStationGraph getRouteStationGraph() {
+       return referenceData.getSnapshot().getGraph();
+   }
+   
+    /**
+     * Reloads routes and stations from the database. Call after routes or
+     * stations are changed so every request sees the change.
+     */
+   public void refreshReferenceData() {
+       referenceData.refresh();
    }
     /**
      * Logs a vehicle's visit to a station with arrival and departure times.
@@ -301,12 +417,16 @@ public class FleetManagementBusinessLogic {
        return vehicleDao.getOngoingMaintenanceRequests();
    }
     /**
-     * Updates a vehicle's current location.
+     * Updates a vehicle's current location. With an ingestor the update is
+     * buffered and written with others in the background. With a geofence
+     * engine, arriving at or leaving a station is detected from the update.
      *
      * @param vehicleId the ID of the vehicle
      * @param latitude the new latitude coordinate
      * @param longitude the new longitude coordinate
-     * @return true if the location was updated successfully, false if not
+     * @return true if the location was updated or accepted, false if not.
+     * A buffered update for an unknown vehicle is accepted here and dropped
+     * by the ingestor when the database rejects it.
      */
    public boolean updateLocation(int vehicleId, double latitude, double longitude) {
        LocationDTO location = new LocationDTO();
@@ -314,15 +434,99 @@ public class FleetManagementBusinessLogic {
        location.setLatitude(latitude);
        location.setLongitude(longitude);
        location.setUpdated(Timestamp.valueOf(LocalDateTime.now()));
-       return vehicleDao.updateLocation(location);
+       boolean accepted;
+       if (locationIngestor != null) {
+           locationIngestor.submit(location);
+           accepted = true;
+       } else {
+           accepted = vehicleDao.updateLocation(location);
+       }
+       if (accepted && livePositions != null) {
+           livePositions.update(location);
+       }
+       if (accepted && geofence != null) {
+           geofence.onLocation(location);
+       }
+       return accepted;
    }
     /**
-     * Retrieves current locations of all vehicles.
+     * Retrieves current locations of all vehicles, from memory when a live
+     * position store is in use.
      *
      * @return list of all vehicle locations
      */
    public List<LocationDTO> getAllVehicleLocations() {
+       if (livePositions != null) {
+           return livePositions.snapshot().toLocations();
+       }
        return vehicleDao.getAllVehicleLocations();
+   }
+    /**
+     * Returns a consistent snapshot of every vehicle's current position for
+     * rendering.
+     *
+     * @return the FleetPositionSnapshot, built from the database when no live
+     * position store is in use
+     */
+   public FleetPositionSnapshot getFleetPositions() {
+       return positions().snapshot();
+   }
+    /**
+     * Finds the vehicles within a distance of a point.
+     *
+     * @param latitude the latitude of the point
+     * @param longitude the longitude of the point
+     * @param radiusMeters the distance in metres
+     * @return the vehicles found, nearest first
+     * @throws IllegalArgumentException if radiusMeters is negative
+     */
+   public List<FleetSpatialIndex.Match> findVehiclesWithin(double latitude, double longitude,
+           double radiusMeters) {
+       if (radiusMeters < 0) {
+           throw new IllegalArgumentException("Radius cannot be negative");
+       }
+       return positions().getSpatialIndex().withinRadius(latitude, longitude, radiusMeters);
+   }
+    /**
+     * Finds the vehicles closest to a point.
+     *
+     * @param latitude the latitude of the point
+     * @param longitude the longitude of the point
+     * @param count the number of vehicles wanted
+     * @return up to count vehicles, nearest first
+     */
+   public List<FleetSpatialIndex.Match> findNearestVehicles(double latitude, double longitude,
+           int count) {
+       return positions().getSpatialIndex().nearest(latitude, longitude, count);
+   }
+    /**
+     * Finds the vehicles inside an area, such as a map viewport.
+     *
+     * @param south the southern edge latitude
+     * @param west the western edge longitude
+     * @param north the northern edge latitude
+     * @param east the eastern edge longitude
+     * @return the vehicles found, ordered by vehicle ID
+     * @throws IllegalArgumentException if an edge is beyond the opposite edge
+     */
+   public List<FleetSpatialIndex.Match> findVehiclesInArea(double south, double west,
+           double north, double east) {
+       if (south > north || west > east) {
+           throw new IllegalArgumentException("Invalid area bounds");
+       }
+       return positions().getSpatialIndex().withinBox(south, west, north, east);
+   }
+    /**
+     * Returns the live position store, or one freshly loaded from the
+     * database when none is in use.
+     */
+   private LivePositionStore positions() {
+       if (livePositions != null) {
+           return livePositions;
+       }
+       LivePositionStore stored = new LivePositionStore(vehicleDao);
+       stored.load();
+       return stored;
    }
     /**
      * Logs a break period for a user.
@@ -361,6 +565,8 @@ public class FleetManagementBusinessLogic {
     /**
      * Completes a trip and updates all related vehicle metrics.
      * Calculates fuel efficiency, updates component wear, and logs the trip.
+     * All reads and writes run in one unit of work, so the trip is either
+     * fully applied or not applied at all.
      *
      * @param userId the ID of the operator conducting the trip
      * @param vehicleId the ID of the vehicle used for the trip
@@ -373,81 +579,91 @@ public class FleetManagementBusinessLogic {
    public boolean completeTrip(int userId, int vehicleId, int routeId, 
            LocalDateTime startTime, LocalDateTime endTime, double fuelUsed) {
        
-       VehicleDTO vehicle = vehicleDao.getVehicleById(vehicleId);
-       RouteDTO route = vehicleDao.getRouteById(routeId);
-       //calculate fuel efficiency
-       int durationInMinutes = (int) ChronoUnit.MINUTES.between(startTime, endTime);
-       double durationInHours = durationInMinutes / 60.0;
-       double expectedFuelEfficiency = vehicle.getConsumptionRate();
-       double distanceTravelled = route.getDistance();
-       
-       FuelContext context = new FuelContext();
-       String vehicleType = vehicle.getVehicleType();
-       if(vehicle instanceof BusDTO) {
-           context.setConsumptionStrategy(new BusConsumptionStrategy());
-       }
-       else if(vehicle instanceof DieselTrainDTO) {
-           context.setConsumptionStrategy(new DieselTrainConsumptionStrategy());
-       }
-       else if (vehicle instanceof ElectricLightRailDTO) {
-           context.setConsumptionStrategy(new ElectricLightRailConsumptionStrategy());
-       }
-       double actualFuelEfficiency = context.calculateConsumption(distanceTravelled, fuelUsed, durationInHours);
-       
-       //update maintenance parts and alert if needed
-       double axleBearings = vehicle.getAxleBearingsCondition() + durationInHours;
-       double brakes = vehicle.getBrakesCondition() + durationInHours;
-       double wheels = vehicle.getWheelsCondition() + durationInHours;
-       double fuelLevel = vehicle.getFuelLevel() - fuelUsed;
-       
-       //update with new wear and tear
-       vehicle.setAxleBearingsCondition(axleBearings);
-       vehicle.setBrakesCondition(brakes);
-       vehicle.setWheelsCondition(wheels);
-       vehicle.setFuelLevel(fuelLevel);
-       
-       vehicleDao.updateVehicle(vehicle);
-
-       
-       boolean success = false;
-       if(vehicle instanceof DieselTrainDTO) {
-           DieselTrainDTO train = (DieselTrainDTO) vehicle;
-           double oilLife = train.getOilStatus() - 5.0;
-           train.setOilStatus(oilLife);
-           success = vehicleDao.updateOilLife(train);
-       }
-       else if (vehicle instanceof ElectricLightRailDTO) {
-           ElectricLightRailDTO elrTrain = (ElectricLightRailDTO) vehicle;
-           double pantograph = elrTrain.getPantographCondition() + durationInHours;
-           double catenary = elrTrain.getCatenaryCondition() + durationInHours;
-           double circuitBreaker = elrTrain.getCircuitBreakerCondition() + durationInHours;
-           elrTrain.setPantographCondition(pantograph);
-           elrTrain.setCatenaryCondition(catenary);
-           elrTrain.setCircuitBreakerCondition(circuitBreaker);
-           success = vehicleDao.updateELRComponents(elrTrain);
-       }
-       
-       //insert trip
-       if(success) {
-            TripDTO trip = new TripDTO();
-            trip.setUserId(userId);
-            trip.setVehicleId(vehicleId);
-            trip.setRouteId(routeId);
-            trip.setStartTime(Timestamp.valueOf(startTime));
-            trip.setEndTime(Timestamp.valueOf(endTime));
-            trip.setFuelUsed(fuelUsed);
-            trip.setFuelEfficiency(actualFuelEfficiency);
-            //On time if route was completed within 30 minutes
-            int timeDifference = durationInMinutes - route.getExpectedDuration();
-            trip.setOnTime(timeDifference <= 30);
-            success = vehicleDao.completeTrip(trip);
-            alertLogic.monitorVehicle(vehicle);
+       try(UnitOfWork work = UnitOfWork.begin()) {
+           VehicleDTO vehicle = vehicleDao.getVehicleById(vehicleId);
+           if(vehicle == null) {
+               return false;
+           }
+           RouteDTO route = referenceData.getRouteById(routeId);
+           if(route == null) {
+               return false;
+           }
+           //calculate fuel efficiency
+           int durationInMinutes = (int) ChronoUnit.MINUTES.between(startTime, endTime);
+           double durationInHours = durationInMinutes / 60.0;
+           double expectedFuelEfficiency = vehicle.getConsumptionRate();
+           double distanceTravelled = route.getDistance();
+           
+           FuelContext context = new FuelContext();
+           String vehicleType = vehicle.getVehicleType();
+           if(vehicle instanceof BusDTO) {
+               context.setConsumptionStrategy(new BusConsumptionStrategy());
+           }
+           else if(vehicle instanceof DieselTrainDTO) {
+               context.setConsumptionStrategy(new DieselTrainConsumptionStrategy());
+           }
+           else if (vehicle instanceof ElectricLightRailDTO) {
+               context.setConsumptionStrategy(new ElectricLightRailConsumptionStrategy());
+           }
+           double actualFuelEfficiency = context.calculateConsumption(distanceTravelled, fuelUsed, durationInHours);
+           
+           //update maintenance parts and alert if needed
+           double axleBearings = vehicle.getAxleBearingsCondition() + durationInHours;
+           double brakes = vehicle.getBrakesCondition() + durationInHours;
+           double wheels = vehicle.getWheelsCondition() + durationInHours;
+           double fuelLevel = vehicle.getFuelLevel() - fuelUsed;
+           
+           //update with new wear and tear
+           vehicle.setAxleBearingsCondition(axleBearings);
+           vehicle.setBrakesCondition(brakes);
+           vehicle.setWheelsCondition(wheels);
+           vehicle.setFuelLevel(fuelLevel);
+           
+           boolean success = vehicleDao.updateVehicle(vehicle);
+           
+           if(success && vehicle instanceof DieselTrainDTO) {
+               DieselTrainDTO train = (DieselTrainDTO) vehicle;
+               double oilLife = train.getOilStatus() - 5.0;
+               train.setOilStatus(oilLife);
+               success = vehicleDao.updateOilLife(train);
+           }
+           else if (success && vehicle instanceof ElectricLightRailDTO) {
+               ElectricLightRailDTO elrTrain = (ElectricLightRailDTO) vehicle;
+               double pantograph = elrTrain.getPantographCondition() + durationInHours;
+               double catenary = elrTrain.getCatenaryCondition() + durationInHours;
+               double circuitBreaker = elrTrain.getCircuitBreakerCondition() + durationInHours;
+               elrTrain.setPantographCondition(pantograph);
+               elrTrain.setCatenaryCondition(catenary);
+               elrTrain.setCircuitBreakerCondition(circuitBreaker);
+               success = vehicleDao.updateELRComponents(elrTrain);
+           }
+           
+           //insert trip
+           if(!success) {
+               return false;
+           }
+           TripDTO trip = new TripDTO();
+           trip.setUserId(userId);
+           trip.setVehicleId(vehicleId);
+           trip.setRouteId(routeId);
+           trip.setStartTime(Timestamp.valueOf(startTime));
+           trip.setEndTime(Timestamp.valueOf(endTime));
+           trip.setFuelUsed(fuelUsed);
+           trip.setFuelEfficiency(actualFuelEfficiency);
+           //On time if route was completed within 30 minutes
+           int timeDifference = durationInMinutes - route.getExpectedDuration();
+           trip.setOnTime(timeDifference <= 30);
+           if(!vehicleDao.completeTrip(trip)) {
+               return false;
+           }
+           alertLogic.monitorVehicle(vehicle);
+           work.commit();
+           return true;
        }
-       else {
+       catch(SQLException e) {
+           e.printStackTrace();
            return false;
        }
-       
-       return success;
    }
     /**
      * Refuels a vehicle
@@ -0,0 +1,117 @@
+package businesslayer;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import transferobjects.LocationDTO;
+
+/**
+ * Immutable copy of every vehicle's position taken at one instant. All
+ * positions in a snapshot were current at the same time: an update is either
+ * in it completely or not at all. Positions are held in parallel arrays
+ * ordered by vehicle ID.
+ * @author Simon
+ */
+public final class FleetPositionSnapshot {
+
+    private final int[] vehicleIds;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final long[] updated;
+    private final long version;
+    private final long takenAt;
+
+    /**
+     * Builds a snapshot from arrays the caller no longer changes, already
+     * ordered by vehicle ID.
+     *
+     * @param vehicleIds the vehicle IDs
+     * @param latitudes the latitude of each vehicle
+     * @param longitudes the longitude of each vehicle
+     * @param updated the time of each position, in epoch milliseconds
+     * @param version the version of the store the snapshot was taken at
+     */
+    FleetPositionSnapshot(int[] vehicleIds, double[] latitudes, double[] longitudes, long[] updated,
+            long version) {
+        this.vehicleIds = vehicleIds;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.updated = updated;
+        this.version = version;
+        this.takenAt = System.currentTimeMillis();
+    }
+
+    /**
+     * @return the number of vehicles in the snapshot
+     */
+    public int size() {
+        return vehicleIds.length;
+    }
+
+    /**
+     * @return the number of updates the store had applied when the snapshot
+     * was taken
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return when the snapshot was taken, in epoch milliseconds
+     */
+    public long getTakenAt() {
+        return takenAt;
+    }
+
+    /**
+     * @param index the position in the snapshot, from 0 to size() - 1
+     * @return the vehicle ID at that position
+     */
+    public int getVehicleId(int index) {
+        return vehicleIds[index];
+    }
+
+    /**
+     * @param index the position in the snapshot, from 0 to size() - 1
+     * @return the latitude of the vehicle at that position
+     */
+    public double getLatitude(int index) {
+        return latitudes[index];
+    }
+
+    /**
+     * @param index the position in the snapshot, from 0 to size() - 1
+     * @return the longitude of the vehicle at that position
+     */
+    public double getLongitude(int index) {
+        return longitudes[index];
+    }
+
+    /**
+     * @param index the position in the snapshot, from 0 to size() - 1
+     * @return when the vehicle at that position reported it, in epoch milliseconds
+     */
+    public long getUpdated(int index) {
+        return updated[index];
+    }
+
+    /**
+     * Returns the snapshot as LocationDTOs, ordered by vehicle ID. Each call
+     * builds new DTOs, so callers may change them.
+     *
+     * @return a List of LocationDTOs, one per vehicle
+     */
+    public List<LocationDTO> toLocations() {
+        List<LocationDTO> locations = new ArrayList<>(vehicleIds.length);
+        for (int i = 0; i < vehicleIds.length; i++) {
+            LocationDTO location = new LocationDTO();
+            location.setVehicleId(vehicleIds[i]);
+            location.setLatitude(latitudes[i]);
+            location.setLongitude(longitudes[i]);
+            location.setUpdated(new Timestamp(updated[i]));
+            location.setMostRecent(true);
+            locations.add(location);
+        }
+        return locations;
+    }
+}
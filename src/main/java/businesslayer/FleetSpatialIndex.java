@@ -0,0 +1,402 @@
+package businesslayer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Uniform grid over latitude and longitude that finds vehicles near a point
+ * or inside an area without looking at every vehicle. Entries are keyed by an
+ * int ID, so the same grid also indexes other fixed points such as stations.
+ * Each entry sits in the cell containing its position and moves to another
+ * cell when a new position crosses a cell edge, so an update costs a few map
+ * operations.
+ * Queries only visit the cells that can hold a match; when an area covers
+ * more cells than are occupied, the occupied cells are visited instead.
+ * <p>
+ * Updates are serialized; queries never block and may miss an entry that is
+ * moving between cells at that instant. Distances are great-circle distances
+ * in metres. Areas crossing the 180th meridian are not supported.
+ * @author Simon
+ */
+public class FleetSpatialIndex {
+
+    /**
+     * Default cell size in degrees, about 550 m north to south.
+     */
+    public static final double DEFAULT_CELL_DEGREES = 0.005;
+
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+    private static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_METERS / 180;
+
+    private final double cellDegrees;
+    private final Map<Long, Set<Integer>> cells = new ConcurrentHashMap<>();
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a FleetSpatialIndex with the default cell size.
+     */
+    public FleetSpatialIndex() {
+        this(DEFAULT_CELL_DEGREES);
+    }
+
+    /**
+     * Constructs a FleetSpatialIndex.
+     *
+     * @param cellDegrees the width and height of a cell in degrees; queries are
+     * fastest when it is close to the usual search radius
+     * @throws IllegalArgumentException if cellDegrees is not positive
+     */
+    public FleetSpatialIndex(double cellDegrees) {
+        if (!(cellDegrees > 0)) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellDegrees = cellDegrees;
+    }
+
+    /**
+     * An entry found by a query, with its distance from the query point.
+     */
+    public static final class Match {
+        private final int id;
+        private final double latitude;
+        private final double longitude;
+        private final double distanceMeters;
+
+        Match(int id, double latitude, double longitude, double distanceMeters) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.distanceMeters = distanceMeters;
+        }
+
+        /**
+         * @return the ID the entry was indexed under
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * @return the entry's latitude
+         */
+        public double getLatitude() {
+            return latitude;
+        }
+
+        /**
+         * @return the entry's longitude
+         */
+        public double getLongitude() {
+            return longitude;
+        }
+
+        /**
+         * @return the distance from the query point in metres
+         */
+        public double getDistanceMeters() {
+            return distanceMeters;
+        }
+    }
+
+    /**
+     * An entry's indexed position and the key of its cell.
+     */
+    private static final class Entry {
+        private final double latitude;
+        private final double longitude;
+        private final long cell;
+
+        Entry(double latitude, double longitude, long cell) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cell;
+        }
+    }
+
+    /**
+     * Records an entry's position, moving it to another cell if needed.
+     *
+     * @param id the entry's ID, such as a vehicle ID
+     * @param latitude the latitude
+     * @param longitude the longitude
+     */
+    public synchronized void update(int id, double latitude, double longitude) {
+        long cell = cellOf(latitude, longitude);
+        Entry previous = entries.put(id, new Entry(latitude, longitude, cell));
+        if (previous == null || previous.cell != cell) {
+            cells.computeIfAbsent(cell, key -> ConcurrentHashMap.newKeySet()).add(id);
+            if (previous != null) {
+                leave(previous.cell, id);
+            }
+        }
+    }
+
+    /**
+     * Removes an entry from the index.
+     *
+     * @param id the entry's ID
+     */
+    public synchronized void remove(int id) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            leave(previous.cell, id);
+        }
+    }
+
+    /**
+     * @return the number of entries in the index
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Finds the entries within a distance of a point.
+     *
+     * @param latitude the latitude of the point
+     * @param longitude the longitude of the point
+     * @param radiusMeters the distance in metres
+     * @return the entries found, nearest first
+     */
+    public List<Match> withinRadius(double latitude, double longitude, double radiusMeters) {
+        double latSpan = radiusMeters / METERS_PER_DEGREE;
+        double lonSpan = radiusMeters / (METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 1e-6));
+        List<Match> found = new ArrayList<>();
+        forEachIn(latitude - latSpan, longitude - lonSpan, latitude + latSpan, longitude + lonSpan,
+                (id, entry) -> {
+                    double distance = distanceMeters(latitude, longitude, entry.latitude, entry.longitude);
+                    if (distance <= radiusMeters) {
+                        found.add(new Match(id, entry.latitude, entry.longitude, distance));
+                    }
+                });
+        found.sort(Comparator.comparingDouble(Match::getDistanceMeters));
+        return found;
+    }
+
+    /**
+     * Finds the entries inside an area, such as a map viewport.
+     *
+     * @param south the southern edge latitude
+     * @param west the western edge longitude
+     * @param north the northern edge latitude
+     * @param east the eastern edge longitude
+     * @return the entries found, ordered by ID, with their distance
+     * from the centre of the area
+     */
+    public List<Match> withinBox(double south, double west, double north, double east) {
+        double centreLat = (south + north) / 2;
+        double centreLon = (west + east) / 2;
+        List<Match> found = new ArrayList<>();
+        forEachIn(south, west, north, east, (id, entry) -> {
+            if (entry.latitude >= south && entry.latitude <= north
+                    && entry.longitude >= west && entry.longitude <= east) {
+                found.add(new Match(id, entry.latitude, entry.longitude,
+                        distanceMeters(centreLat, centreLon, entry.latitude, entry.longitude)));
+            }
+        });
+        found.sort(Comparator.comparingInt(Match::getId));
+        return found;
+    }
+
+    /**
+     * Finds the entries closest to a point. Searches rings of cells outwards
+     * from the point's cell and stops once no unsearched cell can be closer
+     * than the furthest entry kept.
+     *
+     * @param latitude the latitude of the point
+     * @param longitude the longitude of the point
+     * @param k the number of entries wanted
+     * @return up to k entries, nearest first
+     */
+    public List<Match> nearest(double latitude, double longitude, int k) {
+        if (k <= 0 || entries.isEmpty()) {
+            return new ArrayList<>();
+        }
+        PriorityQueue<Match> best = new PriorityQueue<>(
+                Comparator.comparingDouble(Match::getDistanceMeters).reversed());
+        long centre = cellOf(latitude, longitude);
+        int row = rowOf(centre);
+        int col = colOf(centre);
+        for (int ring = 0; ; ring++) {
+            int ringCells = ring == 0 ? 1 : 8 * ring;
+            // A large empty neighbourhood is cheaper to skip by scanning every entry
+            if ((long) (2 * ring + 1) * (2 * ring + 1) > 4L * cells.size() + 9) {
+                best.clear();
+                for (Map.Entry<Integer, Entry> indexed : entries.entrySet()) {
+                    offer(best, k, latitude, longitude, indexed.getKey(), indexed.getValue());
+                }
+                break;
+            }
+            for (int i = 0; i < ringCells; i++) {
+                long cell = ringCell(row, col, ring, i);
+                Set<Integer> members = cells.get(cell);
+                if (members == null) {
+                    continue;
+                }
+                for (Integer id : members) {
+                    Entry entry = entries.get(id);
+                    if (entry != null && entry.cell == cell) {
+                        offer(best, k, latitude, longitude, id, entry);
+                    }
+                }
+            }
+            if (best.size() == k && best.peek().getDistanceMeters() <= ringClearance(latitude, ring)) {
+                break;
+            }
+        }
+        List<Match> found = new ArrayList<>(best);
+        found.sort(Comparator.comparingDouble(Match::getDistanceMeters));
+        return found;
+    }
+
+    /**
+     * Returns the great-circle distance between two points.
+     *
+     * @param lat1 the latitude of the first point
+     * @param lon1 the longitude of the first point
+     * @param lat2 the latitude of the second point
+     * @param lon2 the longitude of the second point
+     * @return the distance in metres
+     */
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Visits every entry whose cell overlaps an area, once each.
+     */
+    private void forEachIn(double south, double west, double north, double east, CellVisitor visitor) {
+        int minRow = rowIndex(south);
+        int maxRow = rowIndex(north);
+        int minCol = colIndex(west);
+        int maxCol = colIndex(east);
+        long area = ((long) maxRow - minRow + 1) * ((long) maxCol - minCol + 1);
+        if (area > cells.size()) {
+            for (Map.Entry<Long, Set<Integer>> cell : cells.entrySet()) {
+                int row = rowOf(cell.getKey());
+                int col = colOf(cell.getKey());
+                if (row >= minRow && row <= maxRow && col >= minCol && col <= maxCol) {
+                    visitCell(cell.getKey(), cell.getValue(), visitor);
+                }
+            }
+            return;
+        }
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                long cell = key(row, col);
+                Set<Integer> members = cells.get(cell);
+                if (members != null) {
+                    visitCell(cell, members, visitor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits the members of a cell. An entry that has just moved may still be
+     * listed in its old cell; it is only visited in the cell its entry names.
+     */
+    private void visitCell(long cell, Set<Integer> members, CellVisitor visitor) {
+        for (Integer id : members) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.cell == cell) {
+                visitor.visit(id, entry);
+            }
+        }
+    }
+
+    private void leave(long cell, int id) {
+        cells.computeIfPresent(cell, (key, members) -> {
+            members.remove(id);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    private static void offer(PriorityQueue<Match> best, int k, double latitude, double longitude,
+            int id, Entry entry) {
+        double distance = distanceMeters(latitude, longitude, entry.latitude, entry.longitude);
+        if (best.size() < k) {
+            best.add(new Match(id, entry.latitude, entry.longitude, distance));
+        } else if (distance < best.peek().getDistanceMeters()) {
+            best.poll();
+            best.add(new Match(id, entry.latitude, entry.longitude, distance));
+        }
+    }
+
+    /**
+     * Returns the least distance from a point in the centre cell to any cell
+     * beyond the given ring. The longitude width of a cell is taken at the
+     * highest latitude the rings reach, where it is narrowest.
+     */
+    private double ringClearance(double latitude, int ring) {
+        double widestLatitude = Math.min(89.9, Math.abs(latitude) + (ring + 1) * cellDegrees);
+        double cellMeters = cellDegrees * METERS_PER_DEGREE * Math.cos(Math.toRadians(widestLatitude));
+        return ring * cellMeters;
+    }
+
+    /**
+     * Returns the index-th cell of the square ring at a distance of ring cells
+     * from the centre cell, walking the ring's top and bottom rows and then
+     * its left and right columns.
+     */
+    private static long ringCell(int row, int col, int ring, int index) {
+        if (ring == 0) {
+            return key(row, col);
+        }
+        int side = 2 * ring + 1;
+        if (index < side) {
+            return key(row - ring, col - ring + index);
+        }
+        index -= side;
+        if (index < side) {
+            return key(row + ring, col - ring + index);
+        }
+        index -= side;
+        int inner = side - 2;
+        if (index < inner) {
+            return key(row - ring + 1 + index, col - ring);
+        }
+        return key(row - ring + 1 + index - inner, col + ring);
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        return key(rowIndex(latitude), colIndex(longitude));
+    }
+
+    private int rowIndex(double latitude) {
+        return (int) Math.floor(latitude / cellDegrees);
+    }
+
+    private int colIndex(double longitude) {
+        return (int) Math.floor(longitude / cellDegrees);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    private static int rowOf(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int colOf(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Receives the entries visited by forEachIn.
+     */
+    private interface CellVisitor {
+        void visit(int id, Entry entry);
+    }
+}
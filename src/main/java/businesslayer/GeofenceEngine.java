@@ -0,0 +1,399 @@
+package businesslayer;
+
+import dataaccesslayer.VehicleDAO;
+import java.sql.SQLDataException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import transferobjects.LocationDTO;
+import transferobjects.StationDTO;
+import transferobjects.VehicleStationDTO;
+
+/**
+ * Detects station visits from the stream of location updates, so they no
+ * longer have to be entered by hand. Each vehicle has a small state machine:
+ * it arrives at a station when a ping falls within the arrival radius, and
+ * departs when a later ping is beyond the larger departure radius, so GPS
+ * jitter at the edge of a station does not produce a string of short visits.
+ * A departure completes a visit, which is queued and written with others in
+ * one batch on a background thread. A batch the database rejects for its
+ * data is split in halves until the rejected visits are isolated, and only
+ * those are dropped. A batch that fails for any other reason, such as an
+ * outage, is kept whole and written with the next flush. At most
+ * MAX_PENDING_VISITS are kept; beyond that the oldest are dropped and counted.
+ * Visits shorter than a second are not recorded, since the database keeps
+ * whole seconds and requires the arrival to come before the departure.
+ * <p>
+ * Station positions come from the ReferenceDataService snapshot and are put in
+ * a FleetSpatialIndex keyed by station ID, rebuilt whenever the snapshot is
+ * refreshed, so a ping costs a grid lookup and never a database read. Until
+ * the scheduled refresh has loaded a snapshot, no stations are matched.
+ * Stations without coordinates are ignored. Pings older than the last one
+ * seen for a vehicle are ignored.
+ * @author Simon
+ */
+public class GeofenceEngine {
+
+    /**
+     * Default distance in metres within which a vehicle arrives at a station.
+     */
+    public static final double DEFAULT_ARRIVAL_RADIUS_METERS = 100;
+
+    /**
+     * Default distance in metres beyond which a vehicle has left a station.
+     */
+    public static final double DEFAULT_DEPARTURE_RADIUS_METERS = 200;
+
+    /**
+     * Most completed visits kept waiting to be written.
+     */
+    public static final int MAX_PENDING_VISITS = 10_000;
+
+    /**
+     * Shortest visit recorded, in milliseconds.
+     */
+    private static final long MIN_VISIT_MILLIS = 1_000;
+
+    private static final StationIndex NO_STATIONS = new StationIndex(null);
+
+    private final VehicleDAO vehicleDao;
+    private final ReferenceDataService referenceData;
+    private final double arrivalRadius;
+    private final double departureRadius;
+    private final Map<Integer, VehicleState> states = new ConcurrentHashMap<>();
+    private final Queue<VehicleStationDTO> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong arrivalCount = new AtomicLong();
+    private final AtomicLong visitsRecorded = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong droppedVisits = new AtomicLong();
+    private volatile StationIndex stations;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a GeofenceEngine with the default radii.
+     *
+     * @param vehicleDao data access object the visits are written through
+     * @param referenceData snapshot service holding the stations
+     */
+    public GeofenceEngine(VehicleDAO vehicleDao, ReferenceDataService referenceData) {
+        this(vehicleDao, referenceData, DEFAULT_ARRIVAL_RADIUS_METERS, DEFAULT_DEPARTURE_RADIUS_METERS);
+    }
+
+    /**
+     * Constructs a GeofenceEngine.
+     *
+     * @param vehicleDao data access object the visits are written through
+     * @param referenceData snapshot service holding the stations
+     * @param arrivalRadius distance in metres within which a vehicle arrives
+     * @param departureRadius distance in metres beyond which a vehicle departs
+     * @throws IllegalArgumentException if a dependency is null, arrivalRadius
+     * is not positive or departureRadius is smaller than arrivalRadius
+     */
+    public GeofenceEngine(VehicleDAO vehicleDao, ReferenceDataService referenceData,
+            double arrivalRadius, double departureRadius) {
+        if (vehicleDao == null || referenceData == null) {
+            throw new IllegalArgumentException("Dependencies cannot be null");
+        }
+        if (!(arrivalRadius > 0) || departureRadius < arrivalRadius) {
+            throw new IllegalArgumentException("Invalid geofence radii");
+        }
+        this.vehicleDao = vehicleDao;
+        this.referenceData = referenceData;
+        this.arrivalRadius = arrivalRadius;
+        this.departureRadius = departureRadius;
+    }
+
+    /**
+     * Advances a vehicle's state machine with a new position.
+     *
+     * @param location the position; its updated time must be set
+     */
+    public void onLocation(LocationDTO location) {
+        onLocation(location.getVehicleId(), location.getLatitude(), location.getLongitude(),
+                location.getUpdated().getTime());
+    }
+
+    /**
+     * Advances a vehicle's state machine with a new position.
+     *
+     * @param vehicleId the vehicle's ID
+     * @param latitude the latitude
+     * @param longitude the longitude
+     * @param time when the position was reported, in epoch milliseconds
+     */
+    public void onLocation(int vehicleId, double latitude, double longitude, long time) {
+        StationIndex index = currentStations();
+        VehicleState state = states.computeIfAbsent(vehicleId, id -> new VehicleState());
+        synchronized (state) {
+            if (time < state.lastSeen) {
+                return;
+            }
+            state.lastSeen = time;
+            if (state.stationId != 0) {
+                double distance = FleetSpatialIndex.distanceMeters(latitude, longitude,
+                        state.stationLatitude, state.stationLongitude);
+                if (distance <= departureRadius) {
+                    return;
+                }
+                // Vehicles_Station requires the arrival to come before the departure
+                if (time - state.arrivedAt >= MIN_VISIT_MILLIS) {
+                    queue(vehicleId, state.stationId, state.arrivedAt, time);
+                }
+                state.stationId = 0;
+            }
+            List<FleetSpatialIndex.Match> near = index.grid.withinRadius(latitude, longitude,
+                    arrivalRadius);
+            if (!near.isEmpty()) {
+                FleetSpatialIndex.Match station = near.get(0);
+                state.stationId = station.getId();
+                state.stationLatitude = station.getLatitude();
+                state.stationLongitude = station.getLongitude();
+                state.arrivedAt = time;
+                arrivalCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Returns the station a vehicle is at.
+     *
+     * @param vehicleId the vehicle's ID
+     * @return the station ID, or 0 if the vehicle is not at a station
+     */
+    public int getCurrentStation(int vehicleId) {
+        VehicleState state = states.get(vehicleId);
+        if (state == null) {
+            return 0;
+        }
+        synchronized (state) {
+            return state.stationId;
+        }
+    }
+
+    /**
+     * Writes every queued visit as one batch. Visits the database rejects
+     * are isolated and dropped; if the batch fails for any other reason the
+     * visits that were not written are queued again for the next flush.
+     *
+     * @return the number of visits written
+     */
+    public synchronized int flush() {
+        List<VehicleStationDTO> batch = new ArrayList<>();
+        VehicleStationDTO next;
+        while ((next = pending.poll()) != null) {
+            batch.add(next);
+        }
+        pendingCount.addAndGet(-batch.size());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<VehicleStationDTO> failed = new ArrayList<>();
+        int written = write(batch, failed);
+        if (written < batch.size()) {
+            failedFlushes.incrementAndGet();
+        }
+        for (VehicleStationDTO visit : failed) {
+            enqueue(visit);
+        }
+        visitsRecorded.addAndGet(written);
+        return written;
+    }
+
+    /**
+     * @return the number of completed visits waiting to be written
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * @return the number of station arrivals detected
+     */
+    public long getArrivalCount() {
+        return arrivalCount.get();
+    }
+
+    /**
+     * @return the number of visits written
+     */
+    public long getVisitsRecorded() {
+        return visitsRecorded.get();
+    }
+
+    /**
+     * @return the number of batches that could not be written whole
+     */
+    public long getFailedFlushes() {
+        return failedFlushes.get();
+    }
+
+    /**
+     * @return the number of visits dropped because the database rejected
+     * them or too many were waiting
+     */
+    public long getDroppedVisits() {
+        return droppedVisits.get();
+    }
+
+    /**
+     * Starts writing queued visits at a fixed interval.
+     *
+     * @param period time between writes
+     * @param unit the unit of period
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "geofence-visit-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    flush();
+                } catch (Exception e) {
+                    System.err.println("Failed to write station visits: " + e.getMessage());
+                }
+            }, period, period, unit);
+        }
+    }
+
+    /**
+     * Stops the scheduled writes and writes whatever is still queued. Vehicles
+     * at a station when the application stops have no visit recorded.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        flush();
+    }
+
+    private void queue(int vehicleId, int stationId, long arrivedAt, long departedAt) {
+        VehicleStationDTO visit = new VehicleStationDTO();
+        visit.setVehicleId(vehicleId);
+        visit.setStationId(stationId);
+        visit.setArrivalTime(new Timestamp(arrivedAt));
+        visit.setDepartureTime(new Timestamp(departedAt));
+        enqueue(visit);
+    }
+
+    /**
+     * Queues a visit, dropping the oldest queued visit if MAX_PENDING_VISITS
+     * are already waiting.
+     */
+    private void enqueue(VehicleStationDTO visit) {
+        pending.add(visit);
+        if (pendingCount.incrementAndGet() > MAX_PENDING_VISITS && pending.poll() != null) {
+            pendingCount.decrementAndGet();
+            droppedVisits.incrementAndGet();
+        }
+    }
+
+    /**
+     * Writes a batch of visits. If the database rejects the batch for its
+     * data, the batch is split in halves until the rejected visits are
+     * isolated and dropped; if it fails for any other reason the batch is
+     * added to failed.
+     *
+     * @return the number of visits written
+     */
+    private int write(List<VehicleStationDTO> batch, List<VehicleStationDTO> failed) {
+        try {
+            vehicleDao.logStationVisits(batch);
+            return batch.size();
+        } catch (RuntimeException e) {
+            if (!isRejected(e)) {
+                failed.addAll(batch);
+                System.err.println("Failed to write " + batch.size() + " station visits, will retry: "
+                        + e.getMessage());
+                return 0;
+            }
+            if (batch.size() == 1) {
+                VehicleStationDTO visit = batch.get(0);
+                droppedVisits.incrementAndGet();
+                System.err.println("Dropped visit of vehicle " + visit.getVehicleId() + " to station "
+                        + visit.getStationId() + " at " + visit.getArrivalTime() + ": " + e.getMessage());
+                return 0;
+            }
+            int half = batch.size() / 2;
+            return write(batch.subList(0, half), failed) + write(batch.subList(half, batch.size()), failed);
+        }
+    }
+
+    /**
+     * Tells whether a failure was the database rejecting the data, rather
+     * than the database being unavailable.
+     */
+    private static boolean isRejected(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLIntegrityConstraintViolationException || cause instanceof SQLDataException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the station index for the current reference data snapshot,
+     * rebuilding it if the snapshot has been refreshed since it was built.
+     * The snapshot is never loaded from here; until one has been loaded no
+     * stations are matched.
+     */
+    private StationIndex currentStations() {
+        ReferenceDataSnapshot snapshot = referenceData.getLoadedSnapshot();
+        if (snapshot == null) {
+            return NO_STATIONS;
+        }
+        StationIndex index = stations;
+        if (index == null || index.snapshot != snapshot) {
+            index = new StationIndex(snapshot);
+            stations = index;
+        }
+        return index;
+    }
+
+    /**
+     * Spatial index of the stations with coordinates in one snapshot.
+     */
+    private static final class StationIndex {
+        private final ReferenceDataSnapshot snapshot;
+        private final FleetSpatialIndex grid = new FleetSpatialIndex();
+
+        StationIndex(ReferenceDataSnapshot snapshot) {
+            this.snapshot = snapshot;
+            if (snapshot == null) {
+                return;
+            }
+            for (StationDTO station : snapshot.getStations()) {
+                if (station.getLatitude() != null && station.getLongitude() != null) {
+                    grid.update(station.getStationID(), station.getLatitude(), station.getLongitude());
+                }
+            }
+        }
+    }
+
+    /**
+     * Where a vehicle is in its state machine. A station ID of 0 means it is
+     * between stations. Guarded by its own monitor.
+     */
+    private static final class VehicleState {
+        private long lastSeen = Long.MIN_VALUE;
+        private int stationId;
+        private double stationLatitude;
+        private double stationLongitude;
+        private long arrivedAt;
+    }
+}
@@ -0,0 +1,261 @@
+package businesslayer;
+
+import dataaccesslayer.VehicleDAO;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import transferobjects.LocationDTO;
+
+/**
+ * Holds the latest position of every vehicle in memory, so the live fleet
+ * view is served without querying the database. Positions are kept in
+ * parallel primitive arrays sorted by vehicle ID; a vehicle reporting for the
+ * first time is inserted in order, and every later report overwrites its slot
+ * in place. Writers take a short exclusive lock. Readers copy the arrays under
+ * an optimistic read and only fall back to a read lock if a write overlapped,
+ * so a snapshot never mixes positions from before and after an update. The
+ * store is seeded from Location_Current at startup and a position is only
+ * replaced by a newer one. If seeding fails, the store serves the positions
+ * reported since and tries again on the next read. Every recorded position
+ * is also applied to a FleetSpatialIndex for proximity and area queries.
+ * @author Simon
+ */
+public class LivePositionStore {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final VehicleDAO vehicleDao;
+    private final FleetSpatialIndex spatialIndex;
+    private final StampedLock lock = new StampedLock();
+    private int[] vehicleIds = new int[INITIAL_CAPACITY];
+    private double[] latitudes = new double[INITIAL_CAPACITY];
+    private double[] longitudes = new double[INITIAL_CAPACITY];
+    private long[] updated = new long[INITIAL_CAPACITY];
+    private int size;
+    private long version;
+    private volatile boolean loaded;
+
+    /**
+     * Constructs a LivePositionStore seeded from the given DAO.
+     *
+     * @param vehicleDao data access object for vehicle locations
+     * @throws IllegalArgumentException if vehicleDao is null
+     */
+    public LivePositionStore(VehicleDAO vehicleDao) {
+        this(vehicleDao, new FleetSpatialIndex());
+    }
+
+    /**
+     * Constructs a LivePositionStore seeded from the given DAO that keeps the
+     * given spatial index up to date.
+     *
+     * @param vehicleDao data access object for vehicle locations
+     * @param spatialIndex the index to apply every recorded position to
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public LivePositionStore(VehicleDAO vehicleDao, FleetSpatialIndex spatialIndex) {
+        if (vehicleDao == null || spatialIndex == null) {
+            throw new IllegalArgumentException("Dependencies cannot be null");
+        }
+        this.vehicleDao = vehicleDao;
+        this.spatialIndex = spatialIndex;
+    }
+
+    /**
+     * Reads the current position of every vehicle from the database. Positions
+     * already held that are newer than the stored ones are kept.
+     *
+     * @return the number of vehicles in the store
+     * @throws RuntimeException if the positions cannot be read; the store is
+     * then still unloaded
+     */
+    public int load() {
+        for (LocationDTO location : vehicleDao.getAllVehicleLocations()) {
+            update(location);
+        }
+        loaded = true;
+        return size();
+    }
+
+    /**
+     * Records a vehicle's position unless the store already holds a newer one.
+     *
+     * @param location the position; its updated time must be set
+     * @return true if the position was recorded, false if it was older
+     */
+    public boolean update(LocationDTO location) {
+        return update(location.getVehicleId(), location.getLatitude(), location.getLongitude(),
+                location.getUpdated().getTime());
+    }
+
+    /**
+     * Records a vehicle's position unless the store already holds a newer one.
+     *
+     * @param vehicleId the vehicle's ID
+     * @param latitude the latitude
+     * @param longitude the longitude
+     * @param updatedAt when the position was reported, in epoch milliseconds
+     * @return true if the position was recorded, false if it was older
+     */
+    public boolean update(int vehicleId, double latitude, double longitude, long updatedAt) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = Arrays.binarySearch(vehicleIds, 0, size, vehicleId);
+            if (slot >= 0) {
+                if (updatedAt < updated[slot]) {
+                    return false;
+                }
+            } else {
+                slot = insertSlot(-slot - 1, vehicleId);
+            }
+            latitudes[slot] = latitude;
+            longitudes[slot] = longitude;
+            updated[slot] = updatedAt;
+            version++;
+            // Applied under the write lock so the index sees updates in the same order
+            spatialIndex.update(vehicleId, latitude, longitude);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns one vehicle's position.
+     *
+     * @param vehicleId the vehicle's ID
+     * @return a new LocationDTO, or null if the vehicle has no position
+     */
+    public LocationDTO get(int vehicleId) {
+        ensureLoaded();
+        long stamp = lock.tryOptimisticRead();
+        LocationDTO location = read(vehicleId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                location = read(vehicleId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return location;
+    }
+
+    /**
+     * Returns a consistent copy of every vehicle's position.
+     *
+     * @return the FleetPositionSnapshot
+     */
+    public FleetPositionSnapshot snapshot() {
+        ensureLoaded();
+        long stamp = lock.tryOptimisticRead();
+        FleetPositionSnapshot snapshot = copy();
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                snapshot = copy();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the spatial index over the positions, loading them first if
+     * they have never been loaded.
+     *
+     * @return the FleetSpatialIndex
+     */
+    public FleetSpatialIndex getSpatialIndex() {
+        ensureLoaded();
+        return spatialIndex;
+    }
+
+    /**
+     * @return the number of vehicles in the store
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    try {
+                        load();
+                    } catch (RuntimeException e) {
+                        System.err.println("Failed to load vehicle positions: " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the arrays. Under an optimistic read the fields may change while
+     * they are read, so every length is bounded by the array actually read and
+     * the result is discarded unless the read validates.
+     */
+    private FleetPositionSnapshot copy() {
+        int count = size;
+        int[] ids = vehicleIds;
+        double[] lats = latitudes;
+        double[] lons = longitudes;
+        long[] times = updated;
+        long atVersion = version;
+        count = Math.max(0, Math.min(count, Math.min(Math.min(ids.length, lats.length),
+                Math.min(lons.length, times.length))));
+        return new FleetPositionSnapshot(Arrays.copyOf(ids, count), Arrays.copyOf(lats, count),
+                Arrays.copyOf(lons, count), Arrays.copyOf(times, count), atVersion);
+    }
+
+    private LocationDTO read(int vehicleId) {
+        int[] ids = vehicleIds;
+        int slot = Arrays.binarySearch(ids, 0, Math.max(0, Math.min(size, ids.length)), vehicleId);
+        if (slot < 0) {
+            return null;
+        }
+        double[] lats = latitudes;
+        double[] lons = longitudes;
+        long[] times = updated;
+        if (slot >= lats.length || slot >= lons.length || slot >= times.length) {
+            return null;
+        }
+        LocationDTO location = new LocationDTO();
+        location.setVehicleId(vehicleId);
+        location.setLatitude(lats[slot]);
+        location.setLongitude(lons[slot]);
+        location.setUpdated(new Timestamp(times[slot]));
+        location.setMostRecent(true);
+        return location;
+    }
+
+    /**
+     * Opens a slot for a new vehicle, keeping the arrays sorted. Called with
+     * the write lock held.
+     */
+    private int insertSlot(int slot, int vehicleId) {
+        if (size == vehicleIds.length) {
+            int capacity = size * 2;
+            vehicleIds = Arrays.copyOf(vehicleIds, capacity);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            updated = Arrays.copyOf(updated, capacity);
+        }
+        int moved = size - slot;
+        System.arraycopy(vehicleIds, slot, vehicleIds, slot + 1, moved);
+        System.arraycopy(latitudes, slot, latitudes, slot + 1, moved);
+        System.arraycopy(longitudes, slot, longitudes, slot + 1, moved);
+        System.arraycopy(updated, slot, updated, slot + 1, moved);
+        vehicleIds[slot] = vehicleId;
+        size++;
+        return slot;
+    }
+}
@@ -0,0 +1,123 @@
+package businesslayer;
+
+import dataaccesslayer.VehicleDAO;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import transferobjects.RouteDTO;
+
+/**
+ * Holds the current ReferenceDataSnapshot of routes and stations and
+ * replaces it atomically when it is refreshed. Readers never block and always
+ * see a complete snapshot. Refreshes can be triggered on demand, for example
+ * after an administrator changes a route, or on a fixed schedule. A refresh
+ * that fails keeps the previous snapshot, and if none has been loaded yet the
+ * next reader tries again.
+ * @author Simon
+ */
+public class ReferenceDataService {
+
+    private final VehicleDAO vehicleDao;
+    private final AtomicReference<ReferenceDataSnapshot> snapshot =
+            new AtomicReference<>();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a ReferenceDataService that loads its data from the given DAO.
+     *
+     * @param vehicleDao data access object for routes and stations
+     * @throws IllegalArgumentException if vehicleDao is null
+     */
+    public ReferenceDataService(VehicleDAO vehicleDao) {
+        if (vehicleDao == null) {
+            throw new IllegalArgumentException("VehicleDAO cannot be null");
+        }
+        this.vehicleDao = vehicleDao;
+    }
+
+    /**
+     * Returns the current snapshot, loading it first if it has never been loaded.
+     *
+     * @return the current ReferenceDataSnapshot
+     * @throws RuntimeException if no snapshot has been loaded and the
+     * database cannot be read
+     */
+    public ReferenceDataSnapshot getSnapshot() {
+        ReferenceDataSnapshot current = snapshot.get();
+        return current != null ? current : refresh();
+    }
+
+    /**
+     * Returns the current snapshot without loading one, for callers on a hot
+     * path that must never read the database.
+     *
+     * @return the current ReferenceDataSnapshot, or null if none has been
+     * loaded yet
+     */
+    public ReferenceDataSnapshot getLoadedSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Reloads routes and stations from the database and swaps in the new
+     * snapshot. If either cannot be read the current snapshot is kept.
+     *
+     * @return the new ReferenceDataSnapshot
+     * @throws RuntimeException if the database cannot be read
+     */
+    public ReferenceDataSnapshot refresh() {
+        ReferenceDataSnapshot fresh = new ReferenceDataSnapshot(
+                vehicleDao.getAllRoutes(), vehicleDao.getAllStations());
+        snapshot.set(fresh);
+        return fresh;
+    }
+
+    /**
+     * Looks up a route by ID in the snapshot. Routes created since the last
+     * refresh are read from the database.
+     *
+     * @param routeId the ID of the route
+     * @return the RouteDTO
+     */
+    public RouteDTO getRouteById(int routeId) {
+        RouteDTO route = getSnapshot().getRoute(routeId);
+        return route != null ? route : vehicleDao.getRouteById(routeId);
+    }
+
+    /**
+     * Loads the snapshot and starts refreshing it at a fixed interval.
+     *
+     * @param period time between refreshes
+     * @param unit the unit of period
+     * @throws RuntimeException if the first load fails; the scheduled
+     * refreshes still run
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "reference-data-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    refresh();
+                } catch (Exception e) {
+                    System.err.println("Failed to refresh reference data: " + e.getMessage());
+                }
+            }, period, period, unit);
+        }
+        refresh();
+    }
+
+    /**
+     * Stops the scheduled refresh.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package businesslayer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import transferobjects.RouteDTO;
+import transferobjects.StationDTO;
+
+/**
+ * Immutable point-in-time copy of the routes and stations in the database,
+ * indexed by ID. A snapshot is never changed after it is built; a refresh
+ * builds a new one and swaps it in. The DTOs it returns are shared by every
+ * caller and must be treated as read-only.
+ * @author Simon
+ */
+public final class ReferenceDataSnapshot {
+
+    private final List<RouteDTO> routes;
+    private final List<StationDTO> stations;
+    private final Map<Integer, RouteDTO> routesById;
+    private final Map<Integer, StationDTO> stationsById;
+    private final RouteStationGraph graph;
+    private final long loadedAt;
+
+    /**
+     * Builds a snapshot from the given routes and stations.
+     *
+     * @param routes all routes, with their station lists
+     * @param stations all stations
+     */
+    public ReferenceDataSnapshot(List<RouteDTO> routes, List<StationDTO> stations) {
+        Map<Integer, RouteDTO> routeIndex = new HashMap<>();
+        List<RouteDTO> routeCopies = new ArrayList<>(routes.size());
+        for (RouteDTO route : routes) {
+            RouteDTO copy = new RouteDTO();
+            copy.setRouteID(route.getRouteID());
+            copy.setDistance(route.getDistance());
+            copy.setExpectedDuration(route.getExpectedDuration());
+            copy.setStationList(route.getStationList() == null
+                    ? Collections.emptyList()
+                    : Collections.unmodifiableList(new ArrayList<>(route.getStationList())));
+            routeCopies.add(copy);
+            routeIndex.put(copy.getRouteID(), copy);
+        }
+
+        Map<Integer, StationDTO> stationIndex = new HashMap<>();
+        for (StationDTO station : stations) {
+            stationIndex.put(station.getStationID(), station);
+        }
+
+        this.routes = Collections.unmodifiableList(routeCopies);
+        this.stations = Collections.unmodifiableList(new ArrayList<>(stations));
+        this.routesById = Collections.unmodifiableMap(routeIndex);
+        this.stationsById = Collections.unmodifiableMap(stationIndex);
+        this.graph = new RouteStationGraph(routeCopies);
+        this.loadedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Creates a snapshot holding no routes or stations.
+     *
+     * @return an empty snapshot
+     */
+    public static ReferenceDataSnapshot empty() {
+        return new ReferenceDataSnapshot(Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * @return all routes, ordered as loaded
+     */
+    public List<RouteDTO> getRoutes() {
+        return routes;
+    }
+
+    /**
+     * @return all stations, ordered as loaded
+     */
+    public List<StationDTO> getStations() {
+        return stations;
+    }
+
+    /**
+     * Looks up a route by its ID.
+     *
+     * @param routeId the ID of the route
+     * @return the route, or null if it is not in this snapshot
+     */
+    public RouteDTO getRoute(int routeId) {
+        return routesById.get(routeId);
+    }
+
+    /**
+     * Looks up a station by its ID.
+     *
+     * @param stationId the ID of the station
+     * @return the station, or null if it is not in this snapshot
+     */
+    public StationDTO getStation(int stationId) {
+        return stationsById.get(stationId);
+    }
+
+    /**
+     * @return the route and station links of this snapshot
+     */
+    public RouteStationGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the time this snapshot was built, in milliseconds since the epoch
+     */
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+}
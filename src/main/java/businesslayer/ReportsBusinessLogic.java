@@ -22,6 +22,7 @@ public class ReportsBusinessLogic {
     private final TripDAO tripDAO;
     private final FuelDAO fuelDAO;
     private final VehicleDAO vehicleDAO;
+    private final ReferenceDataService referenceData;
     
     /**
      * Constructs a ReportsBusinessLogic instance with required DAO dependencies.
@@ -42,6 +43,31 @@ public class ReportsBusinessLogic {
         this.tripDAO = tripDAO;
         this.fuelDAO = fuelDAO;
         this.vehicleDAO = vehicleDAO;
+        this.referenceData = null;
+    }
+    
+    /**
+     * Constructs a ReportsBusinessLogic instance that looks routes up in the
+     * shared route and station snapshot.
+     *
+     * @param maintenanceDAO data access object for maintenance records
+     * @param tripDAO data access object for trip records
+     * @param fuelDAO data access object for fuel records
+     * @param vehicleDAO data access object for vehicle records
+     * @param referenceData snapshot service for routes and stations
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public ReportsBusinessLogic(MaintenanceDAO maintenanceDAO, TripDAO tripDAO, 
+            FuelDAO fuelDAO, VehicleDAO vehicleDAO, ReferenceDataService referenceData) {
+        if (maintenanceDAO == null || tripDAO == null || 
+                fuelDAO == null || vehicleDAO == null || referenceData == null) {
+            throw new IllegalArgumentException("Dependencies cannot be null");
+        }
+        this.maintenanceDAO = maintenanceDAO;
+        this.tripDAO = tripDAO;
+        this.fuelDAO = fuelDAO;
+        this.vehicleDAO = vehicleDAO;
+        this.referenceData = referenceData;
     }
 
     /**
@@ -174,7 +200,9 @@ public class ReportsBusinessLogic {
      * @return true if the trip was on time, false otherwise
      */
     public boolean isTripOnTime(TripDTO trip) {
-        RouteDTO route = vehicleDAO.getRouteById(trip.getRouteId());
+        RouteDTO route = referenceData != null
+                ? referenceData.getRouteById(trip.getRouteId())
+                : vehicleDAO.getRouteById(trip.getRouteId());
         return TripDAOImpl.isTripOnTime(trip, route);
     }
 }
\ No newline at end of file
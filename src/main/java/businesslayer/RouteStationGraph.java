@@ -0,0 +1,187 @@
+package businesslayer;
+
+import java.util.Arrays;
+import java.util.List;
+import transferobjects.RouteDTO;
+import transferobjects.StationDTO;
+
+/**
+ * Immutable index of which stations lie on which routes, built from the
+ * Routes_Station links. Both directions are stored as primitive int adjacency
+ * arrays: the stations of route i are routeStations[routeOffsets[i]] up to
+ * routeStations[routeOffsets[i + 1]], and likewise for the routes of a station.
+ * Route and station IDs are mapped to array positions through a direct lookup
+ * table, so each query costs the size of its answer only.
+ * @author Simon
+ */
+public final class RouteStationGraph {
+
+    private static final int[] NONE = new int[0];
+
+    private final IdIndex routes;
+    private final int[] routeOffsets;
+    private final int[] routeStations;
+
+    private final IdIndex stations;
+    private final int[] stationOffsets;
+    private final int[] stationRoutes;
+
+    /**
+     * Builds the graph from routes and their station lists.
+     *
+     * @param routeList all routes, each with its stations
+     */
+    public RouteStationGraph(List<RouteDTO> routeList) {
+        int routeCount = routeList.size();
+        int[] routeIds = new int[routeCount];
+        int linkCount = 0;
+        for (int i = 0; i < routeCount; i++) {
+            routeIds[i] = routeList.get(i).getRouteID();
+            List<StationDTO> stationList = routeList.get(i).getStationList();
+            linkCount += stationList == null ? 0 : stationList.size();
+        }
+
+        // Flatten the links, then derive the station ID set from them
+        int[] linkRoutes = new int[linkCount];
+        int[] linkStations = new int[linkCount];
+        int link = 0;
+        for (RouteDTO route : routeList) {
+            if (route.getStationList() == null) {
+                continue;
+            }
+            for (StationDTO station : route.getStationList()) {
+                linkRoutes[link] = route.getRouteID();
+                linkStations[link] = station.getStationID();
+                link++;
+            }
+        }
+
+        routes = new IdIndex(routeIds);
+        stations = new IdIndex(linkStations.clone());
+
+        routeOffsets = new int[routes.size() + 1];
+        stationOffsets = new int[stations.size() + 1];
+        for (int i = 0; i < linkCount; i++) {
+            routeOffsets[routes.indexOf(linkRoutes[i]) + 1]++;
+            stationOffsets[stations.indexOf(linkStations[i]) + 1]++;
+        }
+        for (int i = 0; i < routes.size(); i++) {
+            routeOffsets[i + 1] += routeOffsets[i];
+        }
+        for (int i = 0; i < stations.size(); i++) {
+            stationOffsets[i + 1] += stationOffsets[i];
+        }
+
+        routeStations = new int[linkCount];
+        stationRoutes = new int[linkCount];
+        int[] routeFill = Arrays.copyOf(routeOffsets, routes.size());
+        int[] stationFill = Arrays.copyOf(stationOffsets, stations.size());
+        for (int i = 0; i < linkCount; i++) {
+            routeStations[routeFill[routes.indexOf(linkRoutes[i])]++] = linkStations[i];
+            stationRoutes[stationFill[stations.indexOf(linkStations[i])]++] = linkRoutes[i];
+        }
+    }
+
+    /**
+     * Returns the IDs of the stations on a route, in route order.
+     *
+     * @param routeId the ID of the route
+     * @return the station IDs, empty if the route is unknown or has no stations
+     */
+    public int[] getStationIds(int routeId) {
+        int index = routes.indexOf(routeId);
+        return index < 0 ? NONE
+                : Arrays.copyOfRange(routeStations, routeOffsets[index], routeOffsets[index + 1]);
+    }
+
+    /**
+     * Returns the IDs of the routes that serve a station.
+     *
+     * @param stationId the ID of the station
+     * @return the route IDs, empty if no route serves the station
+     */
+    public int[] getRouteIds(int stationId) {
+        int index = stations.indexOf(stationId);
+        return index < 0 ? NONE
+                : Arrays.copyOfRange(stationRoutes, stationOffsets[index], stationOffsets[index + 1]);
+    }
+
+    /**
+     * Returns the number of stations on a route.
+     *
+     * @param routeId the ID of the route
+     * @return the number of stations, 0 if the route is unknown
+     */
+    public int getStationCount(int routeId) {
+        int index = routes.indexOf(routeId);
+        return index < 0 ? 0 : routeOffsets[index + 1] - routeOffsets[index];
+    }
+
+    /**
+     * Checks whether a route stops at a station.
+     *
+     * @param routeId the ID of the route
+     * @param stationId the ID of the station
+     * @return true if the station is on the route, false otherwise
+     */
+    public boolean routeServesStation(int routeId, int stationId) {
+        int index = stations.indexOf(stationId);
+        if (index < 0) {
+            return false;
+        }
+        for (int i = stationOffsets[index]; i < stationOffsets[index + 1]; i++) {
+            if (stationRoutes[i] == routeId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Maps IDs to dense positions 0..n-1. Database IDs are auto-increment keys,
+     * so a lookup table indexed by ID is used; if the IDs are too sparse for
+     * that the sorted IDs are binary searched instead.
+     */
+    private static final class IdIndex {
+
+        private final int[] sortedIds;
+        private final int[] positionById;
+
+        IdIndex(int[] ids) {
+            int[] sorted = ids.clone();
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            sortedIds = Arrays.copyOf(sorted, distinct);
+
+            int maxId = distinct == 0 ? -1 : sortedIds[distinct - 1];
+            boolean dense = distinct == 0
+                    || (sortedIds[0] >= 0 && maxId <= 4 * distinct + 1024);
+            if (dense) {
+                positionById = new int[maxId + 1];
+                Arrays.fill(positionById, -1);
+                for (int i = 0; i < distinct; i++) {
+                    positionById[sortedIds[i]] = i;
+                }
+            } else {
+                positionById = null;
+            }
+        }
+
+        int indexOf(int id) {
+            if (positionById != null) {
+                return id >= 0 && id < positionById.length ? positionById[id] : -1;
+            }
+            int index = Arrays.binarySearch(sortedIds, id);
+            return index < 0 ? -1 : index;
+        }
+
+        int size() {
+            return sortedIds.length;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package businesslayer;
+
+import dataaccesslayer.AlertDAOImpl;
+import dataaccesslayer.AlertOutboxDAO;
+import dataaccesslayer.AlertOutboxDAOImpl;
+import dataaccesslayer.CachingVehicleDAO;
+import dataaccesslayer.FuelDAO;
+import dataaccesslayer.FuelDAOImpl;
+import dataaccesslayer.IndexedAlertDAO;
+import dataaccesslayer.LocationIngestor;
+import dataaccesslayer.MaintenanceDAO;
+import dataaccesslayer.MaintenanceDAOImpl;
+import dataaccesslayer.OutboxAlertDAO;
+import dataaccesslayer.TripDAO;
+import dataaccesslayer.TripDAOImpl;
+import dataaccesslayer.UserDAO;
+import dataaccesslayer.UserDAOImpl;
+import dataaccesslayer.VehicleDAO;
+import dataaccesslayer.VehicleDAOImpl;
+import dataaccesslayer.WriteBehindAlertSink;
+import java.util.concurrent.TimeUnit;
+import observer.VehicleEventNotifier;
+import observer.VehicleEventNotifier.OverflowPolicy;
+import observer.VehicleEventObserver;
+
+/**
+ * Application-wide registry of the DAOs and business services. Every object
+ * in it is created once, is safe to share between request threads, and lives
+ * for the lifetime of the application, so caches and event listeners persist
+ * across requests. The registry is created when the web application starts
+ * and servlets obtain their services from it instead of constructing them.
+ * @author Simon
+ */
+public final class ServiceRegistry {
+
+    private static volatile ServiceRegistry instance;
+
+    private final VehicleDAO vehicleDAO;
+    private final UserDAO userDAO;
+    private final IndexedAlertDAO alertDAO;
+    private final MaintenanceDAO maintenanceDAO;
+    private final TripDAO tripDAO;
+    private final FuelDAO fuelDAO;
+    private final VehicleEventNotifier notifier;
+    private final ReferenceDataService referenceData;
+    private final AlertRuleEngine alertRules;
+    private final WriteBehindAlertSink alertSink;
+    private final VehicleAlertBusinessLogic alertLogic;
+    private final FleetHealthSweep healthSweep;
+    private final AlertEscalationService escalation;
+    private final AlertOutboxRelay outboxRelay;
+    private final LocationIngestor locationIngestor;
+    private final LivePositionStore livePositions;
+    private final GeofenceEngine geofence;
+    private final FleetManagementBusinessLogic fleetLogic;
+    private final ReportsBusinessLogic reportsLogic;
+
+    /**
+     * Creates the DAOs and services and wires them together.
+     */
+    private ServiceRegistry() {
+        vehicleDAO = new CachingVehicleDAO(new VehicleDAOImpl());
+        userDAO = new UserDAOImpl();
+        AlertOutboxDAO alertOutbox = new AlertOutboxDAOImpl();
+        alertDAO = new IndexedAlertDAO(new OutboxAlertDAO(new AlertDAOImpl(), alertOutbox));
+        maintenanceDAO = new MaintenanceDAOImpl();
+        tripDAO = new TripDAOImpl();
+        fuelDAO = new FuelDAOImpl();
+
+        notifier = new VehicleEventNotifier(VehicleEventNotifier.defaultExecutor(),
+                VehicleEventNotifier.DEFAULT_QUEUE_CAPACITY, OverflowPolicy.DROP_OLDEST);
+        notifier.addListener(new VehicleEventObserver());
+
+        referenceData = new ReferenceDataService(vehicleDAO);
+        alertRules = new AlertRuleEngine();
+        alertSink = new WriteBehindAlertSink(alertDAO);
+        alertLogic = new VehicleAlertBusinessLogic(alertDAO, notifier, new AlertDeduplicator(alertDAO),
+                alertRules, alertSink, false);
+        healthSweep = new FleetHealthSweep(vehicleDAO, alertLogic);
+        escalation = new AlertEscalationService(alertDAO, alertLogic);
+
+        // Alert changes reach the listeners only through the outbox, each
+        // subscriber under its own cursor. Escalation must see every change,
+        // so the relay calls it directly; the notifier hands changes on to
+        // its listeners by event type on its own threads and may drop them
+        // when they fall behind
+        outboxRelay = new AlertOutboxRelay(alertOutbox);
+        outboxRelay.subscribe("vehicle-event-observer", notifier::notifyListeners);
+        outboxRelay.subscribe("alert-escalation", escalation);
+
+        locationIngestor = new LocationIngestor(vehicleDAO);
+        livePositions = new LivePositionStore(vehicleDAO);
+        geofence = new GeofenceEngine(vehicleDAO, referenceData);
+        fleetLogic = new FleetManagementBusinessLogic(vehicleDAO, userDAO, alertLogic, referenceData,
+                locationIngestor, livePositions, geofence);
+        reportsLogic = new ReportsBusinessLogic(maintenanceDAO, tripDAO, fuelDAO, vehicleDAO, referenceData);
+    }
+
+    /**
+     * Creates the registry if it does not exist yet. Called when the
+     * application starts.
+     *
+     * @return the ServiceRegistry
+     */
+    public static synchronized ServiceRegistry initialize() {
+        if (instance == null) {
+            instance = new ServiceRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the registry, creating it on first use if the application
+     * startup listener has not run.
+     *
+     * @return the ServiceRegistry
+     */
+    public static ServiceRegistry getInstance() {
+        ServiceRegistry registry = instance;
+        return registry != null ? registry : initialize();
+    }
+
+    /**
+     * Stops background work owned by the registry and discards it. Called when
+     * the application stops.
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.referenceData.stop();
+            instance.alertRules.stop();
+            instance.healthSweep.stop();
+            instance.escalation.stop();
+            instance.alertSink.close();
+            instance.outboxRelay.stop();
+            instance.locationIngestor.close();
+            instance.geofence.stop();
+            instance.notifier.shutdown(5, TimeUnit.SECONDS);
+            instance = null;
+        }
+    }
+
+    /**
+     * @return the shared fleet management service
+     */
+    public FleetManagementBusinessLogic getFleetLogic() {
+        return fleetLogic;
+    }
+
+    /**
+     * @return the shared reports service
+     */
+    public ReportsBusinessLogic getReportsLogic() {
+        return reportsLogic;
+    }
+
+    /**
+     * @return the shared vehicle alert service
+     */
+    public VehicleAlertBusinessLogic getAlertLogic() {
+        return alertLogic;
+    }
+
+    /**
+     * @return the shared route and station snapshot service
+     */
+    public ReferenceDataService getReferenceData() {
+        return referenceData;
+    }
+
+    /**
+     * @return the shared alert rule engine
+     */
+    public AlertRuleEngine getAlertRules() {
+        return alertRules;
+    }
+
+    /**
+     * @return the shared fleet health sweep
+     */
+    public FleetHealthSweep getHealthSweep() {
+        return healthSweep;
+    }
+
+    /**
+     * @return the shared alert escalation service
+     */
+    public AlertEscalationService getEscalation() {
+        return escalation;
+    }
+
+    /**
+     * @return the shared alert outbox relay
+     */
+    public AlertOutboxRelay getOutboxRelay() {
+        return outboxRelay;
+    }
+
+    /**
+     * @return the shared location ingestor
+     */
+    public LocationIngestor getLocationIngestor() {
+        return locationIngestor;
+    }
+
+    /**
+     * @return the shared in-memory store of current vehicle positions
+     */
+    public LivePositionStore getLivePositions() {
+        return livePositions;
+    }
+
+    /**
+     * @return the shared station visit detector
+     */
+    public GeofenceEngine getGeofence() {
+        return geofence;
+    }
+
+    /**
+     * @return the shared vehicle event notifier
+     */
+    public VehicleEventNotifier getNotifier() {
+        return notifier;
+    }
+
+    /**
+     * @return the shared vehicle DAO
+     */
+    public VehicleDAO getVehicleDAO() {
+        return vehicleDAO;
+    }
+
+    /**
+     * @return the shared user DAO
+     */
+    public UserDAO getUserDAO() {
+        return userDAO;
+    }
+
+    /**
+     * @return the shared alert DAO, with its index of unresolved alerts
+     */
+    public IndexedAlertDAO getAlertDAO() {
+        return alertDAO;
+    }
+
+    /**
+     * @return the shared maintenance DAO
+     */
+    public MaintenanceDAO getMaintenanceDAO() {
+        return maintenanceDAO;
+    }
+
+    /**
+     * @return the shared trip DAO
+     */
+    public TripDAO getTripDAO() {
+        return tripDAO;
+    }
+
+    /**
+     * @return the shared fuel DAO
+     */
+    public FuelDAO getFuelDAO() {
+        return fuelDAO;
+    }
+}
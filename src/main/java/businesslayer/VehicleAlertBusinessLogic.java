@@ -1,15 +1,20 @@
 package businesslayer;
 
 import dataaccesslayer.AlertDAO;
+import dataaccesslayer.UnitOfWork;
+import dataaccesslayer.WriteBehindAlertSink;
 import observer.VehicleEvent;
 import observer.VehicleEventNotifier;
 import transferobjects.AlertDTO;
-import transferobjects.BusDTO;
-import transferobjects.DieselTrainDTO;
-import transferobjects.ElectricLightRailDTO;
 import transferobjects.VehicleDTO;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Business logic class for handling vehicle alerts and monitoring vehicle conditions.
@@ -17,17 +22,24 @@ import java.util.List;
  * @author jaces
  */
 public class VehicleAlertBusinessLogic {
+    /**
+     * The statuses an alert may move to, each with the statuses it may move from.
+     */
+    private static final Map<String, Set<String>> TRANSITIONS = new HashMap<>();
+    
+    static {
+        TRANSITIONS.put("ACKNOWLEDGED", new HashSet<>(Arrays.asList("ACTIVE", "ESCALATED")));
+        TRANSITIONS.put("ESCALATED", new HashSet<>(Arrays.asList("ACTIVE", "ACKNOWLEDGED")));
+        TRANSITIONS.put("RESOLVED", new HashSet<>(Arrays.asList("ACTIVE", "ACKNOWLEDGED", "ESCALATED")));
+    }
+    
     private final AlertDAO alertDAO;
     private final VehicleEventNotifier notifier;
+    private final AlertDeduplicator deduplicator;
     
-    // Threshold constants for maintenance checks
-    private static final int BRAKES_THRESHOLD = 100;
-    private static final int WHEELS_THRESHOLD = 100;
-    private static final int AXLE_BEARINGS_THRESHOLD = 100;
-    private static final int ELECTRICAL_COMPONENTS_THRESHOLD = 100;
-    private static final int OIL_CHANGE_THRESHOLD = 100;
-    private static final int EMISSION_CHECK_THRESHOLD = 100;
-    private static final int FUEL_LEVEL_THRESHOLD = 100;
+    private final AlertRuleEngine rules;
+    private final WriteBehindAlertSink alertSink;
+    private final boolean notifyDirectly;
     
     /**
      * Constructs a VehicleAlertBusinessLogic instance with required dependencies.
@@ -37,11 +49,82 @@ public class VehicleAlertBusinessLogic {
      * @throws IllegalArgumentException if any parameter is null
      */
     public VehicleAlertBusinessLogic(AlertDAO alertDAO, VehicleEventNotifier notifier) {
-        if (alertDAO == null || notifier == null) {
+        this(alertDAO, notifier, alertDAO == null ? null : new AlertDeduplicator(alertDAO),
+                new AlertRuleEngine());
+    }
+    
+    /**
+     * Constructs a VehicleAlertBusinessLogic instance that suppresses repeated
+     * alerts with the given deduplicator.
+     *
+     * @param alertDAO data access object for alert records
+     * @param notifier event notifier for alert notifications
+     * @param deduplicator decides which new alerts are raised
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public VehicleAlertBusinessLogic(AlertDAO alertDAO, VehicleEventNotifier notifier,
+            AlertDeduplicator deduplicator) {
+        this(alertDAO, notifier, deduplicator, new AlertRuleEngine());
+    }
+    
+    /**
+     * Constructs a VehicleAlertBusinessLogic instance that checks vehicles
+     * against the given rules.
+     *
+     * @param alertDAO data access object for alert records
+     * @param notifier event notifier for alert notifications
+     * @param deduplicator decides which new alerts are raised
+     * @param rules the monitoring rules
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public VehicleAlertBusinessLogic(AlertDAO alertDAO, VehicleEventNotifier notifier,
+            AlertDeduplicator deduplicator, AlertRuleEngine rules) {
+        this(alertDAO, notifier, deduplicator, rules, null);
+    }
+    
+    /**
+     * Constructs a VehicleAlertBusinessLogic instance that stores new alerts
+     * in the background through a write-behind sink.
+     *
+     * @param alertDAO data access object for alert records
+     * @param notifier event notifier for alert notifications
+     * @param deduplicator decides which new alerts are raised
+     * @param rules the monitoring rules
+     * @param alertSink stores new alerts off the caller's thread, or null to
+     * store them directly
+     * @throws IllegalArgumentException if any parameter other than alertSink is null
+     */
+    public VehicleAlertBusinessLogic(AlertDAO alertDAO, VehicleEventNotifier notifier,
+            AlertDeduplicator deduplicator, AlertRuleEngine rules, WriteBehindAlertSink alertSink) {
+        this(alertDAO, notifier, deduplicator, rules, alertSink, true);
+    }
+    
+    /**
+     * Constructs a VehicleAlertBusinessLogic instance, choosing whether it
+     * notifies listeners itself.
+     *
+     * @param alertDAO data access object for alert records
+     * @param notifier event notifier for alert notifications
+     * @param deduplicator decides which new alerts are raised
+     * @param rules the monitoring rules
+     * @param alertSink stores new alerts off the caller's thread, or null to
+     * store them directly
+     * @param notifyDirectly false if alertDAO records changes in the alert
+     * outbox and an AlertOutboxRelay delivers them to the listeners instead
+     * @throws IllegalArgumentException if any parameter other than alertSink is null
+     */
+    public VehicleAlertBusinessLogic(AlertDAO alertDAO, VehicleEventNotifier notifier,
+            AlertDeduplicator deduplicator, AlertRuleEngine rules, WriteBehindAlertSink alertSink,
+            boolean notifyDirectly) {
+        if (alertDAO == null || notifier == null || deduplicator == null || rules == null) {
             throw new IllegalArgumentException("Dependencies cannot be null");
         }
         this.alertDAO = alertDAO;
         this.notifier = notifier;
+        this.deduplicator = deduplicator;
+        this.rules = rules;
+        this.alertSink = alertSink;
+        this.notifyDirectly = notifyDirectly;
     }
     
     /**
@@ -56,178 +139,170 @@ public class VehicleAlertBusinessLogic {
         }
         
         try {
-            checkCommonComponents(vehicle);
-            checkFuelLevel(vehicle);
-            if (vehicle instanceof ElectricLightRailDTO) {
-                checkElectricLightRailComponents((ElectricLightRailDTO) vehicle);
-            } else if (vehicle instanceof DieselTrainDTO) {
-                checkDieselTrainComponents((DieselTrainDTO) vehicle);
-            } else if (vehicle instanceof BusDTO) {
-                checkBusComponents((BusDTO) vehicle);
-            }
-            
-            checkRouteCompletion(vehicle);
+            raiseAll(rules.evaluate(vehicle));
         } catch (Exception e) {
             System.err.println("Error monitoring vehicle: " + e.getMessage());
         }
     }
     
     /**
-     * Checks common vehicle components that apply to all vehicle types.
+     * Monitors many vehicles against the same version of the rules and
+     * generates alerts as needed.
      *
-     * @param vehicle the vehicle to check
+     * @param vehicles the vehicles to monitor
+     * @throws IllegalArgumentException if vehicles is null
      */
-    private void checkCommonComponents(VehicleDTO vehicle) {
-        StringBuilder reason = new StringBuilder();
-        boolean needsMaintenance = false;
-        
-        if (vehicle.getBrakesCondition() >= BRAKES_THRESHOLD) {
-            reason.append("Brakes have reached service interval (").append(vehicle.getBrakesCondition()).append(" hours). ");
-            needsMaintenance = true;
+    public void monitorVehicles(List<? extends VehicleDTO> vehicles) {
+        if (vehicles == null) {
+            throw new IllegalArgumentException("Vehicles cannot be null");
         }
         
-        if (vehicle.getWheelsCondition() >= WHEELS_THRESHOLD) {
-            reason.append("Wheels have reached service interval (").append(vehicle.getWheelsCondition()).append(" hours). ");
-            needsMaintenance = true;
-        }
-        
-        if (vehicle.getAxleBearingsCondition() >= AXLE_BEARINGS_THRESHOLD) {
-            reason.append("Axle bearings have reached service interval (").append(vehicle.getAxleBearingsCondition()).append(" hours). ");
-            needsMaintenance = true;
-        }
-        
-        if (needsMaintenance) {
-            createAndNotifyAlert(
-                vehicle.getVehicleID(),
-                VehicleEvent.MAINTENANCE,
-                reason.toString()
-            );
+        try {
+            raiseAlerts(rules.evaluate(vehicles));
+        } catch (Exception e) {
+            System.err.println("Error monitoring vehicles: " + e.getMessage());
         }
     }
     
     /**
-     * Checks components specific to electric light rail vehicles.
+     * Raises the alerts produced by the rules one at a time.
      *
-     * @param elr the electric light rail vehicle to check
+     * @param raised the alerts to raise
      */
-    private void checkElectricLightRailComponents(ElectricLightRailDTO elr) {
-        StringBuilder reason = new StringBuilder();
-        boolean needsMaintenance = false;
-        
-        if (elr.getCatenaryCondition() >= ELECTRICAL_COMPONENTS_THRESHOLD) {
-            reason.append("Catenary component have reached service interval (").append(elr.getCatenaryCondition()).append(" hours). ");
-            needsMaintenance = true;
-        } 
-        if (elr.getPantographCondition() >= ELECTRICAL_COMPONENTS_THRESHOLD) {
-            reason.append("Pantograph component have reached service interval (").append(elr.getCatenaryCondition()).append(" hours). ");
-            needsMaintenance = true;
-        }
-        if (elr.getCircuitBreakerCondition() >= ELECTRICAL_COMPONENTS_THRESHOLD) {
-            reason.append("Circuit breaker component have reached service interval (").append(elr.getCatenaryCondition()).append(" hours). ");
-            needsMaintenance = true;
-        }
-        
-        if (needsMaintenance) {
-            createAndNotifyAlert(
-                elr.getVehicleID(),
-                VehicleEvent.MAINTENANCE,
-                "Electrical system: " + reason.toString()
-            );
+    private void raiseAll(List<AlertRuleEngine.RaisedAlert> raised) {
+        for (AlertRuleEngine.RaisedAlert alert : raised) {
+            createAndNotifyAlert(alert.getVehicleID(), alert.getEventType(), alert.getGroup(), alert.getReason());
         }
     }
     
     /**
-     * Checks components specific to diesel train vehicles.
+     * Raises many alerts produced by the rules with a single batched insert.
+     * Alerts the deduplicator suppresses are skipped, and listeners are
+     * notified of the others once they are committed.
      *
-     * @param train the diesel train vehicle to check
+     * @param raised the alerts to raise
+     * @return the number of alerts created
+     * @throws RuntimeException if the alerts cannot be stored
      */
-    private void checkDieselTrainComponents(DieselTrainDTO train) {
-        if (train.getOilStatus() >= OIL_CHANGE_THRESHOLD) {
-            createAndNotifyAlert(
-                train.getVehicleID(),
-                VehicleEvent.MAINTENANCE,
-                "Oil change required (" + train.getOilStatus() + " hours since last change)"
-            );
+    public int raiseAlerts(List<AlertRuleEngine.RaisedAlert> raised) {
+        List<AlertDTO> alerts = new ArrayList<>();
+        for (AlertRuleEngine.RaisedAlert candidate : raised) {
+            if (deduplicator.tryRaise(candidate.getVehicleID(), candidate.getEventType(), candidate.getGroup())) {
+                alerts.add(newAlert(candidate.getVehicleID(), candidate.getEventType(), candidate.getGroup(),
+                        candidate.getReason()));
+            }
         }
+        if (alerts.isEmpty()) {
+            return 0;
+        }
+        UnitOfWork.runAfterRollback(() -> release(alerts));
+        try {
+            alertDAO.addAlerts(alerts);
+        } catch (RuntimeException e) {
+            release(alerts);
+            throw e;
+        }
+        for (AlertDTO alert : alerts) {
+            announce(VehicleEvent.valueOf(alert.getAlertType()), alert);
+        }
+        return alerts.size();
     }
     
     /**
-     * Checks components specific to bus vehicles.
+     * Creates a new alert and notifies registered listeners, unless an
+     * equivalent alert is still open or the vehicle has raised too many
+     * alerts recently.
      *
-     * @param bus the bus vehicle to check
+     * @param vehicleID the ID of the vehicle associated with the alert
+     * @param eventType the type of vehicle event
+     * @param ruleGroup the name of the alert rule group raising the alert
+     * @param reason the reason/description for the alert
      */
-    private void checkBusComponents(BusDTO bus) {
-        if (bus.getEmissionRate() >= EMISSION_CHECK_THRESHOLD) {
-            createAndNotifyAlert(
-                bus.getVehicleID(),
-                VehicleEvent.MAINTENANCE,
-                "Emission system check required (" + bus.getEmissionRate() + " hours since last check)"
-            );
+    private void createAndNotifyAlert(int vehicleID, VehicleEvent eventType, String ruleGroup, String reason) {
+        if (!deduplicator.tryRaise(vehicleID, eventType, ruleGroup)) {
+            return;
+        }
+        AlertDTO alert = newAlert(vehicleID, eventType, ruleGroup, reason);
+        
+        UnitOfWork.runAfterRollback(() -> release(alert));
+        if (alertSink != null) {
+            // Stored by the sink once the caller's transaction commits, and
+            // announced when it has its ID
+            UnitOfWork.runAfterCommit(() -> alertSink.submit(alert).whenComplete((stored, failure) -> {
+                if (failure != null) {
+                    release(alert);
+                    System.err.println("Failed to store alert: " + failure.getMessage());
+                } else {
+                    announce(eventType, stored);
+                }
+            }));
+            return;
+        }
+        try {
+            alertDAO.addAlert(alert);
+        } catch (Exception e) {
+            release(alert);
+            System.err.println("Failed to create or notify alert: " + e.getMessage());
+            return;
         }
+        announce(eventType, alert);
     }
     
     /**
-     * Checks if a vehicle has completed its route and generates an alert if so.
+     * Tells the deduplicator that alerts it allowed were not stored.
      *
-     * @param vehicle the vehicle to check
+     * @param alerts the alerts
      */
-    private void checkRouteCompletion(VehicleDTO vehicle) {
-        if ("COMPLETED".equalsIgnoreCase(vehicle.getStatus())) {
-            createAndNotifyAlert(
-                vehicle.getVehicleID(),
-                VehicleEvent.ROUTE_END,
-                "Vehicle has completed its route " + vehicle.getCurrentRouteID()
-            );
+    private void release(List<AlertDTO> alerts) {
+        for (AlertDTO alert : alerts) {
+            release(alert);
         }
     }
     
     /**
-     * Checks the fuel level of a vehicle and generates an alert if low.
+     * Tells the deduplicator that an alert it allowed was not stored.
      *
-     * @param vehicle the vehicle to check
+     * @param alert the alert
      */
-    private void checkFuelLevel(VehicleDTO vehicle) {
-        if (vehicle.getFuelLevel() <= FUEL_LEVEL_THRESHOLD) {
-             createAndNotifyAlert(
-                vehicle.getVehicleID(),
-                VehicleEvent.REFUEL,
-                "Vehicle needs refuel. Fuel level at " + vehicle.getFuelLevel()
-            );
-        }
+    private void release(AlertDTO alert) {
+        deduplicator.release(alert.getVehicleID(), VehicleEvent.valueOf(alert.getAlertType()),
+                alert.getRuleGroup());
     }
     
     /**
-     * Creates a new alert and notifies registered listeners.
+     * Builds a new active alert stamped with the current time.
      *
      * @param vehicleID the ID of the vehicle associated with the alert
      * @param eventType the type of vehicle event
+     * @param ruleGroup the name of the alert rule group raising the alert
      * @param reason the reason/description for the alert
+     * @return the AlertDTO
      */
-    private void createAndNotifyAlert(int vehicleID, VehicleEvent eventType, String reason) {
+    private static AlertDTO newAlert(int vehicleID, VehicleEvent eventType, String ruleGroup, String reason) {
         AlertDTO alert = new AlertDTO();
         alert.setVehicleID(vehicleID);
         alert.setAlertType(eventType.name());
         alert.setAlertReason(reason);
+        alert.setRuleGroup(ruleGroup);
         alert.setAlertTime(new Timestamp(System.currentTimeMillis()));
         alert.setStatus("ACTIVE");
-        
-        try {
-            alertDAO.addAlert(alert);
-            notifier.notifyListeners(eventType, alert);
-        } catch (Exception e) {
-            System.err.println("Failed to create or notify alert: " + e.getMessage());
-        }
+        return alert;
     }
     
     /**
-     * Processes an alert by updating its status and potentially notifying listeners.
+     * Processes an alert by moving it to the status for the action and notifying
+     * listeners of the change. The status only changes if nobody else changed
+     * it since it was read, so two dispatchers acting on the same alert cannot
+     * both succeed.
      *
      * @param alertID the ID of the alert to process
      * @param action the action to take ("ACKNOWLEDGE", "RESOLVE", or "ESCALATE")
+     * @return true if the alert changed, false if the action does not apply to
+     * its current status or another change got there first
      * @throws IllegalArgumentException if parameters are invalid
      * @throws RuntimeException if alert processing fails
      */
-    public void processAlert(int alertID, String action) {
+    public boolean processAlert(int alertID, String action) {
         if (alertID <= 0) {
             throw new IllegalArgumentException("Invalid alert ID");
         }
@@ -236,39 +311,103 @@ public class VehicleAlertBusinessLogic {
         }
         
         try {
+            String newStatus = statusFor(action);
             AlertDTO alert = alertDAO.getAlertById(alertID);
             if (alert == null) {
                 throw new IllegalArgumentException("Alert not found with ID: " + alertID);
             }
             
-            String newStatus;
-            switch (action.toUpperCase()) {
-                case "ACKNOWLEDGE":
-                    newStatus = "ACKNOWLEDGED";
-                    break;
-                case "RESOLVE":
-                    newStatus = "RESOLVED";
-                    break;
-                case "ESCALATE":
-                    newStatus = "ESCALATED";
-                    break;
-                default:
-                    throw new IllegalArgumentException("Invalid action: " + action);
+            String currentStatus = alert.getStatus();
+            if (!TRANSITIONS.get(newStatus).contains(currentStatus)
+                    || !alertDAO.transitionStatus(alertID, currentStatus, newStatus)) {
+                return false;
             }
-            
             alert.setStatus(newStatus);
-            alertDAO.updateAlert(alert);
-            
-            if (!"RESOLVED".equals(newStatus)) {
-                VehicleEvent eventType = VehicleEvent.valueOf(alert.getAlertType());
-                notifier.notifyListeners(eventType, alert);
-            }
+            alertChanged(alert);
+            return true;
         } catch (Exception e) {
             System.err.println("Error processing alert: " + e.getMessage());
             throw new RuntimeException("Failed to process alert", e);
         }
     }
     
+    /**
+     * Processes many alerts with the same action in one conditional update,
+     * for example to clear an alert storm. Alerts the action does not apply
+     * to are left alone.
+     *
+     * @param alertIDs the IDs of the alerts to process
+     * @param action the action to take ("ACKNOWLEDGE", "RESOLVE", or "ESCALATE")
+     * @return the alerts that changed, with their new status
+     * @throws IllegalArgumentException if parameters are invalid
+     * @throws RuntimeException if alert processing fails
+     */
+    public List<AlertDTO> processAlerts(List<Integer> alertIDs, String action) {
+        if (alertIDs == null) {
+            throw new IllegalArgumentException("Alert IDs cannot be null");
+        }
+        if (action == null || action.trim().isEmpty()) {
+            throw new IllegalArgumentException("Action cannot be null or empty");
+        }
+        String newStatus = statusFor(action);
+        
+        try {
+            List<AlertDTO> changed = alertDAO.transitionStatuses(alertIDs, TRANSITIONS.get(newStatus), newStatus);
+            for (AlertDTO alert : changed) {
+                alertChanged(alert);
+            }
+            return changed;
+        } catch (Exception e) {
+            System.err.println("Error processing alerts: " + e.getMessage());
+            throw new RuntimeException("Failed to process alerts", e);
+        }
+    }
+    
+    /**
+     * Maps an action to the status it leads to.
+     *
+     * @param action the action ("ACKNOWLEDGE", "RESOLVE", or "ESCALATE")
+     * @return the new status
+     * @throws IllegalArgumentException if the action is unknown
+     */
+    private static String statusFor(String action) {
+        switch (action.toUpperCase()) {
+            case "ACKNOWLEDGE":
+                return "ACKNOWLEDGED";
+            case "RESOLVE":
+                return "RESOLVED";
+            case "ESCALATE":
+                return "ESCALATED";
+            default:
+                throw new IllegalArgumentException("Invalid action: " + action);
+        }
+    }
+    
+    /**
+     * Tells the deduplicator and the listeners that an alert's status changed.
+     *
+     * @param alert the alert with its new status
+     */
+    void alertChanged(AlertDTO alert) {
+        if ("RESOLVED".equals(alert.getStatus())) {
+            deduplicator.resolved(alert);
+        }
+        announce(VehicleEvent.valueOf(alert.getAlertType()), alert);
+    }
+    
+    /**
+     * Notifies listeners of a new or changed alert once the caller's
+     * transaction commits, unless the alert outbox delivers it instead.
+     *
+     * @param eventType the type of vehicle event
+     * @param alert the alert
+     */
+    private void announce(VehicleEvent eventType, AlertDTO alert) {
+        if (notifyDirectly) {
+            UnitOfWork.runAfterCommit(() -> notifier.notifyListeners(eventType, alert));
+        }
+    }
+    
     /**
      * Retrieves all active alerts.
      *
@@ -278,6 +417,16 @@ public class VehicleAlertBusinessLogic {
         return alertDAO.getActiveAlerts();
     }
     
+    /**
+     * Retrieves every unresolved alert, whether active, acknowledged or
+     * escalated.
+     *
+     * @return list of unresolved alerts
+     */
+    public List<AlertDTO> getOpenAlerts() {
+        return alertDAO.getOpenAlerts();
+    }
+    
     /**
      * Retrieves alerts for a specific vehicle.
      *
@@ -298,6 +447,40 @@ public class VehicleAlertBusinessLogic {
         return alertDAO.getAlertsByType(alertType);
     }
     
+    /**
+     * Retrieves the unresolved alerts for a specific vehicle.
+     *
+     * @param vehicleID the ID of the vehicle
+     * @return list of unresolved alerts associated with the vehicle
+     */
+    public List<AlertDTO> getOpenAlertsByVehicle(int vehicleID) {
+        return alertDAO.getOpenAlertsByVehicle(vehicleID);
+    }
+    
+    /**
+     * Retrieves the unresolved alerts of a specific type.
+     *
+     * @param alertType the type of alert to filter by
+     * @return list of unresolved alerts matching the type
+     */
+    public List<AlertDTO> getOpenAlertsByType(String alertType) {
+        return alertDAO.getOpenAlertsByType(alertType);
+    }
+    
+    /**
+     * @return the engine holding the monitoring rules
+     */
+    public AlertRuleEngine getRules() {
+        return rules;
+    }
+    
+    /**
+     * @return the deduplicator that suppresses repeated alerts, with its counters
+     */
+    public AlertDeduplicator getDeduplicator() {
+        return deduplicator;
+    }
+    
     /**
      * Retrieves all alerts.
      *
@@ -0,0 +1,59 @@
+package businesslayer;
+
+import java.util.function.ToDoubleFunction;
+import transferobjects.BusDTO;
+import transferobjects.DieselTrainDTO;
+import transferobjects.ElectricLightRailDTO;
+import transferobjects.VehicleDTO;
+
+/**
+ * A measurable vehicle value that alert rules can test against a threshold.
+ * Each metric knows which kind of vehicle it applies to and how to read it.
+ * @author jaces
+ */
+public enum VehicleMetric {
+    BRAKES(VehicleDTO.class, VehicleDTO::getBrakesCondition),
+    WHEELS(VehicleDTO.class, VehicleDTO::getWheelsCondition),
+    AXLE_BEARINGS(VehicleDTO.class, VehicleDTO::getAxleBearingsCondition),
+    FUEL_LEVEL(VehicleDTO.class, VehicleDTO::getFuelLevel),
+    ROUTE_COMPLETED(VehicleDTO.class,
+            vehicle -> "COMPLETED".equalsIgnoreCase(vehicle.getStatus()) ? 1 : 0),
+    EMISSION(BusDTO.class, vehicle -> {
+        Double rate = ((BusDTO) vehicle).getEmissionRate();
+        return rate == null ? Double.NaN : rate;
+    }),
+    OIL(DieselTrainDTO.class, vehicle -> ((DieselTrainDTO) vehicle).getOilStatus()),
+    CATENARY(ElectricLightRailDTO.class, vehicle -> ((ElectricLightRailDTO) vehicle).getCatenaryCondition()),
+    PANTOGRAPH(ElectricLightRailDTO.class, vehicle -> ((ElectricLightRailDTO) vehicle).getPantographCondition()),
+    CIRCUIT_BREAKER(ElectricLightRailDTO.class,
+            vehicle -> ((ElectricLightRailDTO) vehicle).getCircuitBreakerCondition());
+
+    private final Class<? extends VehicleDTO> vehicleClass;
+    private final ToDoubleFunction<VehicleDTO> reader;
+
+    VehicleMetric(Class<? extends VehicleDTO> vehicleClass, ToDoubleFunction<VehicleDTO> reader) {
+        this.vehicleClass = vehicleClass;
+        this.reader = reader;
+    }
+
+    /**
+     * Checks whether this metric can be read from a kind of vehicle.
+     *
+     * @param type the vehicle DTO class
+     * @return true if the metric applies to that class
+     */
+    public boolean appliesTo(Class<? extends VehicleDTO> type) {
+        return vehicleClass.isAssignableFrom(type);
+    }
+
+    /**
+     * Reads this metric from a vehicle. The vehicle must be of a kind this
+     * metric applies to.
+     *
+     * @param vehicle the vehicle
+     * @return the value, or NaN if it is not recorded
+     */
+    public double valueOf(VehicleDTO vehicle) {
+        return reader.applyAsDouble(vehicle);
+    }
+}
@@ -1,5 +1,6 @@
 package dataaccesslayer;
 
+import java.util.Collection;
 import java.util.List;
 import transferobjects.AlertDTO;
 
@@ -28,6 +29,13 @@ public interface AlertDAO {
      */
     void addAlert(AlertDTO alert);
     
+    /**
+     * Defines a method to add many alerts to the database in one transaction.
+     * 
+     * @param alerts a List of AlertDTOs; each receives its generated alert ID.
+     */
+    void addAlerts(List<AlertDTO> alerts);
+    
     /**
      * Defines a method to update an alert in the database.
      * 
@@ -35,6 +43,29 @@ public interface AlertDAO {
      */
     void updateAlert(AlertDTO alert);
     
+    /**
+     * Defines a method to change an alert's status only if it still has the
+     * expected status, in a single conditional update.
+     * 
+     * @param alertID an int representing the alert's ID.
+     * @param expectedStatus the status the alert must have.
+     * @param newStatus the status to give it.
+     * @return true if the alert was changed, false if it did not exist or its
+     * status was no longer the expected one.
+     */
+    boolean transitionStatus(int alertID, String expectedStatus, String newStatus);
+    
+    /**
+     * Defines a method to change the status of many alerts at once. Only
+     * alerts whose current status is one of the given ones are changed.
+     * 
+     * @param alertIDs the IDs of the alerts.
+     * @param fromStatuses the statuses an alert may have to be changed.
+     * @param newStatus the status to give them.
+     * @return a List of the changed AlertDTOs, with their new status.
+     */
+    List<AlertDTO> transitionStatuses(List<Integer> alertIDs, Collection<String> fromStatuses, String newStatus);
+    
     /**
      * Defines a method to delete an alert in the database.
      * 
@@ -81,4 +112,29 @@ public interface AlertDAO {
      * given type.
      */
     List<AlertDTO> getAlertsByType(String alertType);
+    
+    /**
+     * Defines a method to get all alerts that have not been resolved.
+     * 
+     * @return a List of AlertDTOs for every alert whose status is not
+     * RESOLVED, newest first.
+     */
+    List<AlertDTO> getOpenAlerts();
+    
+    /**
+     * Defines a method to get the alerts of a vehicle that have not been
+     * resolved.
+     * 
+     * @param vehicleID the vehicle's ID.
+     * @return a List of unresolved AlertDTOs for the given vehicle, newest first.
+     */
+    List<AlertDTO> getOpenAlertsByVehicle(int vehicleID);
+    
+    /**
+     * Defines a method to get the alerts of a type that have not been resolved.
+     * 
+     * @param alertType a String representing the type of alert.
+     * @return a List of unresolved AlertDTOs of the given type, newest first.
+     */
+    List<AlertDTO> getOpenAlertsByType(String alertType);
 }
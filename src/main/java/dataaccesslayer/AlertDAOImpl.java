@@ -5,6 +5,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import transferobjects.AlertDTO;
 
@@ -26,6 +27,11 @@ import transferobjects.AlertDTO;
  */
 public class AlertDAOImpl implements AlertDAO {
     
+    /**
+     * Most rows written by one INSERT statement in addAlerts.
+     */
+    private static final int BATCH_SIZE = 500;
+    
     /**
      * Method to add an alert to the database.
      * 
@@ -33,8 +39,8 @@ public class AlertDAOImpl implements AlertDAO {
      */
     @Override
     public void addAlert(AlertDTO alert) {
-        String sql = "INSERT INTO Alert (Vehicle_ID, Alert_Type, Alert_Reason, Status, Alert_Time) " +
-                     "VALUES (?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO Alert (Vehicle_ID, Alert_Type, Alert_Reason, Rule_Group, Status, Alert_Time) " +
+                     "VALUES (?, ?, ?, ?, ?, ?)";
         
         try (Connection connection = DataSource.getConnection();
              PreparedStatement pstmt = connection.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
@@ -42,8 +48,9 @@ public class AlertDAOImpl implements AlertDAO {
             pstmt.setInt(1, alert.getVehicleID());
             pstmt.setString(2, alert.getAlertType());
             pstmt.setString(3, alert.getAlertReason());
-            pstmt.setString(4, alert.getStatus());
-            pstmt.setTimestamp(5, alert.getAlertTime());
+            pstmt.setString(4, alert.getRuleGroup());
+            pstmt.setString(5, alert.getStatus());
+            pstmt.setTimestamp(6, alert.getAlertTime());
             
             pstmt.executeUpdate();
             
@@ -57,6 +64,59 @@ public class AlertDAOImpl implements AlertDAO {
         }
     }
     
+    /**
+     * Method to add many alerts to the database. Each group of up to
+     * BATCH_SIZE alerts is sent as a single multi-row INSERT, within one unit
+     * of work that joins the caller's if one is open. The generated IDs come
+     * back in row order and are copied into the alerts.
+     * 
+     * @param alerts a List of AlertDTOs; each receives its generated alert ID.
+     */
+    @Override
+    public void addAlerts(List<AlertDTO> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
+        
+        try (UnitOfWork work = UnitOfWork.begin();
+             Connection connection = DataSource.getConnection()) {
+            
+            for (int start = 0; start < alerts.size(); start += BATCH_SIZE) {
+                List<AlertDTO> batch = alerts.subList(start, Math.min(start + BATCH_SIZE, alerts.size()));
+                StringBuilder sql = new StringBuilder(
+                        "INSERT INTO Alert (Vehicle_ID, Alert_Type, Alert_Reason, Rule_Group, Status, Alert_Time) VALUES ");
+                for (int i = 0; i < batch.size(); i++) {
+                    sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+                }
+                
+                try (PreparedStatement pstmt = connection.prepareStatement(sql.toString(),
+                        PreparedStatement.RETURN_GENERATED_KEYS)) {
+                    int index = 1;
+                    for (AlertDTO alert : batch) {
+                        pstmt.setInt(index++, alert.getVehicleID());
+                        pstmt.setString(index++, alert.getAlertType());
+                        pstmt.setString(index++, alert.getAlertReason());
+                        pstmt.setString(index++, alert.getRuleGroup());
+                        pstmt.setString(index++, alert.getStatus());
+                        pstmt.setTimestamp(index++, alert.getAlertTime());
+                    }
+                    pstmt.executeUpdate();
+                    
+                    try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                        for (AlertDTO alert : batch) {
+                            if (rs.next()) {
+                                alert.setAlertID(rs.getInt(1));
+                            }
+                        }
+                    }
+                }
+            }
+            work.commit();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to add alerts", e);
+        }
+    }
+    
     /**
      * Method to update an alert in the database.
      * 
@@ -79,6 +139,91 @@ public class AlertDAOImpl implements AlertDAO {
         }
     }
 
+    /**
+     * Method to change an alert's status only if it still has the expected
+     * status. The check and the change are one UPDATE statement, so two
+     * callers acting on the same alert cannot both succeed.
+     * 
+     * @param alertID an int representing the alert's ID.
+     * @param expectedStatus the status the alert must have.
+     * @param newStatus the status to give it.
+     * @return true if the alert was changed, else false.
+     */
+    @Override
+    public boolean transitionStatus(int alertID, String expectedStatus, String newStatus) {
+        String sql = "UPDATE Alert SET Status = ? WHERE Alert_ID = ? AND Status = ?";
+        
+        try (Connection connection = DataSource.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            
+            pstmt.setString(1, newStatus);
+            pstmt.setInt(2, alertID);
+            pstmt.setString(3, expectedStatus);
+            
+            return pstmt.executeUpdate() == 1;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to change alert status", e);
+        }
+    }
+    
+    /**
+     * Method to change the status of many alerts at once. Each group of up to
+     * BATCH_SIZE IDs is handled by locking the matching rows with SELECT ...
+     * FOR UPDATE and changing them with one UPDATE, inside a unit of work, so
+     * the returned alerts are exactly the ones changed.
+     * 
+     * @param alertIDs the IDs of the alerts.
+     * @param fromStatuses the statuses an alert may have to be changed.
+     * @param newStatus the status to give them.
+     * @return a List of the changed AlertDTOs, with their new status.
+     */
+    @Override
+    public List<AlertDTO> transitionStatuses(List<Integer> alertIDs, Collection<String> fromStatuses,
+            String newStatus) {
+        List<AlertDTO> changed = new ArrayList<>();
+        if (alertIDs.isEmpty() || fromStatuses.isEmpty()) {
+            return changed;
+        }
+        String statusList = placeholders(fromStatuses.size());
+        
+        try (UnitOfWork work = UnitOfWork.begin();
+             Connection connection = DataSource.getConnection()) {
+            
+            for (int start = 0; start < alertIDs.size(); start += BATCH_SIZE) {
+                List<Integer> batch = alertIDs.subList(start, Math.min(start + BATCH_SIZE, alertIDs.size()));
+                String where = " WHERE Alert_ID IN (" + placeholders(batch.size()) + ")"
+                        + " AND Status IN (" + statusList + ")";
+                
+                List<AlertDTO> locked;
+                try (PreparedStatement pstmt = connection.prepareStatement(
+                        "SELECT * FROM Alert" + where + " FOR UPDATE")) {
+                    bindIDsAndStatuses(pstmt, 1, batch, fromStatuses);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        locked = mapAlerts(rs);
+                    }
+                }
+                if (locked.isEmpty()) {
+                    continue;
+                }
+                
+                try (PreparedStatement pstmt = connection.prepareStatement(
+                        "UPDATE Alert SET Status = ?" + where)) {
+                    pstmt.setString(1, newStatus);
+                    bindIDsAndStatuses(pstmt, 2, batch, fromStatuses);
+                    pstmt.executeUpdate();
+                }
+                for (AlertDTO alert : locked) {
+                    alert.setStatus(newStatus);
+                    changed.add(alert);
+                }
+            }
+            work.commit();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to change alert statuses", e);
+        }
+        return changed;
+    }
+    
     /**
      * Method to delete an alert in the database.
      * 
@@ -121,6 +266,7 @@ public class AlertDAOImpl implements AlertDAO {
                     alert.setVehicleID(rs.getInt("Vehicle_ID"));
                     alert.setAlertType(rs.getString("Alert_Type"));
                     alert.setAlertReason(rs.getString("Alert_Reason"));
+                    alert.setRuleGroup(rs.getString("Rule_Group"));
                     alert.setStatus(rs.getString("Status"));
                     alert.setAlertTime(rs.getTimestamp("Alert_Time"));
                 }
@@ -152,6 +298,7 @@ public class AlertDAOImpl implements AlertDAO {
                 alert.setVehicleID(rs.getInt("Vehicle_ID"));
                 alert.setAlertType(rs.getString("Alert_Type"));
                 alert.setAlertReason(rs.getString("Alert_Reason"));
+                alert.setRuleGroup(rs.getString("Rule_Group"));
                 alert.setStatus(rs.getString("Status"));
                 alert.setAlertTime(rs.getTimestamp("Alert_Time"));
                 alerts.add(alert);
@@ -184,6 +331,7 @@ public class AlertDAOImpl implements AlertDAO {
                     alert.setVehicleID(rs.getInt("Vehicle_ID"));
                     alert.setAlertType(rs.getString("Alert_Type"));
                     alert.setAlertReason(rs.getString("Alert_Reason"));
+                    alert.setRuleGroup(rs.getString("Rule_Group"));
                     alert.setStatus(rs.getString("Status"));
                     alert.setAlertTime(rs.getTimestamp("Alert_Time"));
                     alerts.add(alert);
@@ -215,6 +363,7 @@ public class AlertDAOImpl implements AlertDAO {
                 alert.setVehicleID(rs.getInt("Vehicle_ID"));
                 alert.setAlertType(rs.getString("Alert_Type"));
                 alert.setAlertReason(rs.getString("Alert_Reason"));
+                alert.setRuleGroup(rs.getString("Rule_Group"));
                 alert.setStatus(rs.getString("Status"));
                 alert.setAlertTime(rs.getTimestamp("Alert_Time"));
                 alerts.add(alert);
@@ -248,6 +397,7 @@ public class AlertDAOImpl implements AlertDAO {
                     alert.setVehicleID(rs.getInt("Vehicle_ID"));
                     alert.setAlertType(rs.getString("Alert_Type"));
                     alert.setAlertReason(rs.getString("Alert_Reason"));
+                    alert.setRuleGroup(rs.getString("Rule_Group"));
                     alert.setStatus(rs.getString("Status"));
                     alert.setAlertTime(rs.getTimestamp("Alert_Time"));
                     alerts.add(alert);
@@ -258,4 +408,127 @@ public class AlertDAOImpl implements AlertDAO {
         }
         return alerts;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Method to get all alerts that have not been resolved.
+     * 
+     * @return a List of AlertDTOs for every alert whose status is not
+     * RESOLVED, newest first.
+     */
+    @Override
+    public List<AlertDTO> getOpenAlerts() {
+        String sql = "SELECT * FROM Alert WHERE Status <> 'RESOLVED' ORDER BY Alert_Time DESC";
+        
+        try (Connection connection = DataSource.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            return mapAlerts(rs);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get open alerts", e);
+        }
+    }
+    
+    /**
+     * Method to get the alerts of a vehicle that have not been resolved.
+     * 
+     * @param vehicleID the vehicle's ID.
+     * @return a List of unresolved AlertDTOs for the given vehicle, newest first.
+     */
+    @Override
+    public List<AlertDTO> getOpenAlertsByVehicle(int vehicleID) {
+        String sql = "SELECT * FROM Alert WHERE Vehicle_ID = ? AND Status <> 'RESOLVED' "
+                + "ORDER BY Alert_Time DESC";
+        
+        try (Connection connection = DataSource.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, vehicleID);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return mapAlerts(rs);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get open alerts by vehicle", e);
+        }
+    }
+    
+    /**
+     * Method to get the alerts of a type that have not been resolved.
+     * 
+     * @param alertType a String representing the type of alert.
+     * @return a List of unresolved AlertDTOs of the given type, newest first.
+     */
+    @Override
+    public List<AlertDTO> getOpenAlertsByType(String alertType) {
+        String sql = "SELECT * FROM Alert WHERE Alert_Type = ? AND Status <> 'RESOLVED' "
+                + "ORDER BY Alert_Time DESC";
+        
+        try (Connection connection = DataSource.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            
+            pstmt.setString(1, alertType);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return mapAlerts(rs);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get open alerts by type", e);
+        }
+    }
+    
+    /**
+     * Builds a comma separated list of parameter markers.
+     * 
+     * @param count the number of markers.
+     * @return a String such as "?, ?, ?".
+     */
+    private static String placeholders(int count) {
+        StringBuilder markers = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            markers.append(i == 0 ? "?" : ", ?");
+        }
+        return markers.toString();
+    }
+    
+    /**
+     * Binds alert IDs followed by statuses to consecutive parameters.
+     * 
+     * @param pstmt the statement to bind.
+     * @param first the index of the first parameter.
+     * @param alertIDs the alert IDs.
+     * @param statuses the statuses.
+     * @throws SQLException if a parameter cannot be set.
+     */
+    private static void bindIDsAndStatuses(PreparedStatement pstmt, int first, List<Integer> alertIDs,
+            Collection<String> statuses) throws SQLException {
+        int index = first;
+        for (int alertID : alertIDs) {
+            pstmt.setInt(index++, alertID);
+        }
+        for (String status : statuses) {
+            pstmt.setString(index++, status);
+        }
+    }
+    
+    /**
+     * Maps every remaining row of a result set to an AlertDTO.
+     * 
+     * @param rs a ResultSet of rows from the Alert table.
+     * @return a List of AlertDTOs in result set order.
+     * @throws SQLException if a column cannot be read.
+     */
+    private List<AlertDTO> mapAlerts(ResultSet rs) throws SQLException {
+        List<AlertDTO> alerts = new ArrayList<>();
+        while (rs.next()) {
+            AlertDTO alert = new AlertDTO();
+            alert.setAlertID(rs.getInt("Alert_ID"));
+            alert.setVehicleID(rs.getInt("Vehicle_ID"));
+            alert.setAlertType(rs.getString("Alert_Type"));
+            alert.setAlertReason(rs.getString("Alert_Reason"));
+            alert.setRuleGroup(rs.getString("Rule_Group"));
+            alert.setStatus(rs.getString("Status"));
+            alert.setAlertTime(rs.getTimestamp("Alert_Time"));
+            alerts.add(alert);
+        }
+        return alerts;
+    }
+}
@@ -0,0 +1,66 @@
+package dataaccesslayer;
+
+import java.util.List;
+import transferobjects.AlertDTO;
+import transferobjects.OutboxEntryDTO;
+
+/**
+ * File Name: AlertOutboxDAO.java
+ * Author: Simon Tan, 041161622
+ * Course: CST8288 - Object Oriented Programming with Design Patterns
+ * Section: Lab section 12
+ * Assignment: Final Group Project
+ * Date: October 18th, 2026
+ * Professor: Teddy Yap
+ * 
+ * This class serves as an interface for defining DAO methods related to the
+ * alert outbox, the table of alert changes waiting to be announced, and the
+ * cursors that record how far each listener has read it.
+ * 
+ * @author Simon Tan
+ * @version 1.0, 10/18/2026
+ * @see dataaccesslayer
+ * @since JDK 21.0.4
+ */
+public interface AlertOutboxDAO {
+    /**
+     * Defines a method to add a snapshot of each alert to the outbox.
+     * 
+     * @param alerts a List of AlertDTOs as they are now.
+     */
+    void append(List<AlertDTO> alerts);
+    
+    /**
+     * Defines a method to read the outbox entries after a position.
+     * 
+     * @param outboxID the position to read after.
+     * @param limit the most entries to return.
+     * @return a List of OutboxEntryDTOs in outbox order.
+     */
+    List<OutboxEntryDTO> getEntriesAfter(long outboxID, int limit);
+    
+    /**
+     * Defines a method to read how far a listener has read the outbox.
+     * 
+     * @param listenerName the name of the listener.
+     * @return the position of the last entry delivered to the listener, or 0
+     * if it has none.
+     */
+    long getCursor(String listenerName);
+    
+    /**
+     * Defines a method to record how far a listener has read the outbox.
+     * 
+     * @param listenerName the name of the listener.
+     * @param outboxID the position of the last entry delivered to it.
+     */
+    void saveCursor(String listenerName, long outboxID);
+    
+    /**
+     * Defines a method to remove entries every listener has read.
+     * 
+     * @param outboxID the position up to which entries are removed.
+     * @return the number of entries removed.
+     */
+    int deleteUpTo(long outboxID);
+}
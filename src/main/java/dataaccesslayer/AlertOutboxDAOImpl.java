@@ -0,0 +1,169 @@
+package dataaccesslayer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import transferobjects.AlertDTO;
+import transferobjects.OutboxEntryDTO;
+
+/**
+ * File Name: AlertOutboxDAOImpl.java
+ * Author: Simon Tan, 041161622
+ * Course: CST8288 - Object Oriented Programming with Design Patterns
+ * Section: Lab section 12
+ * Assignment: Final Group Project
+ * Date: October 18th, 2026
+ * Professor: Teddy Yap
+ *
+ * Concrete class that implements DAO methods related to the alert outbox.
+ * Entries are written on the caller's connection, so inside a UnitOfWork
+ * they commit or roll back together with the alert change they describe.
+ * Failures are thrown rather than logged, so that a change whose entry
+ * could not be written is rolled back instead of never being announced.
+ *
+ * @author Simon Tan
+ * @version 1.0, 10/18/2026
+ * @see dataaccesslayer
+ * @since JDK 21.0.4
+ */
+public class AlertOutboxDAOImpl implements AlertOutboxDAO {
+
+    /**
+     * Most rows written by one INSERT statement in append.
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Method to add a snapshot of each alert to the outbox, up to BATCH_SIZE
+     * rows per INSERT.
+     *
+     * @param alerts a List of AlertDTOs as they are now.
+     */
+    @Override
+    public void append(List<AlertDTO> alerts) {
+        if(alerts.isEmpty()) {
+            return;
+        }
+        try(Connection connection = DataSource.getConnection()) {
+            for(int start = 0; start < alerts.size(); start += BATCH_SIZE) {
+                List<AlertDTO> batch = alerts.subList(start, Math.min(start + BATCH_SIZE, alerts.size()));
+                StringBuilder query = new StringBuilder("INSERT INTO Alert_Outbox (Alert_ID, Vehicle_ID, "
+                        + "Alert_Type, Alert_Reason, Status, Alert_Time) VALUES ");
+                for(int i = 0; i < batch.size(); i++) {
+                    query.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+                }
+                try(PreparedStatement statement = connection.prepareStatement(query.toString())) {
+                    int index = 1;
+                    for(AlertDTO alert : batch) {
+                        statement.setInt(index++, alert.getAlertID());
+                        statement.setInt(index++, alert.getVehicleID());
+                        statement.setString(index++, alert.getAlertType());
+                        statement.setString(index++, alert.getAlertReason());
+                        statement.setString(index++, alert.getStatus());
+                        statement.setTimestamp(index++, alert.getAlertTime());
+                    }
+                    statement.executeUpdate();
+                }
+            }
+        }
+        catch(SQLException e) {
+            throw new RuntimeException("Failed to write alert outbox entries", e);
+        }
+    }
+
+    /**
+     * Method to read the outbox entries after a position, oldest first.
+     *
+     * @param outboxID the position to read after.
+     * @param limit the most entries to return.
+     * @return a List of OutboxEntryDTOs in outbox order.
+     */
+    @Override
+    public List<OutboxEntryDTO> getEntriesAfter(long outboxID, int limit) {
+        String query = "SELECT * FROM Alert_Outbox WHERE Outbox_ID > ? ORDER BY Outbox_ID ASC LIMIT ?";
+        List<OutboxEntryDTO> entries = new ArrayList<>();
+        try(Connection connection = DataSource.getConnection();
+            PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setLong(1, outboxID);
+            statement.setInt(2, limit);
+            try(ResultSet results = statement.executeQuery()) {
+                while(results.next()) {
+                    AlertDTO alert = new AlertDTO(results.getInt("Alert_ID"), results.getInt("Vehicle_ID"),
+                            results.getString("Status"), results.getString("Alert_Type"),
+                            results.getString("Alert_Reason"), results.getTimestamp("Alert_Time"));
+                    entries.add(new OutboxEntryDTO(results.getLong("Outbox_ID"), alert,
+                            results.getTimestamp("Created_At")));
+                }
+            }
+        }
+        catch(SQLException e) {
+            throw new RuntimeException("Failed to read alert outbox", e);
+        }
+        return entries;
+    }
+
+    /**
+     * Method to read how far a listener has read the outbox.
+     *
+     * @param listenerName the name of the listener.
+     * @return the position of the last entry delivered to the listener, or 0
+     * if it has none.
+     */
+    @Override
+    public long getCursor(String listenerName) {
+        String query = "SELECT Last_Outbox_ID FROM Outbox_Cursor WHERE Listener_Name = ?";
+        try(Connection connection = DataSource.getConnection();
+            PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, listenerName);
+            try(ResultSet results = statement.executeQuery()) {
+                return results.next() ? results.getLong(1) : 0;
+            }
+        }
+        catch(SQLException e) {
+            throw new RuntimeException("Failed to read outbox cursor", e);
+        }
+    }
+
+    /**
+     * Method to record how far a listener has read the outbox.
+     *
+     * @param listenerName the name of the listener.
+     * @param outboxID the position of the last entry delivered to it.
+     */
+    @Override
+    public void saveCursor(String listenerName, long outboxID) {
+        String query = "INSERT INTO Outbox_Cursor (Listener_Name, Last_Outbox_ID) VALUES (?, ?) "
+                + "ON DUPLICATE KEY UPDATE Last_Outbox_ID = VALUES(Last_Outbox_ID)";
+        try(Connection connection = DataSource.getConnection();
+            PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, listenerName);
+            statement.setLong(2, outboxID);
+            statement.executeUpdate();
+        }
+        catch(SQLException e) {
+            throw new RuntimeException("Failed to save outbox cursor", e);
+        }
+    }
+
+    /**
+     * Method to remove entries every listener has read.
+     *
+     * @param outboxID the position up to which entries are removed.
+     * @return the number of entries removed.
+     */
+    @Override
+    public int deleteUpTo(long outboxID) {
+        String query = "DELETE FROM Alert_Outbox WHERE Outbox_ID <= ?";
+        try(Connection connection = DataSource.getConnection();
+            PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setLong(1, outboxID);
+            return statement.executeUpdate();
+        }
+        catch(SQLException e) {
+            throw new RuntimeException("Failed to clean alert outbox", e);
+        }
+    }
+}
@@ -0,0 +1,543 @@
+package dataaccesslayer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import transferobjects.BusDTO;
+import transferobjects.DieselTrainDTO;
+import transferobjects.ElectricLightRailDTO;
+import transferobjects.FuelDTO;
+import transferobjects.LocationDTO;
+import transferobjects.MaintenanceDTO;
+import transferobjects.RouteDTO;
+import transferobjects.StationDTO;
+import transferobjects.TripDTO;
+import transferobjects.VehicleDTO;
+import transferobjects.VehicleStationDTO;
+
+/**
+ * File Name: CachingVehicleDAO.java
+ * Author: Simon Tan, 041161622
+ * Course: CST8288 - Object Oriented Programming with Design Patterns
+ * Section: Lab section 12
+ * Assignment: Final Group Project
+ * Date: October 18th, 2026
+ * Professor: Teddy Yap
+ *
+ * Decorator for a VehicleDAO that keeps recently read vehicles in memory.
+ * Vehicle lookups are served from a bounded LRU cache whose entries expire
+ * after a fixed time, and every method that changes a vehicle row evicts
+ * that vehicle. A vehicle read while an eviction was in progress is not
+ * cached, so a stale row can never replace the eviction. Callers always
+ * receive their own copy of a cached vehicle, so changing a returned DTO
+ * never changes the cache. All other methods are passed straight to the
+ * wrapped DAO.
+ *
+ * @author Simon Tan
+ * @version 1.0, 10/18/2026
+ * @see dataaccesslayer
+ * @since JDK 21.0.4
+ */
+public class CachingVehicleDAO implements VehicleDAO {
+
+    /**
+     * Default maximum number of cached vehicles.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    /**
+     * Default time in seconds a cached vehicle stays valid.
+     */
+    public static final long DEFAULT_TTL_SECONDS = 60;
+
+    /**
+     * The DAO that reads from and writes to the database.
+     */
+    private final VehicleDAO delegate;
+
+    /**
+     * Maximum number of cached vehicles.
+     */
+    private final int maxEntries;
+
+    /**
+     * Time in nanoseconds a cached vehicle stays valid.
+     */
+    private final long ttlNanos;
+
+    /**
+     * Cached vehicles in least recently used order. Guarded by itself.
+     */
+    private final LinkedHashMap<Integer, CacheEntry> cache;
+
+    /**
+     * Bumped by every eviction. A vehicle is only cached if no eviction
+     * happened while it was read. Guarded by cache.
+     */
+    private long generation;
+
+    /**
+     * Cache statistics.
+     */
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a cache in front of the given DAO with the default size and
+     * expiry time.
+     *
+     * @param delegate the VehicleDAO to wrap.
+     */
+    public CachingVehicleDAO(VehicleDAO delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES, DEFAULT_TTL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Creates a cache in front of the given DAO.
+     *
+     * @param delegate the VehicleDAO to wrap.
+     * @param maxEntries the maximum number of cached vehicles.
+     * @param ttl how long a cached vehicle stays valid.
+     * @param unit the unit of ttl.
+     */
+    public CachingVehicleDAO(VehicleDAO delegate, int maxEntries, long ttl, TimeUnit unit) {
+        if(delegate == null) {
+            throw new IllegalArgumentException("Delegate DAO cannot be null");
+        }
+        if(maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.cache = new LinkedHashMap<Integer, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CacheEntry> eldest) {
+                if(size() > CachingVehicleDAO.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Retrieves a vehicle, from the cache if a fresh copy is held, otherwise
+     * from the database. Vehicles read inside a UnitOfWork are not cached
+     * because they may include uncommitted changes.
+     *
+     * @param vehicleID an int representing the vehicle ID.
+     * @return a copy of the VehicleDTO, or null if the vehicle does not exist.
+     */
+    @Override
+    public VehicleDTO getVehicleById(int vehicleID) {
+        VehicleDTO cached = lookup(vehicleID);
+        if(cached != null) {
+            return copy(cached);
+        }
+        long readGeneration = currentGeneration();
+        VehicleDTO vehicle = delegate.getVehicleById(vehicleID);
+        store(vehicle, readGeneration);
+        return vehicle == null ? null : copy(vehicle);
+    }
+
+    /**
+     * Retrieves several vehicles. Vehicles held in the cache are served from
+     * it and only the rest are read from the database.
+     *
+     * @param vehicleIds a Collection of vehicle IDs.
+     * @return a Map of VehicleDTO copies keyed by vehicle ID.
+     */
+    @Override
+    public Map<Integer, VehicleDTO> getVehiclesByIds(Collection<Integer> vehicleIds) {
+        Map<Integer, VehicleDTO> vehicles = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for(Integer vehicleId : vehicleIds) {
+            VehicleDTO cached = lookup(vehicleId);
+            if(cached != null) {
+                vehicles.put(vehicleId, copy(cached));
+            }
+            else {
+                missing.add(vehicleId);
+            }
+        }
+        if(!missing.isEmpty()) {
+            long readGeneration = currentGeneration();
+            for(VehicleDTO vehicle : delegate.getVehiclesByIds(missing).values()) {
+                store(vehicle, readGeneration);
+                vehicles.put(vehicle.getVehicleID(), copy(vehicle));
+            }
+        }
+        return vehicles;
+    }
+
+    /**
+     * Removes a vehicle from the cache now and again once the current
+     * UnitOfWork, if any, has finished.
+     *
+     * @param vehicleId the ID of the vehicle to remove.
+     */
+    public void invalidate(int vehicleId) {
+        remove(vehicleId);
+        UnitOfWork.runAfterCompletion(() -> remove(vehicleId));
+    }
+
+    /**
+     * Removes every vehicle from the cache.
+     */
+    public void invalidateAll() {
+        synchronized(cache) {
+            generation++;
+            cache.clear();
+        }
+    }
+
+    /**
+     * @return the number of lookups served from the cache.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of lookups that had to read from the database.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of vehicles removed to keep the cache within its size.
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * @return the number of vehicles currently cached.
+     */
+    public int size() {
+        synchronized(cache) {
+            return cache.size();
+        }
+    }
+
+    @Override
+    public boolean updateVehicle(VehicleDTO vehicle) {
+        try {
+            return delegate.updateVehicle(vehicle);
+        }
+        finally {
+            invalidate(vehicle.getVehicleID());
+        }
+    }
+
+    @Override
+    public boolean updateOilLife(DieselTrainDTO train) {
+        try {
+            return delegate.updateOilLife(train);
+        }
+        finally {
+            invalidate(train.getVehicleID());
+        }
+    }
+
+    @Override
+    public boolean updateELRComponents(ElectricLightRailDTO elrTrain) {
+        try {
+            return delegate.updateELRComponents(elrTrain);
+        }
+        finally {
+            invalidate(elrTrain.getVehicleID());
+        }
+    }
+
+    @Override
+    public boolean startMaintenance(MaintenanceDTO maintenance) {
+        try {
+            return delegate.startMaintenance(maintenance);
+        }
+        finally {
+            invalidate(maintenance.getVehicleId());
+        }
+    }
+
+    @Override
+    public boolean endMaintenance(int vehicleId) {
+        try {
+            return delegate.endMaintenance(vehicleId);
+        }
+        finally {
+            invalidate(vehicleId);
+        }
+    }
+
+    @Override
+    public boolean refreshOilLife(int vehicleId) {
+        try {
+            return delegate.refreshOilLife(vehicleId);
+        }
+        finally {
+            invalidate(vehicleId);
+        }
+    }
+
+    @Override
+    public boolean refreshELRComponents(int vehicleId) {
+        try {
+            return delegate.refreshELRComponents(vehicleId);
+        }
+        finally {
+            invalidate(vehicleId);
+        }
+    }
+
+    @Override
+    public boolean setVehicleStatus(int vehicleId, String vehicleStatus) {
+        try {
+            return delegate.setVehicleStatus(vehicleId, vehicleStatus);
+        }
+        finally {
+            invalidate(vehicleId);
+        }
+    }
+
+    @Override
+    public boolean refuel(VehicleDTO vehicle, MaintenanceDTO refuel) {
+        try {
+            return delegate.refuel(vehicle, refuel);
+        }
+        finally {
+            invalidate(vehicle.getVehicleID());
+        }
+    }
+
+    @Override
+    public boolean addBus(BusDTO bus) {
+        return delegate.addBus(bus);
+    }
+
+    @Override
+    public boolean addDieselTrain(DieselTrainDTO dieselTrain) {
+        return delegate.addDieselTrain(dieselTrain);
+    }
+
+    @Override
+    public boolean addElectricLightRail(ElectricLightRailDTO elrTrain) {
+        return delegate.addElectricLightRail(elrTrain);
+    }
+
+    @Override
+    public List<VehicleDTO> getAllVehicles() {
+        return delegate.getAllVehicles();
+    }
+
+    @Override
+    public List<VehicleDTO> getVehiclesByType(String vehicleType) {
+        return delegate.getVehiclesByType(vehicleType);
+    }
+
+    @Override
+    public List<VehicleDTO> getAllVehiclesDetailed() {
+        return delegate.getAllVehiclesDetailed();
+    }
+
+    @Override
+    public List<VehicleDTO> getVehiclesDetailed(String vehicleType, String vehicleStatus) {
+        return delegate.getVehiclesDetailed(vehicleType, vehicleStatus);
+    }
+
+    @Override
+    public List<RouteDTO> getAllRoutes() {
+        return delegate.getAllRoutes();
+    }
+
+    @Override
+    public RouteDTO getRouteById(int routeId) {
+        return delegate.getRouteById(routeId);
+    }
+
+    @Override
+    public List<StationDTO> getAllStations() {
+        return delegate.getAllStations();
+    }
+
+    @Override
+    public boolean logStationVisit(VehicleStationDTO visit) {
+        return delegate.logStationVisit(visit);
+    }
+
+    @Override
+    public int logStationVisits(List<VehicleStationDTO> visits) {
+        return delegate.logStationVisits(visits);
+    }
+
+    @Override
+    public List<VehicleStationDTO> getStationVisitsByVehicleId(int vehicleId) {
+        return delegate.getStationVisitsByVehicleId(vehicleId);
+    }
+
+    @Override
+    public boolean updateLocation(LocationDTO location) {
+        return delegate.updateLocation(location);
+    }
+
+    @Override
+    public int recordLocations(List<LocationDTO> locations) {
+        return delegate.recordLocations(locations);
+    }
+
+    @Override
+    public List<LocationDTO> getAllVehicleLocations() {
+        return delegate.getAllVehicleLocations();
+    }
+
+    @Override
+    public List<FuelDTO> getFuelReportByVehicleType(String vehicleType) {
+        return delegate.getFuelReportByVehicleType(vehicleType);
+    }
+
+    @Override
+    public boolean completeTrip(TripDTO trip) {
+        return delegate.completeTrip(trip);
+    }
+
+    @Override
+    public List<MaintenanceDTO> getOngoingMaintenanceRequests() {
+        return delegate.getOngoingMaintenanceRequests();
+    }
+
+    /**
+     * Worker method that returns the cached vehicle if a fresh one is held,
+     * recording a hit or a miss.
+     *
+     * @param vehicleId the ID of the vehicle.
+     * @return the cached VehicleDTO, or null on a miss.
+     */
+    private VehicleDTO lookup(int vehicleId) {
+        synchronized(cache) {
+            CacheEntry entry = cache.get(vehicleId);
+            if(entry != null && System.nanoTime() - entry.loadedAt < ttlNanos) {
+                hits.incrementAndGet();
+                return entry.vehicle;
+            }
+            if(entry != null) {
+                cache.remove(vehicleId);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Worker method that returns the eviction generation, to be taken before
+     * reading from the database.
+     *
+     * @return the current generation.
+     */
+    private long currentGeneration() {
+        synchronized(cache) {
+            return generation;
+        }
+    }
+
+    /**
+     * Worker method that caches a vehicle read from the database, unless it
+     * was read inside a UnitOfWork or an eviction happened since the read
+     * started.
+     *
+     * @param vehicle the vehicle to cache, may be null.
+     * @param readGeneration the generation taken before the vehicle was read.
+     */
+    private void store(VehicleDTO vehicle, long readGeneration) {
+        if(vehicle == null || UnitOfWork.isActive()) {
+            return;
+        }
+        CacheEntry entry = new CacheEntry(copy(vehicle), System.nanoTime());
+        synchronized(cache) {
+            if(generation == readGeneration) {
+                cache.put(vehicle.getVehicleID(), entry);
+            }
+        }
+    }
+
+    /**
+     * Worker method that removes one vehicle from the cache and starts a new
+     * generation, so reads already in progress are not cached.
+     *
+     * @param vehicleId the ID of the vehicle.
+     */
+    private void remove(int vehicleId) {
+        synchronized(cache) {
+            generation++;
+            cache.remove(vehicleId);
+        }
+    }
+
+    /**
+     * Worker method that copies a vehicle, keeping its subtype and subtype
+     * specific fields.
+     *
+     * @param source the vehicle to copy.
+     * @return a new VehicleDTO with the same values.
+     */
+    private static VehicleDTO copy(VehicleDTO source) {
+        VehicleDTO target;
+        if(source instanceof BusDTO) {
+            BusDTO bus = new BusDTO();
+            bus.setEmissionRate(((BusDTO) source).getEmissionRate());
+            target = bus;
+        }
+        else if(source instanceof DieselTrainDTO) {
+            DieselTrainDTO train = new DieselTrainDTO();
+            train.setOilStatus(((DieselTrainDTO) source).getOilStatus());
+            target = train;
+        }
+        else if(source instanceof ElectricLightRailDTO) {
+            ElectricLightRailDTO elr = (ElectricLightRailDTO) source;
+            ElectricLightRailDTO elrTrain = new ElectricLightRailDTO();
+            elrTrain.setCatenaryCondition(elr.getCatenaryCondition());
+            elrTrain.setPantographCondition(elr.getPantographCondition());
+            elrTrain.setCircuitBreakerCondition(elr.getCircuitBreakerCondition());
+            target = elrTrain;
+        }
+        else {
+            target = new VehicleDTO();
+        }
+        target.setVehicleID(source.getVehicleID());
+        target.setVehicleName(source.getVehicleName());
+        target.setVehicleType(source.getVehicleType());
+        target.setFuelType(source.getFuelType());
+        target.setConsumptionRate(source.getConsumptionRate());
+        target.setMaxCapacity(source.getMaxCapacity());
+        target.setCurrentRouteID(source.getCurrentRouteID());
+        target.setAxleBearingsCondition(source.getAxleBearingsCondition());
+        target.setBrakesCondition(source.getBrakesCondition());
+        target.setWheelsCondition(source.getWheelsCondition());
+        target.setStatus(source.getStatus());
+        target.setLatitude(source.getLatitude());
+        target.setLongitude(source.getLongitude());
+        target.setFuelLevel(source.getFuelLevel());
+        return target;
+    }
+
+    /**
+     * A cached vehicle and the time it was read from the database.
+     */
+    private static final class CacheEntry {
+        private final VehicleDTO vehicle;
+        private final long loadedAt;
+
+        private CacheEntry(VehicleDTO vehicle, long loadedAt) {
+            this.vehicle = vehicle;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
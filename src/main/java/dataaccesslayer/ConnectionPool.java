@@ -0,0 +1,378 @@
+package dataaccesslayer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * File Name: ConnectionPool.java
+ * Author: Simon Tan, 041161622
+ * Course: CST8288 - Object Oriented Programming with Design Patterns
+ * Section: Lab section 12
+ * Assignment: Final Group Project
+ * Date: October 18th, 2026
+ * Professor: Teddy Yap
+ *
+ * A bounded pool of physical database connections used by DataSource.
+ * Connections handed out by the pool are proxies whose close() method returns
+ * the physical connection to the pool instead of closing it, so the DAOs can
+ * keep using try-with-resources unchanged.
+ *
+ * @author Simon Tan
+ * @version 1.0, 10/18/2026
+ * @see dataaccesslayer
+ * @since JDK 21.0.4
+ */
+class ConnectionPool {
+
+    /**
+     * Logger for pool events.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    /**
+     * JDBC url, username and password of the database.
+     */
+    private final String url;
+    private final String username;
+    private final String password;
+
+    /**
+     * Number of idle connections the pool tries to keep open.
+     */
+    private final int minSize;
+
+    /**
+     * Maximum number of connections that can be open at once.
+     */
+    private final int maxSize;
+
+    /**
+     * Time in milliseconds a connection may sit idle before it is closed.
+     */
+    private final long idleTimeoutMillis;
+
+    /**
+     * Time in milliseconds a caller waits for a free connection.
+     */
+    private final long borrowTimeoutMillis;
+
+    /**
+     * Time in seconds allowed for validating a connection on borrow.
+     */
+    private final int validationTimeoutSeconds;
+
+    /**
+     * Idle connections, most recently returned first.
+     */
+    private final LinkedBlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>();
+
+    /**
+     * One permit per connection that may still be borrowed.
+     */
+    private final Semaphore permits;
+
+    /**
+     * Number of physical connections currently open.
+     */
+    private final AtomicInteger openConnections = new AtomicInteger();
+
+    /**
+     * Background task that evicts idle connections and refills the pool.
+     */
+    private final ScheduledExecutorService housekeeper;
+
+    /**
+     * Set once the pool has been shut down.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool for the given database using the given limits.
+     *
+     * @param url the jdbc url of the database.
+     * @param username the database username.
+     * @param password the database password.
+     * @param minSize the number of idle connections to keep open.
+     * @param maxSize the maximum number of open connections.
+     * @param idleTimeoutMillis how long a connection may stay idle before it is closed.
+     * @param borrowTimeoutMillis how long a caller waits for a free connection.
+     * @param validationTimeoutSeconds the timeout used when validating a connection.
+     */
+    ConnectionPool(String url, String username, String password, int minSize,
+            int maxSize, long idleTimeoutMillis, long borrowTimeoutMillis,
+            int validationTimeoutSeconds) {
+        if(maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min "
+                    + minSize + ", max " + maxSize);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.permits = new Semaphore(maxSize, true);
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        housekeeper.scheduleWithFixedDelay(this::maintain, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, opening a new one if no idle
+     * connection is available. Idle connections are validated before they are
+     * handed out.
+     *
+     * @return a pooled Connection that returns itself to the pool when closed.
+     * @throws SQLException if the pool is closed, no connection becomes
+     * available within the borrow timeout, or a new connection cannot be opened.
+     */
+    Connection borrow() throws SQLException {
+        if(closed) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+        try {
+            if(!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a database connection");
+            }
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            IdleConnection candidate;
+            while((candidate = idle.pollFirst()) != null) {
+                if(isUsable(candidate.connection)) {
+                    return wrap(candidate.connection);
+                }
+                discard(candidate.connection);
+            }
+            return wrap(open());
+        }
+        catch(SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes every idle connection and stops the housekeeping task. Borrowed
+     * connections are closed when they are returned.
+     */
+    void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        IdleConnection candidate;
+        while((candidate = idle.pollFirst()) != null) {
+            discard(candidate.connection);
+        }
+    }
+
+    /**
+     * @return the number of physical connections currently open.
+     */
+    int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    /**
+     * @return the number of idle connections waiting in the pool.
+     */
+    int getIdleConnections() {
+        return idle.size();
+    }
+
+    /**
+     * Returns a physical connection to the pool. Uncommitted work is rolled
+     * back and auto-commit is restored so the next borrower starts clean.
+     *
+     * @param connection the physical connection being returned.
+     */
+    private void release(Connection connection) {
+        try {
+            if(closed || connection.isClosed()) {
+                discard(connection);
+                return;
+            }
+            if(!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            connection.clearWarnings();
+            idle.offerFirst(new IdleConnection(connection, System.currentTimeMillis()));
+        }
+        catch(SQLException e) {
+            LOGGER.log(Level.WARNING, "Discarding connection that could not be reset", e);
+            discard(connection);
+        }
+        finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes connections that have been idle too long and tops the pool back
+     * up to its minimum size. Each refill holds a permit while it opens the
+     * connection, so together with the borrowers it never opens more than
+     * maxSize connections.
+     */
+    private void maintain() {
+        long now = System.currentTimeMillis();
+        Iterator<IdleConnection> iter = idle.descendingIterator();
+        while(iter.hasNext() && idle.size() > minSize) {
+            IdleConnection candidate = iter.next();
+            if(now - candidate.idleSince >= idleTimeoutMillis && idle.remove(candidate)) {
+                discard(candidate.connection);
+            }
+        }
+
+        while(!closed && idle.size() < minSize && openConnections.get() < maxSize
+                && permits.tryAcquire()) {
+            try {
+                idle.offerLast(new IdleConnection(open(), now));
+            }
+            catch(SQLException e) {
+                LOGGER.log(Level.WARNING, "Unable to pre-open pooled connection", e);
+                break;
+            }
+            finally {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Opens a new physical connection.
+     *
+     * @return the new Connection.
+     * @throws SQLException if the connection cannot be opened.
+     */
+    private Connection open() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, username, password);
+        openConnections.incrementAndGet();
+        return connection;
+    }
+
+    /**
+     * Checks whether a connection can still be used.
+     *
+     * @param connection the connection to validate.
+     * @return true if the connection is open and responds, else false.
+     */
+    private boolean isUsable(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(validationTimeoutSeconds);
+        }
+        catch(SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes a physical connection, ignoring any error.
+     *
+     * @param connection the connection to close.
+     */
+    private void discard(Connection connection) {
+        openConnections.decrementAndGet();
+        try {
+            connection.close();
+        }
+        catch(SQLException e) {
+            LOGGER.log(Level.FINE, "Error closing pooled connection", e);
+        }
+    }
+
+    /**
+     * Wraps a physical connection in a proxy whose close() returns it to the pool.
+     *
+     * @param connection the physical connection.
+     * @return the proxy Connection handed to callers.
+     */
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new PooledConnectionHandler(connection));
+    }
+
+    /**
+     * An idle connection and the time it was returned to the pool.
+     */
+    private static final class IdleConnection {
+        private final Connection connection;
+        private final long idleSince;
+
+        private IdleConnection(Connection connection, long idleSince) {
+            this.connection = connection;
+            this.idleSince = idleSince;
+        }
+    }
+
+    /**
+     * Invocation handler behind each borrowed connection. Delegates every call
+     * to the physical connection except close(), which hands the connection
+     * back to the pool exactly once.
+     */
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+        private boolean returned;
+
+        private PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch(method.getName()) {
+                case "close":
+                    if(!returned) {
+                        returned = true;
+                        release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + physical;
+                default:
+                    if(returned) {
+                        throw new SQLException("Connection has been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(physical, args);
+                    }
+                    catch(InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
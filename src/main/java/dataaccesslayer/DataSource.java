@@ -3,7 +3,6 @@ package dataaccesslayer;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
 import java.util.logging.Level;
@@ -20,10 +19,11 @@ import java.util.logging.Logger;
  * 
  * This class creates and provides the connection between the application and
  * the database. Is designed with the singleton design pattern to ensure that
- * only one connection exists at a time.
+ * only one connection pool exists at a time. Connections are borrowed from a
+ * bounded ConnectionPool and go back to it when the caller closes them.
  * 
  * @author Simon Tan
- * @version 1.0, 08/08/2025
+ * @version 1.1, 10/18/2026
  * @see dataaccesslayer
  * @since JDK 21.0.4
  */
@@ -35,58 +35,87 @@ public enum DataSource {
     DATASOURCE;
  
     /**
-     * The Connection to the database.
+     * The pool of connections to the database.
      */
-    private static Connection connection;
+    private static ConnectionPool pool;
   
     /**
-     * Creates and returns a Connection to the database held by this enum. 
+     * Borrows and returns a Connection to the database from the pool held by
+     * this enum. Closing the returned Connection gives it back to the pool.
+     * If a UnitOfWork is open on the calling thread, its shared connection is
+     * returned instead.
      * 
      * @return a Connection to the database.
      * @throws SQLException if there is an error connecting to the database.
      */
-    public static synchronized Connection getConnection() 
-            throws SQLException {
-        
-        if(connection == null || connection.isClosed()) {
+    public static Connection getConnection() throws SQLException {
+        Connection shared = UnitOfWork.currentConnection();
+        if(shared != null) {
+            return shared;
+        }
+        try {
+            return getPool().borrow();
+        }
+        catch(SQLException e) {
+            e.printStackTrace();
+            throw e;
+        }
+    }
+    
+    /**
+     * Closes every idle pooled connection. Should be called when the
+     * application shuts down.
+     */
+    public static synchronized void shutdown() {
+        if(pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+    
+    /**
+     * Private worker method that creates the connection pool on first use
+     * using the settings in database.properties.
+     * 
+     * @return the ConnectionPool held by this enum.
+     */
+    private static synchronized ConnectionPool getPool() {
+        if(pool == null) {
+            Properties props = getProperties();
             try {
-                String[] properties = getProperties();
                 Class.forName("com.mysql.cj.jdbc.Driver");
-                connection = DriverManager.getConnection(properties[0], 
-                                                         properties[1], 
-                                                         properties[2]);
-            }
-            catch(SQLException e) {
-                e.printStackTrace();
-                throw e;
             }
             catch (ClassNotFoundException ex) {
                 Logger.getLogger(DataSource.class.getName()).log(Level.SEVERE, null, ex);
             }
+            pool = new ConnectionPool(props.getProperty("jdbc.url"),
+                    props.getProperty("jdbc.username"),
+                    props.getProperty("jdbc.password"),
+                    Integer.parseInt(props.getProperty("pool.minSize", "2")),
+                    Integer.parseInt(props.getProperty("pool.maxSize", "10")),
+                    Long.parseLong(props.getProperty("pool.idleTimeoutMillis", "300000")),
+                    Long.parseLong(props.getProperty("pool.borrowTimeoutMillis", "5000")),
+                    Integer.parseInt(props.getProperty("pool.validationTimeoutSeconds", "2")));
         }
-        return connection;
+        return pool;
     }
     
     /**
      * Private worker method used to access the database.properties file.
      * 
-     * @return a String array containing the jdbc url, username, and password
-     * information recorded in database.properties.
+     * @return the Properties recorded in database.properties, including the
+     * jdbc url, username, password and connection pool settings.
      */
-    private static String[] getProperties(){
-        String[] properties = new String[3];
+    private static Properties getProperties(){
+        Properties props = new Properties();
         
         try(InputStream input = DataSource.class.getClassLoader().getResourceAsStream("database.properties")){
-            Properties props = new Properties();
             props.load(input);
-            properties[0] = props.getProperty("jdbc.url");
-            properties[1] = props.getProperty("jdbc.username");
-            properties[2] = props.getProperty("jdbc.password");
         }
         catch(IOException e) {
             e.printStackTrace();
         }
         
-        return properties;
+        return props;
     }
 }
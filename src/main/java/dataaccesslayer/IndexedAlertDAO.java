@@ -0,0 +1,500 @@
+package dataaccesslayer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import transferobjects.AlertDTO;
+
+/**
+ * File Name: IndexedAlertDAO.java
+ * Author: Simon Tan, 041161622
+ * Course: CST8288 - Object Oriented Programming with Design Patterns
+ * Section: Lab section 12
+ * Assignment: Final Group Project
+ * Date: October 18th, 2026
+ * Professor: Teddy Yap
+ *
+ * Decorator for an AlertDAO that keeps every alert that has not been resolved
+ * in memory. The alerts are indexed by ID and, newest first, by vehicle, by
+ * type and by status, so the active and open alert lookups are answered
+ * without touching the database. The index is loaded from the database on
+ * first use or by calling rebuild(), and is kept current by addAlert,
+ * updateAlert and deleteAlert. Changes made inside a UnitOfWork are applied
+ * to the index only once the unit of work commits. Resolved alerts are not
+ * indexed, so the lookups that include them still go to the database.
+ * Callers always receive their own copies of indexed alerts.
+ *
+ * @author Simon Tan
+ * @version 1.0, 10/18/2026
+ * @see dataaccesslayer
+ * @since JDK 21.0.4
+ */
+public class IndexedAlertDAO implements AlertDAO {
+
+    /**
+     * Status of alerts that are left out of the index.
+     */
+    private static final String RESOLVED = "RESOLVED";
+
+    /**
+     * Orders alerts newest first, like the ORDER BY Alert_Time DESC queries.
+     */
+    private static final Comparator<AlertDTO> NEWEST_FIRST = Comparator
+            .comparing(AlertDTO::getAlertTime, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(AlertDTO::getAlertID, Comparator.reverseOrder());
+
+    /**
+     * The DAO that reads from and writes to the database.
+     */
+    private final AlertDAO delegate;
+
+    /**
+     * Guards the index maps. Reads share the lock, changes take it exclusively.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Unresolved alerts by ID.
+     */
+    private final Map<Integer, AlertDTO> byId = new HashMap<>();
+
+    /**
+     * Unresolved alerts by vehicle ID, newest first.
+     */
+    private final Map<Integer, NavigableSet<AlertDTO>> byVehicle = new HashMap<>();
+
+    /**
+     * Unresolved alerts by alert type, newest first.
+     */
+    private final Map<String, NavigableSet<AlertDTO>> byType = new HashMap<>();
+
+    /**
+     * Unresolved alerts by status, newest first.
+     */
+    private final Map<String, NavigableSet<AlertDTO>> byStatus = new HashMap<>();
+
+    /**
+     * Whether the index has been loaded from the database.
+     */
+    private volatile boolean loaded;
+
+    /**
+     * Creates an index in front of the given DAO.
+     *
+     * @param delegate the DAO that accesses the database.
+     */
+    public IndexedAlertDAO(AlertDAO delegate) {
+        if(delegate == null) {
+            throw new IllegalArgumentException("AlertDAO cannot be null");
+        }
+        this.delegate = delegate;
+    }
+
+    /**
+     * Reloads every unresolved alert from the database into the index.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            List<AlertDTO> open = delegate.getOpenAlerts();
+            byId.clear();
+            byVehicle.clear();
+            byType.clear();
+            byStatus.clear();
+            for(AlertDTO alert : open) {
+                index(copy(alert));
+            }
+            loaded = true;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of alerts in the index.
+     */
+    public int size() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an alert to the database and, once committed, to the index.
+     *
+     * @param alert an AlertDTO containing the information of an alert.
+     */
+    @Override
+    public void addAlert(AlertDTO alert) {
+        delegate.addAlert(alert);
+        AlertDTO added = copy(alert);
+        UnitOfWork.runAfterCommit(() -> apply(added));
+    }
+
+    /**
+     * Adds many alerts to the database and, once committed, to the index.
+     *
+     * @param alerts a List of AlertDTOs; each receives its generated alert ID.
+     */
+    @Override
+    public void addAlerts(List<AlertDTO> alerts) {
+        delegate.addAlerts(alerts);
+        List<AlertDTO> added = new ArrayList<>(alerts.size());
+        for (AlertDTO alert : alerts) {
+            added.add(copy(alert));
+        }
+        UnitOfWork.runAfterCommit(() -> added.forEach(this::apply));
+    }
+
+    /**
+     * Updates an alert's status in the database and, once committed, in the
+     * index. Resolved alerts leave the index.
+     *
+     * @param alert an AlertDTO containing the new information of an alert.
+     */
+    @Override
+    public void updateAlert(AlertDTO alert) {
+        delegate.updateAlert(alert);
+        int alertID = alert.getAlertID();
+        String status = alert.getStatus();
+        UnitOfWork.runAfterCommit(() -> applyStatus(alertID, status));
+    }
+
+    /**
+     * Changes an alert's status in the database if it still has the expected
+     * status and, once committed, in the index.
+     *
+     * @param alertID an int representing the alert's ID.
+     * @param expectedStatus the status the alert must have.
+     * @param newStatus the status to give it.
+     * @return true if the alert was changed, else false.
+     */
+    @Override
+    public boolean transitionStatus(int alertID, String expectedStatus, String newStatus) {
+        boolean changed = delegate.transitionStatus(alertID, expectedStatus, newStatus);
+        if(changed) {
+            UnitOfWork.runAfterCommit(() -> applyStatus(alertID, newStatus));
+        }
+        return changed;
+    }
+
+    /**
+     * Changes the status of many alerts in the database and, once committed,
+     * in the index.
+     *
+     * @param alertIDs the IDs of the alerts.
+     * @param fromStatuses the statuses an alert may have to be changed.
+     * @param newStatus the status to give them.
+     * @return a List of the changed AlertDTOs, with their new status.
+     */
+    @Override
+    public List<AlertDTO> transitionStatuses(List<Integer> alertIDs, Collection<String> fromStatuses,
+            String newStatus) {
+        List<AlertDTO> changed = delegate.transitionStatuses(alertIDs, fromStatuses, newStatus);
+        List<AlertDTO> copies = new ArrayList<>(changed.size());
+        for(AlertDTO alert : changed) {
+            copies.add(copy(alert));
+        }
+        UnitOfWork.runAfterCommit(() -> copies.forEach(this::apply));
+        return changed;
+    }
+
+    /**
+     * Deletes an alert from the database and, once committed, from the index.
+     *
+     * @param alertID the ID of the alert to delete.
+     */
+    @Override
+    public void deleteAlert(int alertID) {
+        delegate.deleteAlert(alertID);
+        UnitOfWork.runAfterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                unindex(alertID);
+            }
+            finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Returns an alert from the index, or from the database if it is resolved
+     * or not indexed.
+     *
+     * @param alertID the ID of the alert.
+     * @return the AlertDTO, or null if there is no such alert.
+     */
+    @Override
+    public AlertDTO getAlertById(int alertID) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            AlertDTO alert = byId.get(alertID);
+            if(alert != null) {
+                return copy(alert);
+            }
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+        return delegate.getAlertById(alertID);
+    }
+
+    /**
+     * Returns every alert, including resolved ones, from the database.
+     *
+     * @return a List of all AlertDTOs, newest first.
+     */
+    @Override
+    public List<AlertDTO> getAllAlerts() {
+        return delegate.getAllAlerts();
+    }
+
+    /**
+     * Returns every alert of a vehicle, including resolved ones, from the
+     * database.
+     *
+     * @param vehicleID the vehicle's ID.
+     * @return a List of AlertDTOs for the given vehicle, newest first.
+     */
+    @Override
+    public List<AlertDTO> getAlertsByVehicle(int vehicleID) {
+        return delegate.getAlertsByVehicle(vehicleID);
+    }
+
+    /**
+     * Returns every alert of a type, including resolved ones, from the
+     * database.
+     *
+     * @param alertType a String representing the type of alert.
+     * @return a List of AlertDTOs of the given type, newest first.
+     */
+    @Override
+    public List<AlertDTO> getAlertsByType(String alertType) {
+        return delegate.getAlertsByType(alertType);
+    }
+
+    /**
+     * Returns the active alerts from the index.
+     *
+     * @return a List of active AlertDTOs, newest first.
+     */
+    @Override
+    public List<AlertDTO> getActiveAlerts() {
+        return getOpenAlertsByStatus("ACTIVE");
+    }
+
+    /**
+     * Returns every unresolved alert from the index.
+     *
+     * @return a List of unresolved AlertDTOs, newest first.
+     */
+    @Override
+    public List<AlertDTO> getOpenAlerts() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            List<AlertDTO> alerts = new ArrayList<>(byId.size());
+            for(AlertDTO alert : byId.values()) {
+                alerts.add(copy(alert));
+            }
+            alerts.sort(NEWEST_FIRST);
+            return alerts;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the unresolved alerts of a vehicle from the index.
+     *
+     * @param vehicleID the vehicle's ID.
+     * @return a List of unresolved AlertDTOs for the vehicle, newest first.
+     */
+    @Override
+    public List<AlertDTO> getOpenAlertsByVehicle(int vehicleID) {
+        return lookup(byVehicle, vehicleID);
+    }
+
+    /**
+     * Returns the unresolved alerts of a type from the index.
+     *
+     * @param alertType a String representing the type of alert.
+     * @return a List of unresolved AlertDTOs of the type, newest first.
+     */
+    @Override
+    public List<AlertDTO> getOpenAlertsByType(String alertType) {
+        return lookup(byType, alertType);
+    }
+
+    /**
+     * Returns the unresolved alerts with a status from the index.
+     *
+     * @param status the status, for example ACTIVE or ACKNOWLEDGED.
+     * @return a List of AlertDTOs with the status, newest first.
+     */
+    public List<AlertDTO> getOpenAlertsByStatus(String status) {
+        return lookup(byStatus, status);
+    }
+
+    /**
+     * Loads the index on first use.
+     */
+    private void ensureLoaded() {
+        if(!loaded) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Copies the alerts stored under a key of a secondary index.
+     *
+     * @param index the secondary index.
+     * @param key the key to look up.
+     * @return a List of copies, newest first.
+     */
+    private <K> List<AlertDTO> lookup(Map<K, NavigableSet<AlertDTO>> index, K key) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            NavigableSet<AlertDTO> alerts = index.get(key);
+            if(alerts == null) {
+                return new ArrayList<>();
+            }
+            List<AlertDTO> copies = new ArrayList<>(alerts.size());
+            for(AlertDTO alert : alerts) {
+                copies.add(copy(alert));
+            }
+            return copies;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Puts a new or changed alert into the index, or removes it if resolved.
+     *
+     * @param alert the alert as stored in the database.
+     */
+    private void apply(AlertDTO alert) {
+        lock.writeLock().lock();
+        try {
+            // Not loaded yet: the first rebuild reads the change from the database
+            if(!loaded) {
+                return;
+            }
+            unindex(alert.getAlertID());
+            if(!RESOLVED.equals(alert.getStatus())) {
+                index(alert);
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Changes the status of an indexed alert. An alert that is not indexed
+     * and is no longer resolved is read back from the database.
+     *
+     * @param alertID the ID of the alert.
+     * @param status its new status.
+     */
+    private void applyStatus(int alertID, String status) {
+        AlertDTO changed;
+        lock.readLock().lock();
+        try {
+            if(!loaded) {
+                return;
+            }
+            AlertDTO current = byId.get(alertID);
+            changed = current == null ? null : copy(current);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+        if(changed == null) {
+            if(RESOLVED.equals(status)) {
+                return;
+            }
+            changed = delegate.getAlertById(alertID);
+            if(changed == null) {
+                return;
+            }
+        }
+        changed.setStatus(status);
+        apply(changed);
+    }
+
+    /**
+     * Adds an alert to the ID map and every secondary index. Must be called
+     * with the write lock held.
+     *
+     * @param alert the alert to add.
+     */
+    private void index(AlertDTO alert) {
+        byId.put(alert.getAlertID(), alert);
+        byVehicle.computeIfAbsent(alert.getVehicleID(), key -> new TreeSet<>(NEWEST_FIRST)).add(alert);
+        if(alert.getAlertType() != null) {
+            byType.computeIfAbsent(alert.getAlertType(), key -> new TreeSet<>(NEWEST_FIRST)).add(alert);
+        }
+        if(alert.getStatus() != null) {
+            byStatus.computeIfAbsent(alert.getStatus(), key -> new TreeSet<>(NEWEST_FIRST)).add(alert);
+        }
+    }
+
+    /**
+     * Removes an alert from the ID map and every secondary index. Must be
+     * called with the write lock held.
+     *
+     * @param alertID the ID of the alert to remove.
+     */
+    private void unindex(int alertID) {
+        AlertDTO alert = byId.remove(alertID);
+        if(alert == null) {
+            return;
+        }
+        remove(byVehicle, alert.getVehicleID(), alert);
+        remove(byType, alert.getAlertType(), alert);
+        remove(byStatus, alert.getStatus(), alert);
+    }
+
+    private static <K> void remove(Map<K, NavigableSet<AlertDTO>> index, K key, AlertDTO alert) {
+        NavigableSet<AlertDTO> alerts = key == null ? null : index.get(key);
+        if(alerts != null) {
+            alerts.remove(alert);
+            if(alerts.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Copies an alert so callers never share the indexed instance.
+     *
+     * @param alert the alert to copy.
+     * @return a new AlertDTO with the same values.
+     */
+    private static AlertDTO copy(AlertDTO alert) {
+        AlertDTO copy = new AlertDTO(alert.getAlertID(), alert.getVehicleID(), alert.getStatus(),
+                alert.getAlertType(), alert.getAlertReason(), alert.getAlertTime());
+        copy.setRuleGroup(alert.getRuleGroup());
+        return copy;
+    }
+}
@@ -0,0 +1,370 @@
+package dataaccesslayer;
+
+import java.sql.SQLDataException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import transferobjects.LocationDTO;
+
+/**
+ * File Name: LocationIngestor.java
+ * Author: Simon Tan, 041161622
+ * Course: CST8288 - Object Oriented Programming with Design Patterns
+ * Section: Lab section 12
+ * Assignment: Final Group Project
+ * Date: October 18th, 2026
+ * Professor: Teddy Yap
+ *
+ * Buffers vehicle location pings and writes them to the database in large
+ * batches. Pings are spread over a fixed number of stripes by vehicle ID, each
+ * with its own lock, so vehicles reporting at the same time rarely wait for
+ * each other, and all pings of one vehicle stay in order.
+ * <p>
+ * A flusher thread writes everything buffered with VehicleDAO.recordLocations
+ * once the buffer reaches the batch size or the maximum delay has passed,
+ * whichever comes first. When the buffer reaches its capacity the caller
+ * flushes it itself.
+ * <p>
+ * A batch rejected because of its data, such as a ping for a vehicle that no
+ * longer exists, is split in halves and each half written again, until the
+ * rejected pings are isolated; only those are dropped and counted. A batch
+ * that fails for any other reason, such as the database being unavailable, is
+ * kept and written again with the next flush. At most capacity pings are kept
+ * for retrying; beyond that the oldest are dropped and counted.
+ *
+ * @author Simon Tan
+ * @version 1.0, 10/18/2026
+ * @see dataaccesslayer
+ * @since JDK 21.0.4
+ */
+public class LocationIngestor implements AutoCloseable {
+
+    /**
+     * Default number of stripes.
+     */
+    public static final int DEFAULT_STRIPES = 16;
+
+    /**
+     * Default number of buffered pings that triggers a flush.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 2_000;
+
+    /**
+     * Default number of buffered pings at which callers flush themselves.
+     */
+    public static final int DEFAULT_CAPACITY = 50_000;
+
+    /**
+     * Default longest time in milliseconds between flushes.
+     */
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 1_000;
+
+    /**
+     * The DAO the batches are written through.
+     */
+    private final VehicleDAO target;
+
+    private final Stripe[] stripes;
+    private final int batchSize;
+    private final int capacity;
+    private final long maxDelayNanos;
+    private final Thread flusher;
+
+    /**
+     * Held while a batch is gathered and written, so batches reach the
+     * database in the order they were taken.
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * Pings of earlier batches that failed for reasons other than their data,
+     * oldest first. Guarded by flushLock.
+     */
+    private List<LocationDTO> retry = new ArrayList<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger retrying = new AtomicInteger();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong locationsWritten = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a LocationIngestor with the default settings.
+     *
+     * @param target the DAO the locations are written through.
+     */
+    public LocationIngestor(VehicleDAO target) {
+        this(target, DEFAULT_STRIPES, DEFAULT_BATCH_SIZE, DEFAULT_CAPACITY, DEFAULT_MAX_DELAY_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Constructs a LocationIngestor and starts its flusher thread.
+     *
+     * @param target the DAO the locations are written through.
+     * @param stripeCount the number of stripes.
+     * @param batchSize the number of buffered pings that triggers a flush.
+     * @param capacity the number of buffered pings at which callers flush
+     * themselves.
+     * @param maxDelay the longest time between flushes.
+     * @param unit the unit of maxDelay.
+     * @throws IllegalArgumentException if target is null, a limit is not
+     * positive or capacity is smaller than batchSize.
+     */
+    public LocationIngestor(VehicleDAO target, int stripeCount, int batchSize, int capacity, long maxDelay,
+            TimeUnit unit) {
+        if(target == null || stripeCount <= 0 || batchSize <= 0 || capacity < batchSize || maxDelay <= 0) {
+            throw new IllegalArgumentException("Invalid ingestion settings");
+        }
+        this.target = target;
+        this.stripes = new Stripe[stripeCount];
+        for(int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.flusher = new Thread(this::run, "location-ingestor");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Buffers a location ping.
+     *
+     * @param location the ping; its updated time must be set.
+     */
+    public void submit(LocationDTO location) {
+        Stripe stripe = stripeFor(location.getVehicleId());
+        int depth;
+        synchronized(stripe) {
+            stripe.pending.add(location);
+            depth = queued.incrementAndGet();
+        }
+        if(!running || depth >= capacity) {
+            flush();
+        }
+        else if(depth >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    /**
+     * Writes everything buffered, together with the pings kept from failed
+     * batches, as one batch.
+     *
+     * @return the number of pings taken from the buffer.
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            List<LocationDTO> batch = new ArrayList<>(Math.max(queued.get() + retry.size(), 16));
+            batch.addAll(retry);
+            int taken = 0;
+            for(Stripe stripe : stripes) {
+                List<LocationDTO> drained;
+                synchronized(stripe) {
+                    if(stripe.pending.isEmpty()) {
+                        continue;
+                    }
+                    drained = stripe.pending;
+                    stripe.pending = new ArrayList<>();
+                    queued.addAndGet(-drained.size());
+                }
+                batch.addAll(drained);
+                taken += drained.size();
+            }
+            if(batch.isEmpty()) {
+                return 0;
+            }
+            List<LocationDTO> failed = new ArrayList<>();
+            long start = System.nanoTime();
+            write(batch, failed);
+            recordLatency(System.nanoTime() - start);
+            if(failed.size() > capacity) {
+                int dropped = failed.size() - capacity;
+                failedCount.addAndGet(dropped);
+                System.err.println("Dropped " + dropped + " locations waiting to be written again");
+                failed = new ArrayList<>(failed.subList(dropped, failed.size()));
+            }
+            retry = failed;
+            retrying.set(failed.size());
+            return taken;
+        }
+        finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of pings waiting to be written.
+     */
+    public int getQueueDepth() {
+        return queued.get() + retrying.get();
+    }
+
+    /**
+     * @return the number of batches written or attempted.
+     */
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    /**
+     * @return the number of pings written.
+     */
+    public long getLocationsWritten() {
+        return locationsWritten.get();
+    }
+
+    /**
+     * @return the number of pings dropped because the database rejected them
+     * or too many were waiting to be written again.
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return how long the last batch took to write, in milliseconds.
+     */
+    public double getLastFlushMillis() {
+        return lastFlushNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * @return how long the slowest batch took to write, in milliseconds.
+     */
+    public double getMaxFlushMillis() {
+        return maxFlushNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * @return how long a batch took to write on average, in milliseconds.
+     */
+    public double getAverageFlushMillis() {
+        long flushes = flushCount.get();
+        return flushes == 0 ? 0 : totalFlushNanos.get() / 1_000_000.0 / flushes;
+    }
+
+    /**
+     * Stops the flusher thread after it has written everything buffered.
+     * Pings submitted afterwards are written on the caller's thread.
+     *
+     * @param timeout how long to wait for the buffer to be written.
+     * @param unit the unit of timeout.
+     * @return true if everything was written in time, else false.
+     */
+    public boolean close(long timeout, TimeUnit unit) {
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(unit.toMillis(timeout));
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !flusher.isAlive();
+    }
+
+    /**
+     * Stops the ingestor, waiting up to five seconds for the buffer to be
+     * written.
+     */
+    @Override
+    public void close() {
+        close(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Flusher loop: sleeps until the maximum delay has passed or a caller
+     * signals a full batch, then writes the buffer. Writes it once more after
+     * close.
+     */
+    private void run() {
+        while(running) {
+            LockSupport.parkNanos(this, maxDelayNanos);
+            if(Thread.interrupted()) {
+                running = false;
+            }
+            flush();
+        }
+        flush();
+    }
+
+    /**
+     * Writes a batch with one call to recordLocations. If the database rejects
+     * its data, each half is written on its own so one bad ping does not lose
+     * the others; a single rejected ping is dropped. If the batch fails for
+     * any other reason it is added to failed to be written again.
+     *
+     * @param batch the pings to write.
+     * @param failed collects the pings to write again with the next flush.
+     */
+    private void write(List<LocationDTO> batch, List<LocationDTO> failed) {
+        try {
+            target.recordLocations(batch);
+            locationsWritten.addAndGet(batch.size());
+        }
+        catch(RuntimeException e) {
+            if(!isRejected(e)) {
+                failed.addAll(batch);
+                System.err.println("Failed to write " + batch.size() + " locations, will retry: " + e.getMessage());
+            }
+            else if(batch.size() == 1) {
+                failedCount.incrementAndGet();
+                System.err.println("Dropped location of vehicle " + batch.get(0).getVehicleId() + ": "
+                        + e.getMessage());
+            }
+            else {
+                int half = batch.size() / 2;
+                write(batch.subList(0, half), failed);
+                write(batch.subList(half, batch.size()), failed);
+            }
+        }
+    }
+
+    /**
+     * Worker method that tells whether a failure was caused by the data
+     * written rather than by the database or the connection.
+     *
+     * @param e the failure.
+     * @return true if the database rejected the data, else false.
+     */
+    private static boolean isRejected(Throwable e) {
+        for(Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if(cause instanceof SQLIntegrityConstraintViolationException || cause instanceof SQLDataException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void recordLatency(long nanos) {
+        flushCount.incrementAndGet();
+        lastFlushNanos.set(nanos);
+        totalFlushNanos.addAndGet(nanos);
+        maxFlushNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private Stripe stripeFor(int vehicleId) {
+        return stripes[Math.floorMod(vehicleId, stripes.length)];
+    }
+
+    /**
+     * The pings of the vehicles mapped to one stripe that are waiting to be
+     * written. Guarded by the stripe's own monitor.
+     */
+    private static final class Stripe {
+        private List<LocationDTO> pending = new ArrayList<>();
+    }
+}
@@ -0,0 +1,203 @@
+package dataaccesslayer;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import transferobjects.AlertDTO;
+
+/**
+ * File Name: OutboxAlertDAO.java
+ * Author: Simon Tan, 041161622
+ * Course: CST8288 - Object Oriented Programming with Design Patterns
+ * Section: Lab section 12
+ * Assignment: Final Group Project
+ * Date: October 18th, 2026
+ * Professor: Teddy Yap
+ *
+ * Decorator for an AlertDAO that records every new alert and every status
+ * change in the alert outbox, in the same UnitOfWork as the change itself.
+ * Either both the change and its outbox entry are committed or neither is,
+ * so a change can never be saved without being announced later, even if the
+ * application stops straight after. Reads go straight to the wrapped DAO.
+ *
+ * @author Simon Tan
+ * @version 1.0, 10/18/2026
+ * @see dataaccesslayer
+ * @see AlertOutboxDAO
+ * @since JDK 21.0.4
+ */
+public class OutboxAlertDAO implements AlertDAO {
+
+    /**
+     * The DAO that reads from and writes to the Alert table.
+     */
+    private final AlertDAO delegate;
+
+    /**
+     * The DAO that writes the outbox entries.
+     */
+    private final AlertOutboxDAO outbox;
+
+    /**
+     * Constructs an OutboxAlertDAO.
+     *
+     * @param delegate the DAO that reads from and writes to the Alert table.
+     * @param outbox the DAO that writes the outbox entries.
+     */
+    public OutboxAlertDAO(AlertDAO delegate, AlertOutboxDAO outbox) {
+        this.delegate = delegate;
+        this.outbox = outbox;
+    }
+
+    /**
+     * Adds an alert and its outbox entry in one transaction.
+     *
+     * @param alert an AlertDTO containing the information of an alert.
+     */
+    @Override
+    public void addAlert(AlertDTO alert) {
+        try(UnitOfWork work = UnitOfWork.begin()) {
+            delegate.addAlert(alert);
+            outbox.append(Collections.singletonList(alert));
+            work.commit();
+        }
+        catch(SQLException e) {
+            throw new RuntimeException("Failed to add alert", e);
+        }
+    }
+
+    /**
+     * Adds many alerts and their outbox entries in one transaction.
+     *
+     * @param alerts a List of AlertDTOs; each receives its generated alert ID.
+     */
+    @Override
+    public void addAlerts(List<AlertDTO> alerts) {
+        try(UnitOfWork work = UnitOfWork.begin()) {
+            delegate.addAlerts(alerts);
+            outbox.append(alerts);
+            work.commit();
+        }
+        catch(SQLException e) {
+            throw new RuntimeException("Failed to add alerts", e);
+        }
+    }
+
+    /**
+     * Updates an alert and adds its outbox entry in one transaction.
+     *
+     * @param alert an AlertDTO containing the new information of an alert.
+     */
+    @Override
+    public void updateAlert(AlertDTO alert) {
+        try(UnitOfWork work = UnitOfWork.begin()) {
+            delegate.updateAlert(alert);
+            outbox.append(Collections.singletonList(alert));
+            work.commit();
+        }
+        catch(SQLException e) {
+            throw new RuntimeException("Failed to update alert", e);
+        }
+    }
+
+    /**
+     * Changes an alert's status if it still has the expected status and, if
+     * it changed, adds its outbox entry in the same transaction.
+     *
+     * @param alertID an int representing the alert's ID.
+     * @param expectedStatus the status the alert must have.
+     * @param newStatus the status to give it.
+     * @return true if the alert was changed, else false.
+     */
+    @Override
+    public boolean transitionStatus(int alertID, String expectedStatus, String newStatus) {
+        try(UnitOfWork work = UnitOfWork.begin()) {
+            if(!delegate.transitionStatus(alertID, expectedStatus, newStatus)) {
+                return false;
+            }
+            AlertDTO changed = delegate.getAlertById(alertID);
+            if(changed != null) {
+                outbox.append(Collections.singletonList(changed));
+            }
+            work.commit();
+            return true;
+        }
+        catch(SQLException e) {
+            throw new RuntimeException("Failed to change alert status", e);
+        }
+    }
+
+    /**
+     * Changes the status of many alerts and adds an outbox entry for each
+     * one changed, in one transaction.
+     *
+     * @param alertIDs the IDs of the alerts.
+     * @param fromStatuses the statuses an alert may have to be changed.
+     * @param newStatus the status to give them.
+     * @return a List of the changed AlertDTOs, with their new status.
+     */
+    @Override
+    public List<AlertDTO> transitionStatuses(List<Integer> alertIDs, Collection<String> fromStatuses,
+            String newStatus) {
+        try(UnitOfWork work = UnitOfWork.begin()) {
+            List<AlertDTO> changed = delegate.transitionStatuses(alertIDs, fromStatuses, newStatus);
+            outbox.append(changed);
+            work.commit();
+            return changed;
+        }
+        catch(SQLException e) {
+            throw new RuntimeException("Failed to change alert statuses", e);
+        }
+    }
+
+    /**
+     * Deletes an alert. Deletions are not announced.
+     *
+     * @param alertID the ID of the alert to delete.
+     */
+    @Override
+    public void deleteAlert(int alertID) {
+        delegate.deleteAlert(alertID);
+    }
+
+    @Override
+    public AlertDTO getAlertById(int alertID) {
+        return delegate.getAlertById(alertID);
+    }
+
+    @Override
+    public List<AlertDTO> getAllAlerts() {
+        return delegate.getAllAlerts();
+    }
+
+    @Override
+    public List<AlertDTO> getAlertsByVehicle(int vehicleID) {
+        return delegate.getAlertsByVehicle(vehicleID);
+    }
+
+    @Override
+    public List<AlertDTO> getActiveAlerts() {
+        return delegate.getActiveAlerts();
+    }
+
+    @Override
+    public List<AlertDTO> getAlertsByType(String alertType) {
+        return delegate.getAlertsByType(alertType);
+    }
+
+    @Override
+    public List<AlertDTO> getOpenAlerts() {
+        return delegate.getOpenAlerts();
+    }
+
+    @Override
+    public List<AlertDTO> getOpenAlertsByVehicle(int vehicleID) {
+        return delegate.getOpenAlertsByVehicle(vehicleID);
+    }
+
+    @Override
+    public List<AlertDTO> getOpenAlertsByType(String alertType) {
+        return delegate.getOpenAlertsByType(alertType);
+    }
+}
@@ -0,0 +1,319 @@
+package dataaccesslayer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * File Name: UnitOfWork.java
+ * Author: Simon Tan, 041161622
+ * Course: CST8288 - Object Oriented Programming with Design Patterns
+ * Section: Lab section 12
+ * Assignment: Final Group Project
+ * Date: October 18th, 2026
+ * Professor: Teddy Yap
+ *
+ * A database transaction that spans several DAO calls. While a unit of work
+ * is open on the current thread, DataSource.getConnection() hands every DAO
+ * the same connection, and the commits, rollbacks and closes issued by the
+ * DAOs are deferred until the business layer commits or closes the unit of
+ * work. Opening a unit of work while one is already open joins the outer one.
+ * A nested caller that closes without committing its part marks the whole
+ * unit of work for rollback.
+ *
+ * <pre>
+ * try(UnitOfWork work = UnitOfWork.begin()) {
+ *     vehicleDao.updateVehicle(vehicle);
+ *     vehicleDao.completeTrip(trip);
+ *     work.commit();
+ * }
+ * </pre>
+ *
+ * @author Simon Tan
+ * @version 1.0, 10/18/2026
+ * @see dataaccesslayer
+ * @since JDK 21.0.4
+ */
+public final class UnitOfWork implements AutoCloseable {
+
+    /**
+     * The unit of work open on each thread, if any.
+     */
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The pooled connection used by every DAO call in this unit of work.
+     */
+    private final Connection connection;
+
+    /**
+     * The connection handed to DAOs. Transaction control calls on it are
+     * absorbed by the unit of work.
+     */
+    private final Connection participant;
+
+    /**
+     * Number of begin() calls that joined this unit of work and have not been
+     * closed yet.
+     */
+    private int depth;
+
+    /**
+     * Set when a DAO or a nested caller asked for a rollback.
+     */
+    private boolean rollbackOnly;
+
+    /**
+     * The nesting levels whose caller has committed its part but not yet
+     * closed.
+     */
+    private final BitSet confirmed = new BitSet();
+
+    /**
+     * Set once the outermost caller has committed.
+     */
+    private boolean committed;
+
+    /**
+     * Tasks to run once the unit of work has been committed or rolled back.
+     */
+    private final List<Runnable> completionTasks = new ArrayList<>();
+
+    /**
+     * Tasks to run only if the unit of work is committed.
+     */
+    private final List<Runnable> commitTasks = new ArrayList<>();
+
+    /**
+     * Tasks to run only if the unit of work is rolled back.
+     */
+    private final List<Runnable> rollbackTasks = new ArrayList<>();
+
+    /**
+     * Creates a unit of work around a freshly borrowed connection.
+     *
+     * @param connection the pooled connection to use.
+     * @throws SQLException if auto-commit cannot be turned off.
+     */
+    private UnitOfWork(Connection connection) throws SQLException {
+        this.connection = connection;
+        this.connection.setAutoCommit(false);
+        this.participant = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new ParticipantHandler());
+    }
+
+    /**
+     * Opens a unit of work on the current thread, or joins the one that is
+     * already open.
+     *
+     * @return the UnitOfWork to commit and close.
+     * @throws SQLException if no connection can be obtained or prepared.
+     */
+    public static UnitOfWork begin() throws SQLException {
+        UnitOfWork work = CURRENT.get();
+        if(work == null) {
+            Connection connection = DataSource.getConnection();
+            try {
+                work = new UnitOfWork(connection);
+            }
+            catch(SQLException | RuntimeException e) {
+                try {
+                    connection.close();
+                }
+                catch(SQLException closeFailure) {
+                    e.addSuppressed(closeFailure);
+                }
+                throw e;
+            }
+            CURRENT.set(work);
+        }
+        work.depth++;
+        return work;
+    }
+
+    /**
+     * @return true if a unit of work is open on the current thread, else false.
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Runs a task once the unit of work open on the current thread has been
+     * committed or rolled back, or immediately if none is open. Used to keep
+     * in-memory state such as caches in step with what is actually in the
+     * database.
+     *
+     * @param task the task to run.
+     */
+    public static void runAfterCompletion(Runnable task) {
+        UnitOfWork work = CURRENT.get();
+        if(work == null) {
+            task.run();
+        }
+        else {
+            work.completionTasks.add(task);
+        }
+    }
+
+    /**
+     * Runs a task once the unit of work open on the current thread has been
+     * committed, or immediately if none is open. The task is discarded if the
+     * unit of work is rolled back. Used to publish events only for changes
+     * that actually reached the database.
+     *
+     * @param task the task to run.
+     */
+    public static void runAfterCommit(Runnable task) {
+        UnitOfWork work = CURRENT.get();
+        if(work == null) {
+            task.run();
+        }
+        else {
+            work.commitTasks.add(task);
+        }
+    }
+
+    /**
+     * Runs a task if the unit of work open on the current thread is rolled
+     * back. The task is discarded if it is committed or if none is open. Used
+     * to undo in-memory state recorded for changes that never reached the
+     * database.
+     *
+     * @param task the task to run.
+     */
+    public static void runAfterRollback(Runnable task) {
+        UnitOfWork work = CURRENT.get();
+        if(work != null) {
+            work.rollbackTasks.add(task);
+        }
+    }
+
+    /**
+     * Returns the connection DAOs should use when a unit of work is open on
+     * the current thread.
+     *
+     * @return the shared Connection, or null if no unit of work is open.
+     */
+    static Connection currentConnection() {
+        UnitOfWork work = CURRENT.get();
+        return work == null ? null : work.participant;
+    }
+
+    /**
+     * Commits the work done so far. Only the outermost caller actually commits;
+     * nested callers just confirm their part. If a DAO asked for a rollback
+     * the whole unit of work is rolled back instead.
+     *
+     * @throws SQLException if the unit of work was marked for rollback or the
+     * commit fails.
+     */
+    public void commit() throws SQLException {
+        if(rollbackOnly) {
+            throw new SQLException("Unit of work was marked for rollback");
+        }
+        if(depth == 1) {
+            connection.commit();
+            committed = true;
+        }
+        else {
+            confirmed.set(depth);
+        }
+    }
+
+    /**
+     * Marks the unit of work so that it is rolled back when it is closed.
+     */
+    public void setRollbackOnly() {
+        rollbackOnly = true;
+    }
+
+    /**
+     * Ends this caller's part of the unit of work. A nested caller that has
+     * not committed marks the unit of work for rollback, so the outer commit
+     * cannot persist its partial work. When the outermost caller closes it,
+     * uncommitted work is rolled back and the connection goes back to the
+     * pool.
+     */
+    @Override
+    public void close() {
+        if(depth > 1 && !confirmed.get(depth)) {
+            rollbackOnly = true;
+        }
+        confirmed.clear(depth);
+        if(--depth > 0) {
+            return;
+        }
+        CURRENT.remove();
+        try {
+            if(!committed) {
+                connection.rollback();
+            }
+        }
+        catch(SQLException e) {
+            e.printStackTrace();
+        }
+        finally {
+            try {
+                connection.close();
+            }
+            catch(SQLException e) {
+                e.printStackTrace();
+            }
+            for(Runnable task : completionTasks) {
+                task.run();
+            }
+            for(Runnable task : committed ? commitTasks : rollbackTasks) {
+                task.run();
+            }
+        }
+    }
+
+    /**
+     * Invocation handler for the connection handed to DAOs. Closing it, turning
+     * auto-commit on or off, and committing are ignored because the unit of
+     * work owns the transaction. A rollback marks the unit of work for rollback.
+     */
+    private final class ParticipantHandler implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch(method.getName()) {
+                case "close":
+                case "setAutoCommit":
+                case "commit":
+                    return null;
+                case "rollback":
+                    if(args == null) {
+                        rollbackOnly = true;
+                        return null;
+                    }
+                    break;
+                case "getAutoCommit":
+                    return false;
+                case "isClosed":
+                    return CURRENT.get() != UnitOfWork.this || connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(connection, args);
+            }
+            catch(InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
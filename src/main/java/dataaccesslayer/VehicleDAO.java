@@ -1,7 +1,9 @@
 package dataaccesslayer;
 
 import transferobjects.FuelDTO;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import transferobjects.VehicleDTO;
 import transferobjects.BusDTO;
 import transferobjects.DieselTrainDTO;
@@ -108,10 +110,42 @@ public interface VehicleDAO {
      */
     List<VehicleDTO> getVehiclesByType(String vehicleType);
     
+    /**
+     * Defines a method to get every vehicle with its subtype details in a 
+     * single query.
+     * 
+     * @return a List of BusDTOs, DieselTrainDTOs and ElectricLightRailDTOs for
+     * the whole fleet.
+     */
+    List<VehicleDTO> getAllVehiclesDetailed();
+    
+    /**
+     * Defines a method to get every vehicle of a given vehicle type and/or 
+     * status with its subtype details in a single query.
+     * 
+     * @param vehicleType a String representing the desired vehicle type, or 
+     * null for all types.
+     * @param vehicleStatus a String representing the desired vehicle status, or
+     * null for all statuses.
+     * @return a List of typed VehicleDTOs matching the given filters.
+     */
+    List<VehicleDTO> getVehiclesDetailed(String vehicleType, String vehicleStatus);
+    
+    /**
+     * Defines a method to retrieve the typed information of several vehicles
+     * given their vehicle IDs.
+     * 
+     * @param vehicleIds a Collection of vehicle IDs. Duplicates are ignored.
+     * @return a Map of typed VehicleDTOs keyed by vehicle ID. IDs that do not
+     * exist are left out of the map.
+     */
+    Map<Integer, VehicleDTO> getVehiclesByIds(Collection<Integer> vehicleIds);
+    
     /**
      * Defines a method to retrieve a list of all routes in the database.
      * 
      * @return a List of RouteDTOs containing the information of all routes.
+     * @throws RuntimeException if the routes could not be read.
      */
     List<RouteDTO> getAllRoutes();
     
@@ -128,6 +162,7 @@ public interface VehicleDAO {
      * Defines a method to retrieve all station information from the database.
      * 
      * @return a List of StationDTOs containing the information of all stations.
+     * @throws RuntimeException if the stations could not be read.
      */
     List<StationDTO> getAllStations();
     
@@ -140,6 +175,15 @@ public interface VehicleDAO {
      */
     boolean logStationVisit(VehicleStationDTO visit);
     
+    /**
+     * Defines a method to record many station visits at once.
+     * 
+     * @param visits a List of VehicleStationDTOs containing the information
+     * of each visit.
+     * @return the number of visits recorded.
+     */
+    int logStationVisits(List<VehicleStationDTO> visits);
+    
     /**
      * Defines a method to get the history of station visits for a given
      * vehicle.
@@ -191,9 +235,21 @@ public interface VehicleDAO {
     boolean updateLocation(LocationDTO location);
     
     /**
-     * Defines a method to get all vehicle locations from the database.
+     * Defines a method to record many location updates at once. Every
+     * location is added to the history, and the latest of each vehicle's
+     * locations becomes its current one.
+     * 
+     * @param locations a List of LocationDTOs, in the order they were received.
+     * @return the number of locations recorded.
+     */
+    int recordLocations(List<LocationDTO> locations);
+    
+    /**
+     * Defines a method to get the current location of every vehicle from the
+     * database.
      * 
      * @return a List of LocationDTOs containing the location data from the database.
+     * @throws RuntimeException if the locations could not be read.
      */
     List<LocationDTO> getAllVehicleLocations();
     
@@ -11,6 +11,11 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import transferobjects.RouteDTO;
 import transferobjects.StationDTO;
 import constants.VehicleType;
@@ -40,6 +45,50 @@ import transferobjects.VehicleStationDTO;
  */
 public class VehicleDAOImpl implements VehicleDAO {
     
+    /**
+     * Most rows sent in one JDBC batch or upsert by recordLocations and
+     * logStationVisits. The jdbc url sets rewriteBatchedStatements, so the
+     * driver sends each batch as multi-row inserts rather than row by row.
+     */
+    private static final int LOCATION_BATCH_SIZE = 500;
+    
+    /**
+     * Start of the upsert into Location_Current, followed by the rows.
+     */
+    private static final String CURRENT_LOCATION_INSERT = "INSERT INTO Location_Current "
+            + "(Vehicle_ID, Latitude, Longitude, Updated) VALUES ";
+    
+    /**
+     * End of the upsert into Location_Current. A row only moves forward in
+     * time, so a late or replayed location never replaces a newer one.
+     * Updated is assigned last so the comparisons see its old value.
+     */
+    private static final String CURRENT_LOCATION_UPDATE = " ON DUPLICATE KEY UPDATE "
+            + "Latitude = IF(VALUES(Updated) >= Updated, VALUES(Latitude), Latitude), "
+            + "Longitude = IF(VALUES(Updated) >= Updated, VALUES(Longitude), Longitude), "
+            + "Updated = GREATEST(Updated, VALUES(Updated))";
+    
+    /**
+     * Selects every vehicle column together with the columns of whichever 
+     * subtype table the vehicle belongs to, so a fully typed vehicle can be 
+     * built from a single row.
+     */
+    private static final String DETAILED_VEHICLE_QUERY = "SELECT VEHICLE.Vehicle_ID, "
+            + "VEHICLE.Vehicle_Name, VEHICLE.Vehicle_Type, VEHICLE.Max_capacity, "
+            + "VEHICLE.Current_Route_ID, VEHICLE.axle_bearings, VEHICLE.fuel_type, "
+            + "VEHICLE.consumption_rate, VEHICLE.Status, VEHICLE.Wheels, VEHICLE.Brakes, "
+            + "VEHICLE.Fuel_level, BUSES.Emission_rate, DIESEL_TRAIN.Oil_life, "
+            + "ELECTRIC_LIGHT_RAIL.Catenary, ELECTRIC_LIGHT_RAIL.Pantograph, "
+            + "ELECTRIC_LIGHT_RAIL.Circuit_breaker FROM VEHICLE "
+            + "LEFT JOIN BUSES ON VEHICLE.Vehicle_ID = BUSES.Vehicle_ID "
+            + "LEFT JOIN DIESEL_TRAIN ON VEHICLE.Vehicle_ID = DIESEL_TRAIN.Vehicle_ID "
+            + "LEFT JOIN ELECTRIC_LIGHT_RAIL ON VEHICLE.Vehicle_ID = ELECTRIC_LIGHT_RAIL.Vehicle_ID";
+    
+    /**
+     * Largest number of IDs placed in one IN list by getVehiclesByIds.
+     */
+    private static final int MAX_IDS_PER_QUERY = 500;
+    
     /**
      * Adds a bus to the database. Uses a transaction to insert information in 
      * two tables. Only commits changes if both operations succeed.
@@ -332,13 +381,14 @@ public class VehicleDAOImpl implements VehicleDAO {
      * stations along the route.
      * 
      * @return a List of RouteDTOs containing the information of all routes.
+     * @throws RuntimeException if the routes could not be read.
      */
     @Override 
     public List<RouteDTO> getAllRoutes() {
         List<RouteDTO> routes = new ArrayList<>();
         String query = "SELECT Route.Route_ID, Route.Distance, Route.Expected_Duration, Station.Station_ID, "
-                + "Station.StationName FROM ROUTE JOIN ROUTES_STATION ON "
-                + "ROUTE.Route_ID = ROUTES_STATION.Route_ID JOIN STATION ON "
+                + "Station.StationName FROM ROUTE LEFT JOIN ROUTES_STATION ON "
+                + "ROUTE.Route_ID = ROUTES_STATION.Route_ID LEFT JOIN STATION ON "
                 + "ROUTES_STATION.Station_ID = STATION.Station_ID ORDER BY Route.Route_ID ASC;";
         try(Connection connection = DataSource.getConnection();
             PreparedStatement statement = connection.prepareStatement(query)) {
@@ -367,18 +417,22 @@ public class VehicleDAOImpl implements VehicleDAO {
                     stations = new ArrayList<>();
                 }
                 
-                StationDTO station = new StationDTO();
-                station.setStationID(stationId);
-                station.setStationName(stationName);
-                stations.add(station);                
-                
+                //routes without stations come back with a null station
+                if(stationName != null) {
+                    StationDTO station = new StationDTO();
+                    station.setStationID(stationId);
+                    station.setStationName(stationName);
+                    stations.add(station);
+                }
             }
             //add last route
-            currentRoute.setStationList(stations);
-            routes.add(currentRoute);
+            if(currentRoute != null) {
+                currentRoute.setStationList(stations);
+                routes.add(currentRoute);
+            }
         }
         catch(SQLException e) {
-            e.printStackTrace();
+            throw new RuntimeException("Failed to read routes", e);
         }
         
         return routes;
@@ -417,6 +471,7 @@ public class VehicleDAOImpl implements VehicleDAO {
      * Method to retrieve all station information from the database.
      * 
      * @return a List of StationDTOs containing the information of all stations.
+     * @throws RuntimeException if the stations could not be read.
      */
     @Override
     public List<StationDTO> getAllStations() {
@@ -430,18 +485,23 @@ public class VehicleDAOImpl implements VehicleDAO {
                 StationDTO station = new StationDTO();
                 station.setStationID(results.getInt("Station_ID"));
                 station.setStationName(results.getString("StationName"));
+                double latitude = results.getDouble("Latitude");
+                station.setLatitude(results.wasNull() ? null : latitude);
+                double longitude = results.getDouble("Longitude");
+                station.setLongitude(results.wasNull() ? null : longitude);
                 stations.add(station);
             }
             
         }
         catch(SQLException e) {
-            e.printStackTrace();
+            throw new RuntimeException("Failed to read stations", e);
         }
         return stations;
     }
     
     /**
      * Method to retrieve a vehicle's information using a given vehicle ID.
+     * The vehicle row and its subtype row are read with a single query.
      * 
      * @param vehicleID an int representing the vehicle ID.
      * @return a VehicleDTO that contains the information of the retrieved vehicle.
@@ -449,149 +509,112 @@ public class VehicleDAOImpl implements VehicleDAO {
     @Override
     public VehicleDTO getVehicleById(int vehicleID) {
 
-        VehicleDTO vehicle = new VehicleDTO();
-        String query = "SELECT * FROM Vehicle WHERE Vehicle_ID = ?";
-        String vehicleType = "";
+        VehicleDTO vehicle = null;
+        String query = DETAILED_VEHICLE_QUERY + " WHERE VEHICLE.Vehicle_ID = ?";
         try(Connection connection = DataSource.getConnection();
             PreparedStatement statement = connection.prepareStatement(query)) {
             statement.setInt(1, vehicleID);
-            ResultSet results = statement.executeQuery();
-            if(results.next()) {
-                vehicleType = results.getString("Vehicle_Type");
-            }
-            else {
-                return null;
+            try(ResultSet results = statement.executeQuery()) {
+                if(results.next()) {
+                    vehicle = mapDetailedVehicle(results);
+                }
             }
         }
         catch(SQLException e) {
             e.printStackTrace();
         }
-        if(vehicleType.equals(VehicleType.BUS)) {
-            vehicle = addBusDetails(vehicleID);
-        }
-        else if(vehicleType.equals(VehicleType.DIESELTRAIN)) {
-            vehicle = addDieselTrainDetails(vehicleID);
-        }
-        else if(vehicleType.equals(VehicleType.ELECTRICLIGHTRAIL)) {
-            vehicle = addELRDetails(vehicleID);
-        }
-        else {
-            return null;
-        }
         return vehicle;
     }
     
     /**
-     * Worker method for getVehicleById that retrieves all information of a bus
-     * from the vehicle table and the buses table.
+     * Method to retrieve the typed information of several vehicles given their
+     * vehicle IDs. The IDs are split into chunks of at most MAX_IDS_PER_QUERY
+     * and each chunk is loaded with one IN query.
      * 
-     * @param vehicleId an int representing the bus's ID.
-     * @return a BusDTO containing all information of a bus.
+     * @param vehicleIds a Collection of vehicle IDs. Duplicates are ignored.
+     * @return a Map of typed VehicleDTOs keyed by vehicle ID. IDs that do not
+     * exist are left out of the map.
      */
-    private BusDTO addBusDetails(int vehicleId) {
-        BusDTO bus = new BusDTO();
-        String query = "SELECT * FROM VEHICLE JOIN BUSES ON "
-                + "VEHICLE.Vehicle_ID = BUSES.Vehicle_ID WHERE VEHICLE.Vehicle_ID = ?";
-        try(Connection connection = DataSource.getConnection();
-            PreparedStatement statement = connection.prepareStatement(query)) {
-            statement.setInt(1, vehicleId);
-            ResultSet results = statement.executeQuery();
-            if(results.next()) {
-                bus.setVehicleID(results.getInt("Vehicle_ID"));
-                bus.setVehicleName(results.getString("Vehicle_Name"));
-                bus.setVehicleType(results.getString("Vehicle_Type"));
-                bus.setMaxCapacity(results.getInt("Max_capacity"));
-                bus.setCurrentRouteID(results.getInt("Current_Route_ID"));
-                bus.setAxleBearingsCondition(results.getDouble("axle_bearings"));
-                bus.setFuelType(results.getString("fuel_type"));
-                bus.setConsumptionRate(results.getDouble("consumption_rate"));
-                bus.setStatus(results.getString("Status"));
-                bus.setWheelsCondition(results.getDouble("Wheels"));
-                bus.setBrakesCondition(results.getDouble("Brakes"));
-                bus.setFuelLevel(results.getDouble("Fuel_level"));
-                bus.setEmissionRate(results.getDouble("Emission_rate"));
+    @Override
+    public Map<Integer, VehicleDTO> getVehiclesByIds(Collection<Integer> vehicleIds) {
+        Map<Integer, VehicleDTO> vehicles = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(vehicleIds));
+        if(ids.isEmpty()) {
+            return vehicles;
+        }
+        
+        try(Connection connection = DataSource.getConnection()) {
+            for(int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()));
+                String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+                String query = DETAILED_VEHICLE_QUERY 
+                        + " WHERE VEHICLE.Vehicle_ID IN (" + placeholders + ")";
+                try(PreparedStatement statement = connection.prepareStatement(query)) {
+                    for(int i = 0; i < chunk.size(); i++) {
+                        statement.setInt(i + 1, chunk.get(i));
+                    }
+                    try(ResultSet results = statement.executeQuery()) {
+                        while(results.next()) {
+                            VehicleDTO vehicle = mapDetailedVehicle(results);
+                            if(vehicle != null) {
+                                vehicles.put(vehicle.getVehicleID(), vehicle);
+                            }
+                        }
+                    }
+                }
             }
         }
         catch(SQLException e) {
             e.printStackTrace();
         }
-        return bus;
+        return vehicles;
     }
     
     /**
-     * Worker method for getVehicleById that retrieves all information of a diesel
-     * train from the vehicle table and the diesel_train table.
+     * Worker method that builds a BusDTO, DieselTrainDTO or ElectricLightRailDTO
+     * from the current row of a DETAILED_VEHICLE_QUERY result, based on the 
+     * vehicle type.
      * 
-     * @param vehicleId an int representing the diesel train's ID.
-     * @return a DieselTrainDTO containing all the info of a diesel train.
+     * @param results a ResultSet positioned on a row of DETAILED_VEHICLE_QUERY.
+     * @return the typed VehicleDTO, or null if the vehicle type is unknown.
+     * @throws SQLException if a column cannot be read.
      */
-    private DieselTrainDTO addDieselTrainDetails(int vehicleId) {
-        DieselTrainDTO train = new DieselTrainDTO();
-        String query = "SELECT * FROM VEHICLE JOIN DIESEL_TRAIN ON "
-                + "VEHICLE.Vehicle_ID = DIESEL_TRAIN.Vehicle_ID WHERE VEHICLE.Vehicle_ID = ?";
-        try(Connection connection = DataSource.getConnection();
-            PreparedStatement statement = connection.prepareStatement(query)) {
-            statement.setInt(1, vehicleId);
-            ResultSet results = statement.executeQuery();
-            if(results.next()) {
-                train.setVehicleID(results.getInt("Vehicle_ID"));
-                train.setVehicleName(results.getString("Vehicle_Name"));
-                train.setVehicleType(results.getString("Vehicle_Type"));
-                train.setMaxCapacity(results.getInt("Max_capacity"));
-                train.setCurrentRouteID(results.getInt("Current_Route_ID"));
-                train.setAxleBearingsCondition(results.getDouble("axle_bearings"));
-                train.setFuelType(results.getString("fuel_type"));
-                train.setConsumptionRate(results.getDouble("consumption_rate"));
-                train.setStatus(results.getString("Status"));
-                train.setWheelsCondition(results.getDouble("Wheels"));
-                train.setBrakesCondition(results.getDouble("Brakes"));
-                train.setFuelLevel(results.getDouble("Fuel_level"));
-                train.setOilStatus(results.getDouble("Oil_life"));
-            }
+    private VehicleDTO mapDetailedVehicle(ResultSet results) throws SQLException {
+        VehicleDTO vehicle;
+        String vehicleType = results.getString("Vehicle_Type");
+        if(VehicleType.BUS.equals(vehicleType)) {
+            BusDTO bus = new BusDTO();
+            bus.setEmissionRate(results.getDouble("Emission_rate"));
+            vehicle = bus;
         }
-        catch(SQLException e) {
-            e.printStackTrace();
+        else if(VehicleType.DIESELTRAIN.equals(vehicleType)) {
+            DieselTrainDTO train = new DieselTrainDTO();
+            train.setOilStatus(results.getDouble("Oil_life"));
+            vehicle = train;
         }
-        return train;
-    }
-    
-    /**
-     * Worker method for getVehicleById that retrieves all information of a 
-     * Electric Light Rail train.
-     * 
-     * @param vehicleId an int representing the ELR train's ID.
-     * @return an ElectricLightRailDTO containing all information of an ELR train.
-     */
-    private ElectricLightRailDTO addELRDetails(int vehicleId) {
-        ElectricLightRailDTO elrTrain = new ElectricLightRailDTO();
-        String query = "SELECT * FROM VEHICLE JOIN ELECTRIC_LIGHT_RAIL ON "
-                + "VEHICLE.Vehicle_ID = ELECTRIC_LIGHT_RAIL.Vehicle_ID WHERE VEHICLE.Vehicle_ID = ?";
-        try(Connection connection = DataSource.getConnection();
-            PreparedStatement statement = connection.prepareStatement(query)) {
-            statement.setInt(1, vehicleId);
-            ResultSet results = statement.executeQuery();
-            if(results.next()) {
-                elrTrain.setVehicleID(results.getInt("Vehicle_ID"));
-                elrTrain.setVehicleName(results.getString("Vehicle_Name"));
-                elrTrain.setVehicleType(results.getString("Vehicle_Type"));
-                elrTrain.setMaxCapacity(results.getInt("Max_capacity"));
-                elrTrain.setCurrentRouteID(results.getInt("Current_Route_ID"));
-                elrTrain.setAxleBearingsCondition(results.getDouble("axle_bearings"));
-                elrTrain.setFuelType(results.getString("fuel_type"));
-                elrTrain.setConsumptionRate(results.getDouble("consumption_rate"));
-                elrTrain.setStatus(results.getString("Status"));
-                elrTrain.setWheelsCondition(results.getDouble("Wheels"));
-                elrTrain.setBrakesCondition(results.getDouble("Brakes"));
-                elrTrain.setFuelLevel(results.getDouble("Fuel_level"));
-                elrTrain.setCatenaryCondition(results.getDouble("Catenary"));
-                elrTrain.setPantographCondition(results.getDouble("Pantograph"));
-                elrTrain.setCircuitBreakerCondition(results.getDouble("Circuit_breaker"));
-            }
+        else if(VehicleType.ELECTRICLIGHTRAIL.equals(vehicleType)) {
+            ElectricLightRailDTO elrTrain = new ElectricLightRailDTO();
+            elrTrain.setCatenaryCondition(results.getDouble("Catenary"));
+            elrTrain.setPantographCondition(results.getDouble("Pantograph"));
+            elrTrain.setCircuitBreakerCondition(results.getDouble("Circuit_breaker"));
+            vehicle = elrTrain;
         }
-        catch(SQLException e) {
-            e.printStackTrace();
+        else {
+            return null;
         }
-        return elrTrain;
+        vehicle.setVehicleID(results.getInt("Vehicle_ID"));
+        vehicle.setVehicleName(results.getString("Vehicle_Name"));
+        vehicle.setVehicleType(vehicleType);
+        vehicle.setMaxCapacity(results.getInt("Max_capacity"));
+        vehicle.setCurrentRouteID(results.getInt("Current_Route_ID"));
+        vehicle.setAxleBearingsCondition(results.getDouble("axle_bearings"));
+        vehicle.setFuelType(results.getString("fuel_type"));
+        vehicle.setConsumptionRate(results.getDouble("consumption_rate"));
+        vehicle.setStatus(results.getString("Status"));
+        vehicle.setWheelsCondition(results.getDouble("Wheels"));
+        vehicle.setBrakesCondition(results.getDouble("Brakes"));
+        vehicle.setFuelLevel(results.getDouble("Fuel_level"));
+        return vehicle;
     }
 
     /**
@@ -671,6 +694,67 @@ public class VehicleDAOImpl implements VehicleDAO {
         return vehicles;
     }
     
+    /**
+     * Method to get every vehicle with its subtype details in a single query.
+     * 
+     * @return a List of BusDTOs, DieselTrainDTOs and ElectricLightRailDTOs for
+     * the whole fleet.
+     */
+    @Override
+    public List<VehicleDTO> getAllVehiclesDetailed() {
+        return getVehiclesDetailed(null, null);
+    }
+    
+    /**
+     * Method to get every vehicle of a given vehicle type and/or status with its
+     * subtype details in a single query. Rows are streamed from the database
+     * instead of being buffered by the driver, so the whole fleet can be loaded
+     * without holding two copies of it in memory.
+     * 
+     * @param vehicleType a String representing the desired vehicle type, or 
+     * null for all types.
+     * @param vehicleStatus a String representing the desired vehicle status, or
+     * null for all statuses.
+     * @return a List of typed VehicleDTOs matching the given filters.
+     */
+    @Override
+    public List<VehicleDTO> getVehiclesDetailed(String vehicleType, String vehicleStatus) {
+        List<VehicleDTO> vehicles = new ArrayList<>();
+        StringBuilder query = new StringBuilder(DETAILED_VEHICLE_QUERY);
+        List<String> parameters = new ArrayList<>();
+        if(vehicleType != null) {
+            query.append(" WHERE VEHICLE.Vehicle_Type = ?");
+            parameters.add(vehicleType);
+        }
+        if(vehicleStatus != null) {
+            query.append(parameters.isEmpty() ? " WHERE " : " AND ").append("VEHICLE.Status = ?");
+            parameters.add(vehicleStatus);
+        }
+        query.append(" ORDER BY VEHICLE.Vehicle_ID ASC");
+        
+        try(Connection connection = DataSource.getConnection();
+            PreparedStatement statement = connection.prepareStatement(query.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            //Connector/J streams rows one at a time with this fetch size
+            statement.setFetchSize(Integer.MIN_VALUE);
+            for(int i = 0; i < parameters.size(); i++) {
+                statement.setString(i + 1, parameters.get(i));
+            }
+            try(ResultSet results = statement.executeQuery()) {
+                while(results.next()) {
+                    VehicleDTO vehicle = mapDetailedVehicle(results);
+                    if(vehicle != null) {
+                        vehicles.add(vehicle);
+                    }
+                }
+            }
+        }
+        catch(SQLException e) {
+            e.printStackTrace();
+        }
+        return vehicles;
+    }
+    
     /**
      * Method to start maintenance for a vehicle. Inserts a record with a null
      * end_time.
@@ -842,8 +926,9 @@ public class VehicleDAOImpl implements VehicleDAO {
     }
     
     /**
-     * Method to update a vehicle's location. Sets previous most recent location
-     * to false and then inserts a new record.
+     * Method to update a vehicle's location. Appends the location to the
+     * history and upserts the vehicle's row in Location_Current, in one
+     * transaction.
      * 
      * @param location a LocationDTO containing the new coordinates for a vehicle.
      * @return true if the vehicle's location is successfully updated, else false.
@@ -851,73 +936,145 @@ public class VehicleDAOImpl implements VehicleDAO {
     @Override
     public boolean updateLocation(LocationDTO location) {
         
-        String updateQuery = "UPDATE LOCATION SET Most_Recent = FALSE WHERE VEHICLE_ID = ? AND Most_Recent = TRUE";
-        String insertQuery = "INSERT INTO LOCATION (Vehicle_ID, Latitude, Longitude, Updated, Most_Recent) "
-                + "VALUES (?, ?, ?, ?, TRUE)";
-        try(Connection connection = DataSource.getConnection();
-            PreparedStatement statement1 = connection.prepareStatement(updateQuery);
-            PreparedStatement statement2 = connection.prepareStatement(insertQuery)) {
-            connection.setAutoCommit(false);
+        String insertQuery = "INSERT INTO LOCATION (Vehicle_ID, Latitude, Longitude, Updated) VALUES (?, ?, ?, ?)";
+        String upsertQuery = CURRENT_LOCATION_INSERT + "(?, ?, ?, ?)" + CURRENT_LOCATION_UPDATE;
+        try(UnitOfWork work = UnitOfWork.begin();
+            Connection connection = DataSource.getConnection();
+            PreparedStatement statement1 = connection.prepareStatement(insertQuery);
+            PreparedStatement statement2 = connection.prepareStatement(upsertQuery)) {
             
-            statement1.setInt(1, location.getVehicleId());
+            bindLocation(statement1, 1, location);
+            statement1.executeUpdate();
             
-            int rowsAffected = statement1.executeUpdate();
+            bindLocation(statement2, 1, location);
+            statement2.executeUpdate();
             
-            if(rowsAffected == 0) {
-                connection.rollback();
-                return false;
+            work.commit();
+        }
+        catch(SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Method to record many location updates in one transaction. Every
+     * location is appended to the history as one JDBC batch per
+     * LOCATION_BATCH_SIZE rows, then the latest location of each vehicle is
+     * upserted into Location_Current with one statement per
+     * LOCATION_BATCH_SIZE vehicles.
+     * 
+     * @param locations a List of LocationDTOs, in the order they were received.
+     * @return the number of locations recorded.
+     * @throws RuntimeException if the locations could not be recorded.
+     */
+    @Override
+    public int recordLocations(List<LocationDTO> locations) {
+        if(locations.isEmpty()) {
+            return 0;
+        }
+        //a later ping of the same vehicle replaces an earlier one as its latest
+        Map<Integer, LocationDTO> latest = new HashMap<>();
+        for(LocationDTO location : locations) {
+            latest.merge(location.getVehicleId(), location,
+                    (previous, next) -> next.getUpdated().before(previous.getUpdated()) ? previous : next);
+        }
+        List<LocationDTO> current = new ArrayList<>(latest.values());
+        
+        String insertQuery = "INSERT INTO LOCATION (Vehicle_ID, Latitude, Longitude, Updated) VALUES (?, ?, ?, ?)";
+        try(UnitOfWork work = UnitOfWork.begin();
+            Connection connection = DataSource.getConnection()) {
+            try(PreparedStatement statement = connection.prepareStatement(insertQuery)) {
+                int batched = 0;
+                for(LocationDTO location : locations) {
+                    bindLocation(statement, 1, location);
+                    statement.addBatch();
+                    if(++batched == LOCATION_BATCH_SIZE) {
+                        statement.executeBatch();
+                        batched = 0;
+                    }
+                }
+                if(batched > 0) {
+                    statement.executeBatch();
+                }
             }
             
-            statement2.setInt(1, location.getVehicleId());
-            statement2.setDouble(2, location.getLatitude());
-            statement2.setDouble(3, location.getLongitude());
-            statement2.setTimestamp(4, location.getUpdated());
-            
-            rowsAffected = statement2.executeUpdate();
-            if(rowsAffected == 0) {
-                connection.rollback();
-                return false;
+            for(int start = 0; start < current.size(); start += LOCATION_BATCH_SIZE) {
+                List<LocationDTO> batch = current.subList(start,
+                        Math.min(start + LOCATION_BATCH_SIZE, current.size()));
+                StringBuilder upsertQuery = new StringBuilder(CURRENT_LOCATION_INSERT);
+                for(int i = 0; i < batch.size(); i++) {
+                    upsertQuery.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+                }
+                upsertQuery.append(CURRENT_LOCATION_UPDATE);
+                try(PreparedStatement statement = connection.prepareStatement(upsertQuery.toString())) {
+                    int index = 1;
+                    for(LocationDTO location : batch) {
+                        index = bindLocation(statement, index, location);
+                    }
+                    statement.executeUpdate();
+                }
             }
-            connection.commit();
+            work.commit();
         }
         catch(SQLException e) {
-            e.printStackTrace();
+            throw new RuntimeException("Failed to record vehicle locations", e);
         }
-        return true;
+        return locations.size();
     }
     
     /**
-     * Method to get all most recent vehicle locations from the database.
+     * Method to get the current location of every vehicle from the database.
      * 
      * @return a List of LocationDTOs containing the location data from the database.
+     * @throws RuntimeException if the locations could not be read.
      */
     @Override
     public List<LocationDTO> getAllVehicleLocations() {
         List<LocationDTO> locations = new ArrayList<>();
         
-        String query = "SELECT * FROM LOCATION WHERE Most_Recent = TRUE ORDER BY Vehicle_Id ASC";
+        String query = "SELECT * FROM Location_Current ORDER BY Vehicle_ID ASC";
         try(Connection connection = DataSource.getConnection();
             PreparedStatement statement = connection.prepareStatement(query)) {
             
             ResultSet results = statement.executeQuery();
             while(results.next()) {
                 LocationDTO location = new LocationDTO();
-                location.setLocationId(results.getInt("Location_ID"));
                 location.setVehicleId(results.getInt("Vehicle_ID"));
                 location.setLatitude(results.getDouble("Latitude"));
                 location.setLongitude(results.getDouble("Longitude"));
                 location.setUpdated(results.getTimestamp("Updated"));
-                location.setMostRecent(results.getBoolean("Most_Recent"));
+                location.setMostRecent(true);
                 locations.add(location);
             }
         }
         catch(SQLException e) {
-            e.printStackTrace();
+            throw new RuntimeException("Failed to read vehicle locations", e);
         }
         
         return locations;
     }
     
+    /**
+     * Binds a location's vehicle ID, coordinates and time to four consecutive
+     * parameters.
+     * 
+     * @param statement the statement to bind.
+     * @param index the index of the first parameter.
+     * @param location the location to bind.
+     * @return the index of the next parameter.
+     * @throws SQLException if a parameter cannot be set.
+     */
+    private static int bindLocation(PreparedStatement statement, int index, LocationDTO location)
+            throws SQLException {
+        statement.setInt(index++, location.getVehicleId());
+        statement.setDouble(index++, location.getLatitude());
+        statement.setDouble(index++, location.getLongitude());
+        statement.setTimestamp(index++, location.getUpdated());
+        return index;
+    }
+    
     /**
      * Method to log a vehicle's visit to a station in the database.
      * 
@@ -947,6 +1104,48 @@ public class VehicleDAOImpl implements VehicleDAO {
         return rowsAffected > 0;
     }
     
+    /**
+     * Method to record many station visits in one transaction, as one JDBC
+     * batch per LOCATION_BATCH_SIZE rows.
+     * 
+     * @param visits a List of VehicleStationDTOs containing the information
+     * of each visit.
+     * @return the number of visits recorded.
+     * @throws RuntimeException if the visits could not be recorded.
+     */
+    @Override
+    public int logStationVisits(List<VehicleStationDTO> visits) {
+        if(visits.isEmpty()) {
+            return 0;
+        }
+        String query = "INSERT INTO Vehicles_Station(Vehicle_Id, Station_Id, "
+                + "Arrival_Time, Departure_Time) VALUES (?, ?, ?, ?)";
+        try(UnitOfWork work = UnitOfWork.begin();
+            Connection connection = DataSource.getConnection();
+            PreparedStatement statement = connection.prepareStatement(query)) {
+            int batched = 0;
+            for(VehicleStationDTO visit : visits) {
+                statement.setInt(1, visit.getVehicleId());
+                statement.setInt(2, visit.getStationId());
+                statement.setTimestamp(3, visit.getArrivalTime());
+                statement.setTimestamp(4, visit.getDepartureTime());
+                statement.addBatch();
+                if(++batched == LOCATION_BATCH_SIZE) {
+                    statement.executeBatch();
+                    batched = 0;
+                }
+            }
+            if(batched > 0) {
+                statement.executeBatch();
+            }
+            work.commit();
+        }
+        catch(SQLException e) {
+            throw new RuntimeException("Failed to record station visits", e);
+        }
+        return visits.size();
+    }
+    
     /**
      * Method to get the history of station visits for a given
      * vehicle.
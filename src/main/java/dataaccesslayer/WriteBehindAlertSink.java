@@ -0,0 +1,293 @@
+package dataaccesslayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import transferobjects.AlertDTO;
+
+/**
+ * File Name: WriteBehindAlertSink.java
+ * Author: Simon Tan, 041161622
+ * Course: CST8288 - Object Oriented Programming with Design Patterns
+ * Section: Lab section 12
+ * Assignment: Final Group Project
+ * Date: October 18th, 2026
+ * Professor: Teddy Yap
+ *
+ * Stores new alerts in the background. Callers submit alerts to a bounded
+ * buffer and return at once; a writer thread collects them into batches and
+ * inserts each batch with AlertDAO.addAlerts. A batch is written when it
+ * reaches the batch size or when its oldest alert has waited the maximum
+ * delay, whichever comes first. Each alert's future completes once its
+ * generated ID has been copied into it. When the buffer is full the caller
+ * writes its alert itself, so alerts are never dropped. Closing the sink
+ * writes everything still buffered.
+ *
+ * @author Simon Tan
+ * @version 1.0, 10/18/2026
+ * @see dataaccesslayer
+ * @since JDK 21.0.4
+ */
+public class WriteBehindAlertSink implements AutoCloseable {
+
+    /**
+     * Default number of alerts the buffer holds.
+     */
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    /**
+     * Default number of alerts written per batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 200;
+
+    /**
+     * Default longest time in milliseconds an alert waits to be written.
+     */
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 250;
+
+    /**
+     * Marker put in the buffer by close, never written.
+     */
+    private static final Pending WAKE_UP = new Pending(null);
+
+    /**
+     * The DAO the batches are written through.
+     */
+    private final AlertDAO target;
+
+    /**
+     * Alerts waiting to be written, with the futures of their callers.
+     */
+    private final BlockingQueue<Pending> buffer;
+
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Thread writer;
+    private final AtomicLong batchesWritten = new AtomicLong();
+    private final AtomicLong alertsWritten = new AtomicLong();
+    private final AtomicLong overflowCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a WriteBehindAlertSink with the default capacity, batch size
+     * and delay.
+     *
+     * @param target the DAO the alerts are written through.
+     */
+    public WriteBehindAlertSink(AlertDAO target) {
+        this(target, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_MAX_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Constructs a WriteBehindAlertSink and starts its writer thread.
+     *
+     * @param target the DAO the alerts are written through.
+     * @param capacity the number of alerts the buffer holds.
+     * @param batchSize the most alerts written per batch.
+     * @param maxDelay the longest time an alert waits to be written.
+     * @param unit the unit of maxDelay.
+     * @throws IllegalArgumentException if target is null or a limit is not
+     * positive.
+     */
+    public WriteBehindAlertSink(AlertDAO target, int capacity, int batchSize, long maxDelay, TimeUnit unit) {
+        if(target == null || capacity <= 0 || batchSize <= 0 || maxDelay <= 0) {
+            throw new IllegalArgumentException("Invalid write-behind settings");
+        }
+        this.target = target;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.writer = new Thread(this::run, "alert-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues an alert to be written. If the buffer is full or the sink is
+     * closed, the alert is written on the caller's thread instead.
+     *
+     * @param alert the alert to store.
+     * @return a future completed with the alert once it has its ID, or
+     * completed exceptionally if it could not be stored.
+     */
+    public CompletableFuture<AlertDTO> submit(AlertDTO alert) {
+        Pending pending = new Pending(alert);
+        if(!running || !buffer.offer(pending)) {
+            overflowCount.incrementAndGet();
+            writeOne(pending);
+        }
+        else if(!running && buffer.remove(pending)) {
+            //closed while queueing, and the writer may already have finished
+            writeOne(pending);
+        }
+        return pending.future;
+    }
+
+    /**
+     * @return the number of alerts waiting to be written.
+     */
+    public int getQueuedCount() {
+        return buffer.size();
+    }
+
+    /**
+     * @return the number of batches written by the writer thread.
+     */
+    public long getBatchesWritten() {
+        return batchesWritten.get();
+    }
+
+    /**
+     * @return the number of alerts written.
+     */
+    public long getAlertsWritten() {
+        return alertsWritten.get();
+    }
+
+    /**
+     * @return the number of alerts written on the caller's thread because
+     * the buffer was full.
+     */
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    /**
+     * @return the number of alerts that could not be written.
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Stops accepting alerts into the buffer and waits for the writer thread
+     * to write the ones already in it.
+     *
+     * @param timeout how long to wait for the buffer to be written.
+     * @param unit the unit of timeout.
+     * @return true if everything was written in time, else false.
+     */
+    public boolean close(long timeout, TimeUnit unit) {
+        running = false;
+        //wakes the writer if it is waiting for more alerts
+        buffer.offer(WAKE_UP);
+        try {
+            writer.join(unit.toMillis(timeout));
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !writer.isAlive();
+    }
+
+    /**
+     * Stops the sink, waiting up to five seconds for the buffer to be written.
+     */
+    @Override
+    public void close() {
+        close(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Writer loop: waits for a first alert, gathers more until the batch is
+     * full or the first one has waited the maximum delay, then writes them.
+     * Keeps going after close until the buffer is empty.
+     */
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while(running || !buffer.isEmpty()) {
+            try {
+                Pending first = buffer.poll(maxDelayNanos, TimeUnit.NANOSECONDS);
+                if(first == null || first == WAKE_UP) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while(batch.size() < batchSize) {
+                    if(buffer.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if(remaining <= 0 || !running) {
+                        break;
+                    }
+                    Pending next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if(next == null || next == WAKE_UP) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                batch.remove(WAKE_UP);
+            }
+            catch(InterruptedException e) {
+                running = false;
+            }
+            if(!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch with one call to addAlerts. If the batch fails, each
+     * alert is retried on its own so one bad row does not lose the others.
+     *
+     * @param batch the alerts to write.
+     */
+    private void writeBatch(List<Pending> batch) {
+        List<AlertDTO> alerts = new ArrayList<>(batch.size());
+        for(Pending pending : batch) {
+            alerts.add(pending.alert);
+        }
+        try {
+            target.addAlerts(alerts);
+        }
+        catch(RuntimeException e) {
+            for(Pending pending : batch) {
+                writeOne(pending);
+            }
+            return;
+        }
+        batchesWritten.incrementAndGet();
+        alertsWritten.addAndGet(batch.size());
+        for(Pending pending : batch) {
+            pending.future.complete(pending.alert);
+        }
+    }
+
+    /**
+     * Writes a single alert and completes its future.
+     *
+     * @param pending the alert to write.
+     */
+    private void writeOne(Pending pending) {
+        try {
+            target.addAlert(pending.alert);
+            alertsWritten.incrementAndGet();
+            pending.future.complete(pending.alert);
+        }
+        catch(RuntimeException e) {
+            failedCount.incrementAndGet();
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * An alert waiting in the buffer and the future of the caller who
+     * submitted it.
+     */
+    private static final class Pending {
+        private final AlertDTO alert;
+        private final CompletableFuture<AlertDTO> future = new CompletableFuture<>();
+
+        Pending(AlertDTO alert) {
+            this.alert = alert;
+        }
+    }
+}
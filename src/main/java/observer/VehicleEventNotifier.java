@@ -1,44 +1,369 @@
 package observer;
 
 import transferobjects.AlertDTO;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Subject class in the observer pattern that maintains a list of listeners
  * and notifies them when vehicle events occur.
+ * <p>
+ * By default listeners are called synchronously on the thread that raises the
+ * event. In asynchronous mode each listener gets its own bounded queue that is
+ * drained on the given executor, so the caller returns immediately, a slow
+ * listener only delays itself, and every listener still sees events in the
+ * order they were raised. When a listener's queue is full the OverflowPolicy
+ * decides what happens.
+ * <p>
+ * A listener can subscribe to all event types or only to some. Dispatch reads
+ * a precomputed table of listeners per event type, so uninterested listeners
+ * are never called. Adding or removing a listener rebuilds the table and
+ * swaps it in without locking, which is safe while events are being dispatched.
  * @author jaces
  */
 public class VehicleEventNotifier {
-    private final List<Listener> listeners = new ArrayList<>();
 
     /**
-     * Adds a listener to be notified of vehicle events.
+     * What to do with an event when a listener's queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Discard the new event. */
+        DROP_NEWEST,
+        /** Discard the oldest queued event to make room for the new one. */
+        DROP_OLDEST,
+        /** Make the caller wait until there is room. */
+        BLOCK
+    }
+
+    /**
+     * Default number of events queued per listener in asynchronous mode.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+
+    private final AtomicReference<Routing> routing =
+            new AtomicReference<>(new Routing(NO_SUBSCRIPTIONS));
+    private final ExecutorService executor;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private volatile boolean shutdown;
+
+    /**
+     * Creates a notifier that calls listeners synchronously.
+     */
+    public VehicleEventNotifier() {
+        this.executor = null;
+        this.queueCapacity = 0;
+        this.overflowPolicy = null;
+    }
+
+    /**
+     * Creates a notifier that calls listeners asynchronously on the given executor.
+     *
+     * @param executor the executor that runs listener callbacks
+     * @param queueCapacity maximum number of events queued per listener
+     * @param overflowPolicy what to do when a listener's queue is full
+     * @throws IllegalArgumentException if executor or overflowPolicy is null
+     * or queueCapacity is not positive
+     */
+    public VehicleEventNotifier(ExecutorService executor, int queueCapacity,
+            OverflowPolicy overflowPolicy) {
+        if (executor == null || overflowPolicy == null || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Invalid asynchronous notifier settings");
+        }
+        this.executor = executor;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Creates the preferred executor for asynchronous dispatch: one virtual
+     * thread per task.
+     *
+     * @return a new ExecutorService
+     */
+    public static ExecutorService defaultExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Adds a listener to be notified of every type of vehicle event.
      *
      * @param listener the listener to add
      */
     public void addListener(Listener listener) {
-        listeners.add(listener);
+        addListener(listener, EnumSet.allOf(VehicleEvent.class));
+    }
+
+    /**
+     * Adds a listener to be notified only of the given types of vehicle event.
+     *
+     * @param listener the listener to add
+     * @param first a type of event the listener wants
+     * @param rest further types of event the listener wants
+     */
+    public void addListener(Listener listener, VehicleEvent first, VehicleEvent... rest) {
+        addListener(listener, EnumSet.of(first, rest));
+    }
+
+    /**
+     * Adds a listener to be notified only of the given types of vehicle event.
+     *
+     * @param listener the listener to add
+     * @param eventTypes the types of event the listener wants
+     */
+    public void addListener(Listener listener, Set<VehicleEvent> eventTypes) {
+        Subscription subscription = new Subscription(listener, eventTypes);
+        Routing current;
+        Subscription[] updated;
+        do {
+            current = routing.get();
+            updated = Arrays.copyOf(current.all, current.all.length + 1);
+            updated[current.all.length] = subscription;
+        } while (!routing.compareAndSet(current, new Routing(updated)));
     }
 
     /**
-     * Removes a listener from the notification list.
+     * Removes a listener from the notification list. Events already queued for
+     * it are still delivered.
      *
      * @param listener the listener to remove
      */
     public void removeListener(Listener listener) {
-        listeners.remove(listener);
+        Routing current;
+        Subscription[] updated;
+        do {
+            current = routing.get();
+            int index = -1;
+            for (int i = 0; i < current.all.length; i++) {
+                if (current.all[i].listener.equals(listener)) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return;
+            }
+            updated = new Subscription[current.all.length - 1];
+            System.arraycopy(current.all, 0, updated, 0, index);
+            System.arraycopy(current.all, index + 1, updated, index, updated.length - index);
+        } while (!routing.compareAndSet(current, new Routing(updated)));
     }
 
     /**
-     * Notifies all registered listeners about a vehicle event.
+     * Notifies the listeners subscribed to a type of vehicle event. A null
+     * event type reaches every listener.
      *
      * @param eventType the type of vehicle event that occurred
      * @param alert the AlertDTO containing details about the event
      */
     public void notifyListeners(VehicleEvent eventType, AlertDTO alert) {
-        for (Listener listener : listeners) {
+        Routing current = routing.get();
+        Subscription[] targets = eventType == null ? current.all : current.byType.get(eventType);
+        if (targets.length == 0) {
+            return;
+        }
+        if (executor == null) {
+            for (Subscription subscription : targets) {
+                deliver(subscription.listener, eventType, alert);
+            }
+        } else {
+            Event event = new Event(eventType, alert);
+            for (Subscription subscription : targets) {
+                subscription.enqueue(event);
+            }
+        }
+    }
+
+    /**
+     * @return true if listeners are called asynchronously, false otherwise
+     */
+    public boolean isAsynchronous() {
+        return executor != null;
+    }
+
+    /**
+     * @return the number of events discarded because a listener's queue was full
+     */
+    public long getDroppedEventCount() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * @return the number of events waiting to be delivered, over all listeners
+     */
+    public int getQueuedEventCount() {
+        int queued = 0;
+        for (Subscription subscription : routing.get().all) {
+            queued += subscription.queue == null ? 0 : subscription.queue.size();
+        }
+        return queued;
+    }
+
+    /**
+     * Stops asynchronous dispatch, waiting up to the given time for queued
+     * events to be delivered. Events raised afterwards are dropped.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit the unit of timeout
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        shutdown = true;
+        if (executor == null) {
+            return;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        try {
+            while (getQueuedEventCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void deliver(Listener listener, VehicleEvent eventType, AlertDTO alert) {
+        try {
             listener.onAlert(eventType, alert);
+        } catch (RuntimeException e) {
+            System.err.println("Listener failed to handle " + eventType + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Immutable routing table: every subscription, and the subscriptions for
+     * each event type. Replaced as a whole whenever a listener is added or removed.
+     */
+    private static final class Routing {
+        private final Subscription[] all;
+        private final EnumMap<VehicleEvent, Subscription[]> byType =
+                new EnumMap<>(VehicleEvent.class);
+
+        Routing(Subscription[] all) {
+            this.all = all;
+            for (VehicleEvent eventType : VehicleEvent.values()) {
+                byType.put(eventType, Arrays.stream(all)
+                        .filter(subscription -> subscription.eventTypes.contains(eventType))
+                        .toArray(Subscription[]::new));
+            }
+        }
+    }
+
+    /**
+     * A vehicle event waiting to be delivered.
+     */
+    private static final class Event {
+        private final VehicleEvent eventType;
+        private final AlertDTO alert;
+
+        Event(VehicleEvent eventType, AlertDTO alert) {
+            this.eventType = eventType;
+            this.alert = alert;
+        }
+    }
+
+    /**
+     * A registered listener and, in asynchronous mode, its event queue. At most
+     * one drain task per listener runs at a time, which keeps its events in order.
+     */
+    private final class Subscription implements Runnable {
+        private final Listener listener;
+        private final Set<VehicleEvent> eventTypes;
+        private final BlockingQueue<Event> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscription(Listener listener, Set<VehicleEvent> eventTypes) {
+            if (listener == null || eventTypes == null) {
+                throw new IllegalArgumentException("Listener and event types cannot be null");
+            }
+            this.listener = listener;
+            this.eventTypes = eventTypes.isEmpty()
+                    ? EnumSet.noneOf(VehicleEvent.class) : EnumSet.copyOf(eventTypes);
+            this.queue = executor == null ? null : new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        void enqueue(Event event) {
+            if (shutdown || !offer(event)) {
+                droppedEvents.incrementAndGet();
+                return;
+            }
+            schedule();
+        }
+
+        private boolean offer(Event event) {
+            switch (overflowPolicy) {
+                case DROP_OLDEST:
+                    while (!queue.offer(event)) {
+                        if (queue.poll() != null) {
+                            droppedEvents.incrementAndGet();
+                        }
+                    }
+                    return true;
+                case BLOCK:
+                    try {
+                        queue.put(event);
+                        return true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                default:
+                    return queue.offer(event);
+            }
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                    droppedEvents.addAndGet(discardQueued());
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Event event;
+                while ((event = queue.poll()) != null) {
+                    deliver(listener, event.eventType, event.alert);
+                }
+            } finally {
+                draining.set(false);
+            }
+            // An event may have arrived after the last poll but before the flag was cleared
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private int discardQueued() {
+            int count = 0;
+            while (queue.poll() != null) {
+                count++;
+            }
+            return count;
         }
     }
-}
\ No newline at end of file
+}
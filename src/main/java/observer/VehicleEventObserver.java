@@ -17,10 +17,11 @@ public class VehicleEventObserver implements Listener {
     @Override
     public void onAlert(VehicleEvent eventType, AlertDTO alert) {
         String message = String.format(
-            "[Notification] %s: Vehicle %d - %s (Time: %s)",
+            "[Notification] %s: Vehicle %d - %s [%s] (Time: %s)",
             eventType.name(),                 
             alert.getVehicleID(),              
             alert.getAlertReason(),           
+            alert.getStatus(),
             alert.getAlertTime()               
         );
         System.out.println(message);
@@ -14,6 +14,7 @@ public class AlertDTO {
     private String status;  
     private String alertType; 
     private String alertReason;
+    private String ruleGroup;
     private Timestamp alertTime;
 
     /**
@@ -91,6 +92,17 @@ public class AlertDTO {
      */
     public void setAlertReason(String alertReason) { this.alertReason = alertReason; }
 
+    /**
+     * @return the name of the alert rule group that raised the alert, or null
+     * if it was not raised by a rule
+     */
+    public String getRuleGroup() { return ruleGroup; }
+    
+    /**
+     * @param ruleGroup the alert rule group to set
+     */
+    public void setRuleGroup(String ruleGroup) { this.ruleGroup = ruleGroup; }
+
     /**
      * @return the timestamp when the alert was generated
      */
@@ -0,0 +1,63 @@
+package transferobjects;
+
+import java.sql.Timestamp;
+
+/**
+ * Data Transfer Object for alert outbox entries.
+ * Holds a snapshot of an alert as it was when it was added or changed,
+ * with the position of the entry in the outbox.
+ * @author Simon
+ */
+public class OutboxEntryDTO {
+    private long outboxID;
+    private AlertDTO alert;
+    private Timestamp createdAt;
+
+    /**
+     * Default constructor.
+     */
+    public OutboxEntryDTO() {}
+
+    /**
+     * Constructs an OutboxEntryDTO with specified parameters.
+     *
+     * @param outboxID the position of the entry in the outbox
+     * @param alert the alert as it was when the entry was written
+     * @param createdAt the time the entry was written
+     */
+    public OutboxEntryDTO(long outboxID, AlertDTO alert, Timestamp createdAt) {
+        this.outboxID = outboxID;
+        this.alert = alert;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * @return the position of the entry in the outbox
+     */
+    public long getOutboxID() { return outboxID; }
+
+    /**
+     * @param outboxID the position of the entry to set
+     */
+    public void setOutboxID(long outboxID) { this.outboxID = outboxID; }
+
+    /**
+     * @return the alert as it was when the entry was written
+     */
+    public AlertDTO getAlert() { return alert; }
+
+    /**
+     * @param alert the alert snapshot to set
+     */
+    public void setAlert(AlertDTO alert) { this.alert = alert; }
+
+    /**
+     * @return the time the entry was written
+     */
+    public Timestamp getCreatedAt() { return createdAt; }
+
+    /**
+     * @param createdAt the time the entry was written to set
+     */
+    public void setCreatedAt(Timestamp createdAt) { this.createdAt = createdAt; }
+}
@@ -2,12 +2,15 @@ package transferobjects;
 
 /**
  * Data Transfer Object for station.
- * Contains basic details about transportation stations.
+ * Contains basic details about transportation stations. The coordinates are
+ * null for a station whose position has not been recorded.
  * @author jaces
  */
 public class StationDTO {
     private int stationID;
     private String stationName;
+    private Double latitude;
+    private Double longitude;
 
     /**
      * Default constructor.
@@ -44,4 +47,24 @@ public class StationDTO {
      * @param stationName the station name to set
      */
     public void setStationName(String stationName) { this.stationName = stationName; }
+    
+    /**
+     * @return the station latitude, or null if not recorded
+     */
+    public Double getLatitude() { return latitude; }
+    
+    /**
+     * @param latitude the station latitude to set
+     */
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    
+    /**
+     * @return the station longitude, or null if not recorded
+     */
+    public Double getLongitude() { return longitude; }
+    
+    /**
+     * @param longitude the station longitude to set
+     */
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
 }
\ No newline at end of file
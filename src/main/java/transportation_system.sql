@@ -22,6 +22,8 @@ CREATE TABLE Break (
 CREATE TABLE Station (
     Station_ID INT AUTO_INCREMENT NOT NULL,
     StationName VARCHAR(100) NOT NULL,
+    Latitude DECIMAL(9,6) NULL,
+    Longitude DECIMAL(9,6) NULL,
     CONSTRAINT Station_IDPK PRIMARY KEY (Station_ID)
 );
 
@@ -107,12 +109,31 @@ CREATE TABLE Alert (
     Vehicle_ID INT,
     Alert_Type VARCHAR(100),
     Alert_Reason TEXT,
+    Rule_Group VARCHAR(50) NULL,
     Status VARCHAR(50),
     Alert_Time TIMESTAMP,
     CONSTRAINT Alert_IDPK PRIMARY KEY (Alert_ID),
     FOREIGN KEY (Vehicle_ID) REFERENCES Vehicle(Vehicle_ID)
 );
 
+CREATE TABLE Alert_Outbox (
+    Outbox_ID BIGINT AUTO_INCREMENT NOT NULL,
+    Alert_ID INT NOT NULL,
+    Vehicle_ID INT,
+    Alert_Type VARCHAR(100),
+    Alert_Reason TEXT,
+    Status VARCHAR(50),
+    Alert_Time TIMESTAMP NULL,
+    Created_At TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT Alert_Outbox_IDPK PRIMARY KEY (Outbox_ID)
+);
+
+CREATE TABLE Outbox_Cursor (
+    Listener_Name VARCHAR(100) NOT NULL,
+    Last_Outbox_ID BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT Outbox_Cursor_PK PRIMARY KEY (Listener_Name)
+);
+
 CREATE TABLE Trip (
     Trip_ID INT AUTO_INCREMENT NOT NULL,
     User_ID INT NOT NULL,
@@ -132,14 +153,23 @@ CREATE TABLE Trip (
 CREATE TABLE Location (
     Location_ID INT AUTO_INCREMENT NOT NULL,
     Vehicle_ID INT NOT NULL,
-    Latitude DECIMAL(5,2),
-    Longitude DECIMAL(5,2),
+    Latitude DECIMAL(9,6),
+    Longitude DECIMAL(9,6),
     Updated TIMESTAMP NOT NULL,
-    Most_Recent BOOLEAN NOT NULL,
     CONSTRAINT Location_IDPK PRIMARY KEY (Location_ID),
     CONSTRAINT Vehicle_IDFKey FOREIGN KEY (Vehicle_ID) REFERENCES Vehicle(Vehicle_ID)
 );
 
+-- One row per vehicle holding its latest position; Location keeps the history
+CREATE TABLE Location_Current (
+    Vehicle_ID INT NOT NULL,
+    Latitude DECIMAL(9,6),
+    Longitude DECIMAL(9,6),
+    Updated TIMESTAMP NOT NULL,
+    CONSTRAINT Location_Current_IDPK PRIMARY KEY (Vehicle_ID),
+    CONSTRAINT Location_Current_VehicleFK FOREIGN KEY (Vehicle_ID) REFERENCES Vehicle(Vehicle_ID)
+);
+
 -- Insert into User
 INSERT INTO User (Name, Password, Email, User_Type) VALUES
 ('Simon', 'simon123', 'simon@example.com', 'OPERATOR'),
@@ -151,13 +181,13 @@ INSERT INTO User (Name, Password, Email, User_Type) VALUES
 ('Wei', 'wei123', 'wei@example.com', 'OPERATOR');
 
 -- Insert into Station
-INSERT INTO Station (StationName) VALUES
-('Woodroffe / David Station'),
-('Baseline Station'),
-('Fallowfield Station'),
-('Tunneys Pasture Station'),
-('Westboro Station'),
-('Kanata Station');
+INSERT INTO Station (StationName, Latitude, Longitude) VALUES
+('Woodroffe / David Station', 45.359000, -75.757500),
+('Baseline Station', 45.347700, -75.760600),
+('Fallowfield Station', 45.298000, -75.734500),
+('Tunneys Pasture Station', 45.403600, -75.735200),
+('Westboro Station', 45.396300, -75.752000),
+('Kanata Station', 45.309200, -75.906400);
 
 -- Insert into Route
 INSERT INTO Route (Distance, Expected_Duration) VALUES
@@ -248,10 +278,13 @@ INSERT INTO Trip (Vehicle_ID, User_ID, Route_ID, Start_Time, End_Time, Fuel_Used
 (6, 6, 6, '2025-08-05 10:10:00', '2025-08-05 13:10:00', 18.0, 3.2, TRUE);
 
 -- Insert into Location
-INSERT INTO Location (Vehicle_ID, Latitude, Longitude, Updated, Most_Recent) VALUES
-(1, 45.42, -75.69, CURRENT_TIMESTAMP, TRUE),
-(2, 45.43, -75.68, CURRENT_TIMESTAMP, TRUE),
-(3, 45.44, -75.67, CURRENT_TIMESTAMP, TRUE),
-(4, 45.45, -75.66, CURRENT_TIMESTAMP, TRUE),
-(5, 45.46, -75.65, CURRENT_TIMESTAMP, TRUE),
-(6, 45.47, -75.64, CURRENT_TIMESTAMP, TRUE);
\ No newline at end of file
+INSERT INTO Location (Vehicle_ID, Latitude, Longitude, Updated) VALUES
+(1, 45.42, -75.69, CURRENT_TIMESTAMP),
+(2, 45.43, -75.68, CURRENT_TIMESTAMP),
+(3, 45.44, -75.67, CURRENT_TIMESTAMP),
+(4, 45.45, -75.66, CURRENT_TIMESTAMP),
+(5, 45.46, -75.65, CURRENT_TIMESTAMP),
+(6, 45.47, -75.64, CURRENT_TIMESTAMP);
+
+INSERT INTO Location_Current (Vehicle_ID, Latitude, Longitude, Updated)
+SELECT Vehicle_ID, Latitude, Longitude, Updated FROM Location;
\ No newline at end of file
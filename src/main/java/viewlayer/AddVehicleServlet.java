@@ -1,6 +1,7 @@
 package viewlayer;
 
 import businesslayer.FleetManagementBusinessLogic;
+import businesslayer.ServiceRegistry;
 import constants.VehicleFuelType;
 import constants.VehicleType;
 import java.io.IOException;
@@ -117,7 +118,7 @@ public class AddVehicleServlet extends HttpServlet {
                         }
                     }
                     
-                    FleetManagementBusinessLogic logic = new FleetManagementBusinessLogic();
+                    FleetManagementBusinessLogic logic = ServiceRegistry.getInstance().getFleetLogic();
 
                     boolean error = logic.addVehicle(
                         vehicleType, 
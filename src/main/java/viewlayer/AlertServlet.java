@@ -2,9 +2,11 @@ package viewlayer;
 
 import businesslayer.FleetManagementBusinessLogic;
 import businesslayer.VehicleAlertBusinessLogic;
+import businesslayer.ServiceRegistry;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.List;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -15,7 +17,8 @@ import transferobjects.AlertDTO;
 
 /**
  * Servlet for displaying and managing vehicle alerts.
- * Supports viewing active or all alerts and resolving them.
+ * Supports viewing unresolved or all alerts, resolving them one at a time, and
+ * acknowledging or resolving a selection of them at once.
  * @author jaces
  */
 @WebServlet(name = "AlertServlet", urlPatterns = {"/AlertServlet"})
@@ -32,7 +35,7 @@ public class AlertServlet extends HttpServlet {
     @Override
     public void init() throws ServletException {
         super.init();
-        fleetLogic = new FleetManagementBusinessLogic();
+        fleetLogic = ServiceRegistry.getInstance().getFleetLogic();
     }
     /**
      * Processes both GET and POST requests to view or resolve alerts.
@@ -53,10 +56,18 @@ protected void processRequest(HttpServletRequest request, HttpServletResponse re
     
     if ("POST".equalsIgnoreCase(request.getMethod())) {
         String alertIdParam = request.getParameter("alertId");
+        String[] alertIdParams = request.getParameterValues("alertIds");
+        String bulkAction = request.getParameter("bulkAction");
+        VehicleAlertBusinessLogic alertLogic = fleetLogic.getAlertLogic();
         if (alertIdParam != null && !alertIdParam.isEmpty()) {
             int alertId = Integer.parseInt(alertIdParam);
-            VehicleAlertBusinessLogic alertLogic = fleetLogic.getAlertLogic();
             alertLogic.processAlert(alertId, "RESOLVE");
+        } else if (alertIdParams != null && ("RESOLVE".equals(bulkAction) || "ACKNOWLEDGE".equals(bulkAction))) {
+            List<Integer> alertIds = new ArrayList<>();
+            for (String id : alertIdParams) {
+                alertIds.add(Integer.parseInt(id));
+            }
+            alertLogic.processAlerts(alertIds, bulkAction);
         }
     }
 
@@ -74,6 +85,7 @@ protected void processRequest(HttpServletRequest request, HttpServletResponse re
         out.println("th { background-color: #f9f9f9; position: sticky; top: 0; }");
         out.println("tr:nth-child(even) { background-color: #f9f9f9; }");
         out.println(".active { color: red; font-weight: bold; }");
+        out.println("tr.escalated { background-color: #FFE4B5; color: #B22222; font-weight: bold; }");
 
         out.println(".resolve-btn { padding: 5px 10px; background-color: #f44336; color: white; border: none; border-radius: 3px; cursor: pointer; }");
         out.println(".resolve-btn:hover { background-color: #d32f2f; }");
@@ -87,13 +99,16 @@ protected void processRequest(HttpServletRequest request, HttpServletResponse re
         out.println("<form action='FrontController' method='get'><button type='submit' name='action' value='dashboard'>Back to Dashboard</button></form>");
         
         VehicleAlertBusinessLogic alertLogic = fleetLogic.getAlertLogic();
-        List<AlertDTO> alerts = activeOnly ? alertLogic.getActiveAlerts() : alertLogic.getAllAlerts();
+        List<AlertDTO> alerts = activeOnly ? alertLogic.getOpenAlerts() : alertLogic.getAllAlerts();
         
-        alerts.sort((a1, a2) -> {
-            boolean a1Active = "ACTIVE".equals(a1.getStatus());
-            boolean a2Active = "ACTIVE".equals(a2.getStatus());
-            return Boolean.compare(a2Active, a1Active);
-        });
+        alerts.sort((a1, a2) -> Integer.compare(urgency(a1.getStatus()), urgency(a2.getStatus())));
+        
+        out.println("<br><form id='bulk-form' method='post' action='AlertServlet'>");
+        out.println("<input type='hidden' name='showActive' value='" + activeOnly + "'>");
+        out.println("<label><input type='checkbox' onclick=\"document.querySelectorAll('input[name=alertIds]').forEach(function(c) { c.checked = this.checked; }, this)\"> Select all</label> ");
+        out.println("<button type='submit' name='bulkAction' value='ACKNOWLEDGE'>Acknowledge selected</button> ");
+        out.println("<button type='submit' name='bulkAction' value='RESOLVE' class='resolve-btn'>Resolve selected</button>");
+        out.println("</form>");
         
         out.println("<br><table>");
         out.println("<thead>");
@@ -107,15 +122,15 @@ protected void processRequest(HttpServletRequest request, HttpServletResponse re
         out.println("<th>Action</th>");
         out.println("</tr>");
         out.println("</thead>");
-        out.println("<tbody>");
+        out.println("<tbody id='alert-rows'>");
         
         if (alerts.isEmpty()) {
-            out.println("<tr><td colspan='7'>No alerts found</td></tr>");
+            out.println("<tr id='no-alerts'><td colspan='7'>No alerts found</td></tr>");
         } else {
             for (AlertDTO alert : alerts) {
-                boolean isActive = "ACTIVE".equals(alert.getStatus());
+                boolean isOpen = !"RESOLVED".equals(alert.getStatus());
                 
-                out.println("<tr class='" + (isActive ? "active" : "") + "'>");
+                out.println("<tr id='alert-" + alert.getAlertID() + "' class='" + rowClass(alert.getStatus()) + "'>");
                 out.println("<td>" + alert.getAlertID() + "</td>");
                 out.println("<td>" + alert.getVehicleID() + "</td>");
                 out.println("<td>" + alert.getAlertType() + "</td>");
@@ -124,12 +139,8 @@ protected void processRequest(HttpServletRequest request, HttpServletResponse re
                 out.println("<td>" + alert.getStatus() + "</td>");
                 
                 out.println("<td>");
-                if (isActive) {
-                    out.println("<form method='post' action='AlertServlet'>");
-                    out.println("<input type='hidden' name='alertId' value='" + alert.getAlertID() + "'>");
-                    out.println("<input type='hidden' name='showActive' value='" + activeOnly + "'>");
-                    out.println("<button type='submit' class='resolve-btn'>Resolve</button>");
-                    out.println("</form>");
+                if (isOpen) {
+                    out.println(openActions(String.valueOf(alert.getAlertID()), activeOnly));
                 } else {
                     out.println("Resolved");
                 }
@@ -141,6 +152,7 @@ protected void processRequest(HttpServletRequest request, HttpServletResponse re
         
         out.println("</tbody>");
         out.println("</table>");
+        printLiveUpdateScript(out, activeOnly);
         out.println("</center></body>");
         out.println("</html>");
     } finally {
@@ -148,6 +160,95 @@ protected void processRequest(HttpServletRequest request, HttpServletResponse re
     }
 }
 
+    /**
+     * Returns the sort rank of an alert status: escalated alerts first, then
+     * active, then acknowledged, then resolved.
+     *
+     * @param status the alert status
+     * @return the rank, lowest first
+     */
+    private static int urgency(String status) {
+        switch (String.valueOf(status)) {
+            case "ESCALATED":
+                return 0;
+            case "ACTIVE":
+                return 1;
+            case "RESOLVED":
+                return 3;
+            default:
+                return 2;
+        }
+    }
+
+    /**
+     * Returns the CSS class of a table row for an alert status, highlighting
+     * active and escalated alerts.
+     *
+     * @param status the alert status
+     * @return the class name, or an empty string for none
+     */
+    private static String rowClass(String status) {
+        if ("ESCALATED".equals(status)) {
+            return "escalated";
+        }
+        return "ACTIVE".equals(status) ? "active" : "";
+    }
+
+    /**
+     * Returns the action cell markup of an unresolved alert: its bulk
+     * selection checkbox and its resolve form. Used for the rows written here
+     * and, as a template, for the rows the live update script adds.
+     *
+     * @param alertId the alert ID, or an empty string for the template
+     * @param activeOnly true if only unresolved alerts are shown
+     * @return the action cell markup
+     */
+    private static String openActions(String alertId, boolean activeOnly) {
+        return "<input type='checkbox' name='alertIds' form='bulk-form' value='" + alertId + "'>"
+                + "<form method='post' action='AlertServlet'>"
+                + "<input type='hidden' name='alertId' value='" + alertId + "'>"
+                + "<input type='hidden' name='showActive' value='" + activeOnly + "'>"
+                + "<button type='submit' class='resolve-btn'>Resolve</button>"
+                + "</form>";
+    }
+
+    /**
+     * Writes the script that subscribes to the alert stream and adds or updates
+     * table rows as alerts are raised and change status, so the page does not
+     * need to be reloaded. The action cell of an unresolved alert is cloned
+     * from a template holding the same markup as the rows written by the
+     * servlet.
+     *
+     * @param out the writer for the page
+     * @param activeOnly true if only unresolved alerts are shown
+     */
+    private void printLiveUpdateScript(PrintWriter out, boolean activeOnly) {
+        out.println("<template id='open-actions'>" + openActions("", activeOnly) + "</template>");
+        out.println("<script>");
+        out.println("var activeOnly = " + activeOnly + ";");
+        out.println("function cell(row, text) { var td = row.insertCell(-1); td.textContent = text; return td; }");
+        out.println("var source = new EventSource('AlertStream');");
+        out.println("source.addEventListener('alert', function(e) {");
+        out.println("  var a = JSON.parse(e.data);");
+        out.println("  var row = document.getElementById('alert-' + a.alertId);");
+        out.println("  if (activeOnly && a.status === 'RESOLVED') { if (row) row.remove(); return; }");
+        out.println("  if (!row) {");
+        out.println("    var empty = document.getElementById('no-alerts'); if (empty) empty.remove();");
+        out.println("    row = document.getElementById('alert-rows').insertRow(0); row.id = 'alert-' + a.alertId;");
+        out.println("  }");
+        out.println("  while (row.cells.length) row.deleteCell(0);");
+        out.println("  row.className = a.status === 'ESCALATED' ? 'escalated' : a.status === 'ACTIVE' ? 'active' : '';");
+        out.println("  [a.alertId, a.vehicleId, a.type, a.reason, a.time, a.status].forEach(function(v) { cell(row, v); });");
+        out.println("  var open = a.status !== 'RESOLVED';");
+        out.println("  var action = cell(row, open ? '' : 'Resolved');");
+        out.println("  if (open) {");
+        out.println("    action.appendChild(document.getElementById('open-actions').content.cloneNode(true));");
+        out.println("    action.querySelectorAll('input[name=alertId], input[name=alertIds]').forEach(function(i) { i.value = a.alertId; });");
+        out.println("  }");
+        out.println("});");
+        out.println("</script>");
+    }
+
     /**
      * Handles the HTTP GET request.
      * Forwards to processRequest to display the alert list.
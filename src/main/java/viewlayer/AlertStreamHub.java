@@ -0,0 +1,299 @@
+package viewlayer;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import observer.Listener;
+import observer.VehicleEvent;
+import transferobjects.AlertDTO;
+
+/**
+ * Pushes new and changed alerts to every connected Server-Sent Events client.
+ * Each alert event gets an increasing ID and is kept in a bounded ring buffer,
+ * so a client that reconnects with a Last-Event-ID header is sent the events
+ * it missed. IDs start from the clock when the hub is created, so they keep
+ * increasing across restarts; a client whose Last-Event-ID is still ahead of
+ * the hub is sent the whole buffer. Idle connections receive a periodic comment line so broken
+ * clients are detected and dropped. Events are queued per client and written
+ * by writer threads, so a slow client never holds up the publisher or other
+ * clients; a client that falls too far behind is disconnected and can catch
+ * up by reconnecting.
+ * @author jaces
+ */
+public class AlertStreamHub implements Listener {
+
+    /**
+     * Default number of past events kept for replay.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+
+    private static final long HEARTBEAT_SECONDS = 15;
+
+    private final String[] ring;
+    private final long[] ringIds;
+    private long lastId;
+    private final Map<AsyncContext, Client> clients = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService heartbeat;
+    private final ExecutorService writers;
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * Creates a hub that keeps the given number of past events for replay.
+     *
+     * @param bufferSize number of events kept for replay
+     */
+    public AlertStreamHub(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        ring = new String[bufferSize];
+        ringIds = new long[bufferSize];
+        lastId = System.currentTimeMillis();
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "alert-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "alert-stream-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeat,
+                HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Records the alert in the replay buffer and queues it for every client.
+     * Events are queued under the buffer lock so every client receives them
+     * in ID order; the writes happen outside it.
+     *
+     * @param eventType the type of vehicle event that occurred
+     * @param alert the new or changed alert
+     */
+    @Override
+    public void onAlert(VehicleEvent eventType, AlertDTO alert) {
+        List<Client> lagging = new ArrayList<>();
+        synchronized (ring) {
+            long id = ++lastId;
+            String message = "id: " + id + "\nevent: alert\ndata: " + toJson(eventType, alert) + "\n\n";
+            int slot = (int) (id % ring.length);
+            ring[slot] = message;
+            ringIds[slot] = id;
+            for (Client client : clients.values()) {
+                if (!client.queue.offer(message)) {
+                    lagging.add(client);
+                }
+            }
+        }
+        for (Client client : lagging) {
+            disconnect(client.context);
+        }
+        for (Client client : clients.values()) {
+            schedule(client);
+        }
+    }
+
+    /**
+     * Registers a client, first sending it every buffered event newer than
+     * lastEventId. An ID the hub has not reached, such as one from before a
+     * restart, sends every buffered event.
+     *
+     * @param context the started async context of the client request
+     * @param lastEventId the last event ID the client saw, or 0 for none
+     */
+    public void connect(AsyncContext context, long lastEventId) {
+        context.setTimeout(0);
+        context.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                clients.remove(context);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                disconnect(context);
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                disconnect(context);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        Client client = new Client(context, 2 * ring.length);
+        synchronized (ring) {
+            long seen = lastEventId > lastId ? 0 : lastEventId;
+            long first = Math.max(seen + 1, lastId - ring.length + 1);
+            for (long id = first; id <= lastId; id++) {
+                int slot = (int) (id % ring.length);
+                if (ringIds[slot] == id) {
+                    client.queue.add(ring[slot]);
+                }
+            }
+            clients.put(context, client);
+        }
+        schedule(client);
+    }
+
+    /**
+     * @return the number of connected clients
+     */
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    /**
+     * Stops the heartbeat and the writers and closes every client connection.
+     */
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        writers.shutdownNow();
+        for (AsyncContext client : clients.keySet()) {
+            disconnect(client);
+        }
+    }
+
+    private void sendHeartbeat() {
+        for (Client client : clients.values()) {
+            if (client.queue.offer(": keep-alive\n\n")) {
+                schedule(client);
+            } else {
+                disconnect(client.context);
+            }
+        }
+    }
+
+    /**
+     * Hands the client to a writer thread if it has queued events.
+     */
+    private void schedule(Client client) {
+        if (client.queue.isEmpty()) {
+            return;
+        }
+        try {
+            writers.execute(() -> drain(client));
+        } catch (RejectedExecutionException e) {
+            // shutting down
+        }
+    }
+
+    /**
+     * Writes the client's queued events in order. Only one writer drains a
+     * client at a time; an event queued while the writer is finishing is
+     * picked up by the loop.
+     */
+    private void drain(Client client) {
+        while (!client.queue.isEmpty() && client.writing.compareAndSet(false, true)) {
+            try {
+                String message;
+                while ((message = client.queue.poll()) != null) {
+                    if (!send(client.context, message)) {
+                        client.queue.clear();
+                        return;
+                    }
+                }
+            } finally {
+                client.writing.set(false);
+            }
+        }
+    }
+
+    private boolean send(AsyncContext client, String message) {
+        try {
+            PrintWriter out = client.getResponse().getWriter();
+            out.write(message);
+            out.flush();
+            if (out.checkError()) {
+                throw new IOException("Client disconnected");
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            disconnect(client);
+            return false;
+        }
+    }
+
+    private void disconnect(AsyncContext client) {
+        if (clients.remove(client) != null || client.getRequest().isAsyncStarted()) {
+            try {
+                client.complete();
+            } catch (IllegalStateException e) {
+                // already completed by the container
+            }
+        }
+    }
+
+    private String toJson(VehicleEvent eventType, AlertDTO alert) {
+        String time = alert.getAlertTime() == null ? "" : dateFormat.format(alert.getAlertTime());
+        return "{\"event\":\"" + eventType.name() + "\""
+                + ",\"alertId\":" + alert.getAlertID()
+                + ",\"vehicleId\":" + alert.getVehicleID()
+                + ",\"type\":\"" + escape(alert.getAlertType()) + "\""
+                + ",\"reason\":\"" + escape(alert.getAlertReason()) + "\""
+                + ",\"time\":\"" + time + "\""
+                + ",\"status\":\"" + escape(alert.getStatus()) + "\"}";
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    escaped.append("\\\"");
+                    break;
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        escaped.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * A connected client and the events waiting to be written to it.
+     */
+    private static final class Client {
+        private final AsyncContext context;
+        private final BlockingQueue<String> queue;
+        private final AtomicBoolean writing = new AtomicBoolean();
+
+        private Client(AsyncContext context, int capacity) {
+            this.context = context;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+}
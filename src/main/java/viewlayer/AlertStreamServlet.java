@@ -0,0 +1,64 @@
+package viewlayer;
+
+import java.io.IOException;
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+/**
+ * Server-Sent Events endpoint that streams new and changed alerts to the
+ * alert page, so it no longer has to be reloaded to see them. Clients that
+ * reconnect are sent the events they missed, based on the Last-Event-ID
+ * header.
+ * @author jaces
+ */
+@WebServlet(name = "AlertStreamServlet", urlPatterns = {"/AlertStream"}, asyncSupported = true)
+public class AlertStreamServlet extends HttpServlet {
+
+    /**
+     * Opens the event stream for a logged in user.
+     *
+     * @param request the HTTP request
+     * @param response the HTTP response
+     * @throws ServletException if a servlet-related error occurs
+     * @throws IOException if an input/output error occurs
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        HttpSession session = request.getSession(false);
+        if (session == null || session.getAttribute("user") == null) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        AlertStreamHub hub = (AlertStreamHub) getServletContext()
+                .getAttribute(ApplicationStartupListener.ALERT_STREAM_ATTRIBUTE);
+        if (hub == null) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        long lastEventId = 0;
+        String header = request.getHeader("Last-Event-ID");
+        if (header != null) {
+            try {
+                lastEventId = Long.parseLong(header.trim());
+            } catch (NumberFormatException e) {
+                lastEventId = 0;
+            }
+        }
+
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        response.getWriter().write("retry: 5000\n\n");
+        response.flushBuffer();
+
+        AsyncContext context = request.startAsync();
+        hub.connect(context, lastEventId);
+    }
+}
@@ -0,0 +1,133 @@
+package viewlayer;
+
+import businesslayer.ServiceRegistry;
+import dataaccesslayer.DataSource;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+/**
+ * Prepares shared application state when the web application starts and
+ * releases it when the application stops. Creates the ServiceRegistry that
+ * servlets take their services from, loads the route and station snapshot
+ * and keeps it and the alert rules refreshed in the background. Also
+ * schedules the fleet health sweep.
+ * @author Simon
+ */
+@WebListener
+public class ApplicationStartupListener implements ServletContextListener {
+
+    /**
+     * Minutes between scheduled reloads of the route and station snapshot.
+     */
+    private static final long REFERENCE_DATA_REFRESH_MINUTES = 5;
+
+    /**
+     * Minutes between reloads of the alert rules.
+     */
+    private static final long ALERT_RULES_RELOAD_MINUTES = 1;
+
+    /**
+     * Minutes between fleet health sweeps.
+     */
+    private static final long HEALTH_SWEEP_MINUTES = 10;
+
+    /**
+     * Milliseconds between rounds of the alert outbox relay.
+     */
+    private static final long OUTBOX_RELAY_MILLIS = 200;
+
+    /**
+     * Seconds between writes of station visits detected from location updates.
+     */
+    private static final long STATION_VISIT_FLUSH_SECONDS = 5;
+
+    /**
+     * Name the AlertStreamHub reads the alert outbox under.
+     */
+    private static final String ALERT_STREAM_LISTENER = "alert-stream";
+
+    /**
+     * Name of the servlet context attribute holding the ServiceRegistry.
+     */
+    public static final String SERVICE_REGISTRY_ATTRIBUTE = "serviceRegistry";
+
+    /**
+     * Name of the servlet context attribute holding the AlertStreamHub.
+     */
+    public static final String ALERT_STREAM_ATTRIBUTE = "alertStreamHub";
+
+    /**
+     * Creates the service registry and the alert stream, loads reference data
+     * and the alert index, restores the escalation timers of active alerts,
+     * and starts the scheduled background tasks.
+     *
+     * @param event the servlet context event
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        ServiceRegistry registry = ServiceRegistry.initialize();
+        event.getServletContext().setAttribute(SERVICE_REGISTRY_ATTRIBUTE, registry);
+
+        AlertStreamHub alertStream = new AlertStreamHub(AlertStreamHub.DEFAULT_BUFFER_SIZE);
+        registry.getOutboxRelay().subscribe(ALERT_STREAM_LISTENER, alertStream);
+        event.getServletContext().setAttribute(ALERT_STREAM_ATTRIBUTE, alertStream);
+
+        try {
+            registry.getReferenceData().start(REFERENCE_DATA_REFRESH_MINUTES, TimeUnit.MINUTES);
+        } catch (RuntimeException e) {
+            // The refresh schedule is running and the snapshot is loaded lazily on first use
+            event.getServletContext().log("Could not load reference data at startup", e);
+        }
+        registry.getAlertRules().start(ALERT_RULES_RELOAD_MINUTES, TimeUnit.MINUTES);
+        registry.getHealthSweep().start(HEALTH_SWEEP_MINUTES, TimeUnit.MINUTES);
+
+        try {
+            registry.getAlertDAO().rebuild();
+        } catch (RuntimeException e) {
+            // The alert index is loaded lazily on first use instead
+            event.getServletContext().log("Could not load the alert index at startup", e);
+        }
+
+        try {
+            registry.getEscalation().rebuild();
+        } catch (RuntimeException e) {
+            event.getServletContext().log("Could not restore alert escalation timers at startup", e);
+        }
+
+        try {
+            registry.getLivePositions().load();
+        } catch (RuntimeException e) {
+            // The positions are loaded lazily on first use instead
+            event.getServletContext().log("Could not load vehicle positions at startup", e);
+        }
+        registry.getOutboxRelay().start(OUTBOX_RELAY_MILLIS, TimeUnit.MILLISECONDS);
+        registry.getGeofence().start(STATION_VISIT_FLUSH_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops background work and closes pooled database connections.
+     *
+     * @param event the servlet context event
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+        // Use the registry created at startup; getInstance() would create a
+        // new one, with its threads, if it is already gone
+        ServiceRegistry registry = (ServiceRegistry) event.getServletContext()
+                .getAttribute(SERVICE_REGISTRY_ATTRIBUTE);
+        AlertStreamHub alertStream = (AlertStreamHub) event.getServletContext()
+                .getAttribute(ALERT_STREAM_ATTRIBUTE);
+        if (alertStream != null) {
+            if (registry != null) {
+                registry.getOutboxRelay().unsubscribe(ALERT_STREAM_LISTENER);
+            }
+            alertStream.shutdown();
+            event.getServletContext().removeAttribute(ALERT_STREAM_ATTRIBUTE);
+        }
+        event.getServletContext().removeAttribute(SERVICE_REGISTRY_ATTRIBUTE);
+        ServiceRegistry.shutdown();
+        DataSource.shutdown();
+    }
+}
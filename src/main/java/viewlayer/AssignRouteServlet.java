@@ -1,6 +1,7 @@
 package viewlayer;
 
 import businesslayer.FleetManagementBusinessLogic;
+import businesslayer.ServiceRegistry;
 import constants.OperatorType;
 import transferobjects.UserDTO;
 import transferobjects.VehicleDTO;
@@ -28,7 +29,7 @@ public class AssignRouteServlet extends HttpServlet {
  */
     @Override
     public void init() throws ServletException {
-        businessLogic = new FleetManagementBusinessLogic();
+        businessLogic = ServiceRegistry.getInstance().getFleetLogic();
     }
 
 /**
@@ -92,10 +93,7 @@ public class AssignRouteServlet extends HttpServlet {
                     int rId = Integer.parseInt(routeId);
 
                     VehicleDTO vehicle = businessLogic.getVehicleById(vId);
-                    List<RouteDTO> routes = businessLogic.getAllRoutes();
-                    RouteDTO selectedRoute = routes.stream()
-                        .filter(r -> r.getRouteID() == rId)
-                        .findFirst().orElse(null);
+                    RouteDTO selectedRoute = businessLogic.getRouteById(rId);
 
                     if (vehicle != null && selectedRoute != null) {
                         // TODO: Update vehicle's current route in DB if needed
@@ -1,6 +1,7 @@
 package viewlayer;
 
 import businesslayer.FleetManagementBusinessLogic;
+import businesslayer.ServiceRegistry;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.time.LocalDateTime;
@@ -84,7 +85,7 @@ public class CompleteTripServlet extends HttpServlet {
             if ("POST".equals(request.getMethod())) {
                 try {
                     int vehicleId = Integer.parseInt(request.getParameter("vehicleId"));
-                    FleetManagementBusinessLogic logic = new FleetManagementBusinessLogic();
+                    FleetManagementBusinessLogic logic = ServiceRegistry.getInstance().getFleetLogic();
 
                     boolean success = logic.completeTrip(
                             user.getUserID(), 
@@ -121,8 +122,8 @@ public class CompleteTripServlet extends HttpServlet {
             if ("POST".equals(request.getMethod())) {
                 try {
                     int vehicleId = Integer.parseInt(request.getParameter("vehicleId"));
-                    FleetManagementBusinessLogic logic = new FleetManagementBusinessLogic();
-                    List<AlertDTO> alerts = logic.getAlertLogic().getAlertsByVehicle(vehicleId).stream()
+                    FleetManagementBusinessLogic logic = ServiceRegistry.getInstance().getFleetLogic();
+                    List<AlertDTO> alerts = logic.getAlertLogic().getOpenAlertsByVehicle(vehicleId).stream()
                             .filter(alert -> "ACTIVE".equals(alert.getStatus()))
                             .toList();
                     if (!alerts.isEmpty()) {
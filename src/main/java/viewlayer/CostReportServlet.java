@@ -1,7 +1,7 @@
 package viewlayer;
 
 import businesslayer.ReportsBusinessLogic;
-import dataaccesslayer.*;
+import businesslayer.ServiceRegistry;
 import transferobjects.FuelDTO;
 import transferobjects.MaintenanceDTO;
 
@@ -21,18 +21,13 @@ public class CostReportServlet extends HttpServlet {
     private ReportsBusinessLogic reportsLogic;
 
     /**
-     * Initializes the servlet and sets up the business logic with required DAOs.
+     * Initializes the servlet with the shared reports business logic.
      *
      * @throws ServletException if an initialization error occurs
      */
     @Override
     public void init() throws ServletException {
-        reportsLogic = new ReportsBusinessLogic(
-            new MaintenanceDAOImpl(),
-            new TripDAOImpl(),
-            new FuelDAOImpl(),
-            new VehicleDAOImpl()
-        );
+        reportsLogic = ServiceRegistry.getInstance().getReportsLogic();
     }
 
     /**
@@ -111,6 +111,9 @@ public class FrontController extends HttpServlet {
             else if(action.equals("seeAlerts")) {
                 response.sendRedirect("/AlertServlet");
             }
+            else if(action.equals("nearbyVehicles")) {
+                response.sendRedirect("/NearbyVehiclesServlet");
+            }
             else if(action.equals("logTrip")) {
                 response.sendRedirect("/CompleteTripServlet");
 
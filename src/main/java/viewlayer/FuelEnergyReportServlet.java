@@ -2,7 +2,7 @@ package viewlayer;
 
 import businesslayer.FleetManagementBusinessLogic;
 import businesslayer.ReportsBusinessLogic;
-import dataaccesslayer.*;
+import businesslayer.ServiceRegistry;
 
 import transferobjects.RouteDTO;
 import transferobjects.TripDTO;
@@ -41,14 +41,8 @@ public class FuelEnergyReportServlet extends HttpServlet {
      */
     @Override
     public void init() throws ServletException {
-        fleetLogic = new FleetManagementBusinessLogic();
-
-        MaintenanceDAO maintenanceDAO = new MaintenanceDAOImpl();
-        TripDAO tripDAO = new TripDAOImpl();
-        FuelDAO fuelDAO = new FuelDAOImpl();
-        VehicleDAO vehicleDAO = new VehicleDAOImpl();
-
-        reportsLogic = new ReportsBusinessLogic(maintenanceDAO, tripDAO, fuelDAO, vehicleDAO);
+        fleetLogic = ServiceRegistry.getInstance().getFleetLogic();
+        reportsLogic = ServiceRegistry.getInstance().getReportsLogic();
     }
     /**
      * Handles HTTP GET requests. Displays a form to select vehicle type and
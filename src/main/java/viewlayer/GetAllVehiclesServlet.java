@@ -2,6 +2,7 @@ package viewlayer;
 
 import transferobjects.VehicleDTO;
 import businesslayer.FleetManagementBusinessLogic;
+import businesslayer.ServiceRegistry;
 import java.io.IOException;
 import java.util.List;
 import javax.servlet.ServletException;
@@ -16,7 +17,7 @@ import javax.servlet.http.HttpServletResponse;
  */
 public class GetAllVehiclesServlet extends HttpServlet {
 
-    private final FleetManagementBusinessLogic businessLogic = new FleetManagementBusinessLogic();
+    private final FleetManagementBusinessLogic businessLogic = ServiceRegistry.getInstance().getFleetLogic();
 
     /**
      * Handles the HTTP GET method.
@@ -2,10 +2,13 @@
 package viewlayer;
 
 import businesslayer.FleetManagementBusinessLogic;
+import businesslayer.RouteStationGraph;
+import businesslayer.ServiceRegistry;
 import constants.OperatorType;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ListIterator;
 import javax.servlet.ServletException;
@@ -50,8 +53,9 @@ public class InsertStationVisitController extends HttpServlet {
         LocalDateTime arrivalTime = LocalDateTime.parse(request.getParameter("arrivalTime"));
         LocalDateTime departureTime = LocalDateTime.parse(request.getParameter("departureTime"));
         
-        FleetManagementBusinessLogic logic = new FleetManagementBusinessLogic();
+        FleetManagementBusinessLogic logic = ServiceRegistry.getInstance().getFleetLogic();
         List<StationDTO> stations = logic.getAllStations();
+        RouteStationGraph graph = logic.getRouteStationGraph();
         try(PrintWriter out = response.getWriter()) {
             out.println("<!DOCTYPE html>");
             out.println("<html lang=\"en\">");
@@ -72,6 +76,7 @@ public class InsertStationVisitController extends HttpServlet {
             out.println("<tr>");
             out.println("<th>Station ID</th>");
             out.println("<th>Name</th>");
+            out.println("<th>Routes</th>");
             out.println("</tr>");
             if(stations.size() != 0) {
                 ListIterator<StationDTO> iter = stations.listIterator();
@@ -80,6 +85,7 @@ public class InsertStationVisitController extends HttpServlet {
                     out.println("<tr>");
                     out.println("<td>" + station.getStationID() + "</td>");
                     out.println("<td>" + station.getStationName() + "</td>");
+                    out.println("<td>" + Arrays.toString(graph.getRouteIds(station.getStationID())) + "</td>");
                     out.println("</tr>");
                 }
             }
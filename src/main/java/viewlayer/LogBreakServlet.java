@@ -1,6 +1,7 @@
 package viewlayer;
 
 import businesslayer.FleetManagementBusinessLogic;
+import businesslayer.ServiceRegistry;
 import constants.OperatorType;
 import transferobjects.UserDTO;
 import javax.servlet.ServletException;
@@ -72,7 +73,7 @@ public class LogBreakServlet extends HttpServlet {
         }
         UserDTO user = (session != null) ? (UserDTO) session.getAttribute("user") : null;
         String userType = user.getUserType();
-        FleetManagementBusinessLogic logic = new FleetManagementBusinessLogic();
+        FleetManagementBusinessLogic logic = ServiceRegistry.getInstance().getFleetLogic();
         
         response.setContentType("text/html");
         
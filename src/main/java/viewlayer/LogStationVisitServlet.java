@@ -2,9 +2,12 @@
 package viewlayer;
 
 import businesslayer.FleetManagementBusinessLogic;
+import businesslayer.RouteStationGraph;
+import businesslayer.ServiceRegistry;
 import constants.OperatorType;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ListIterator;
 import javax.servlet.ServletException;
@@ -42,8 +45,9 @@ public class LogStationVisitServlet extends HttpServlet {
         UserDTO user = (session != null) ? (UserDTO) session.getAttribute("user") : null; 
         String userType = user.getUserType();
         
-        FleetManagementBusinessLogic logic = new FleetManagementBusinessLogic();
+        FleetManagementBusinessLogic logic = ServiceRegistry.getInstance().getFleetLogic();
         List<StationDTO> stations = logic.getAllStations();
+        RouteStationGraph graph = logic.getRouteStationGraph();
         try(PrintWriter out = response.getWriter()) {
             out.println("<!DOCTYPE html>");
             out.println("<html lang=\"en\">");
@@ -70,6 +74,7 @@ public class LogStationVisitServlet extends HttpServlet {
             out.println("<tr>");
             out.println("<th>Station ID</th>");
             out.println("<th>Name</th>");
+            out.println("<th>Routes</th>");
             out.println("</tr>");
             if(stations.size() != 0) {
                 ListIterator<StationDTO> iter = stations.listIterator();
@@ -78,6 +83,7 @@ public class LogStationVisitServlet extends HttpServlet {
                     out.println("<tr>");
                     out.println("<td>" + station.getStationID() + "</td>");
                     out.println("<td>" + station.getStationName() + "</td>");
+                    out.println("<td>" + Arrays.toString(graph.getRouteIds(station.getStationID())) + "</td>");
                     out.println("</tr>");
                 }
             }
@@ -1,6 +1,7 @@
 package viewlayer;
 
 import businesslayer.FleetManagementBusinessLogic;
+import businesslayer.ServiceRegistry;
 import transferobjects.UserDTO;
 
 
@@ -44,7 +45,7 @@ public class LoginServlet extends HttpServlet {
         credentials.setEmail(email);
         credentials.setPassword(password);
         
-        FleetManagementBusinessLogic logic = new FleetManagementBusinessLogic();
+        FleetManagementBusinessLogic logic = ServiceRegistry.getInstance().getFleetLogic();
         
         try {
             
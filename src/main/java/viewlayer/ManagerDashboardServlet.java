@@ -54,6 +54,7 @@ public class ManagerDashboardServlet extends HttpServlet {
             out.println("<form action='FrontController' method='get'><button type='submit' name='action' value='logBreak' style='width: 180px;'>Log Break</button></form>");
             out.println("<form action='FrontController' method='get'><button type='submit' name='action' value='operatorPerformance' style='width: 180px;'>Review Operator Performance</button></form>");
             out.println("<form action='FrontController' method='get'><button type='submit' name='action' value='seeAlerts' style='width: 180px;'>View Alerts</button></form>");
+            out.println("<form action='FrontController' method='get'><button type='submit' name='action' value='nearbyVehicles' style='width: 180px;'>Find Nearby Vehicles</button></form>");
             out.println("<form action='FrontController' method='get'><button type='submit' name='action' value='logTrip' style='width: 180px;'>Log a Trip</button></form>");
             out.println("<form action='FrontController' method='get'><button type='submit' name='action' value='getAllVehicles' style='width: 180px;'>Vehicles Table</button></form>");
             out.println("<form action='LogoutServlet' method='get'><button style='width: 180px;'>Logout</button></form>");
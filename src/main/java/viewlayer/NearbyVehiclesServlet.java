@@ -0,0 +1,173 @@
+package viewlayer;
+
+import businesslayer.FleetManagementBusinessLogic;
+import businesslayer.FleetSpatialIndex.Match;
+import businesslayer.ServiceRegistry;
+import constants.OperatorType;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import transferobjects.UserDTO;
+
+/**
+ * Servlet for dispatchers to find vehicles by position: every vehicle within
+ * a distance of a point, the vehicles nearest to a point, or every vehicle
+ * inside an area such as a map viewport.
+ * Only accessible by users with Transit Manager privileges.
+ * @author Simon
+ */
+@WebServlet(name = "NearbyVehiclesServlet", urlPatterns = {"/NearbyVehiclesServlet"})
+public class NearbyVehiclesServlet extends HttpServlet {
+
+    private FleetManagementBusinessLogic fleetLogic;
+
+    /**
+     * Initializes the servlet and sets up business logic.
+     *
+     * @throws ServletException if an error occurs during initialization
+     */
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        fleetLogic = ServiceRegistry.getInstance().getFleetLogic();
+    }
+
+    /**
+     * Shows the search form and, if a search was submitted, its results.
+     *
+     * @param request the HTTP request
+     * @param response the HTTP response
+     * @throws ServletException if a servlet-related error occurs
+     * @throws IOException if an input/output error occurs
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        HttpSession session = request.getSession(false);
+        UserDTO user = (session != null) ? (UserDTO) session.getAttribute("user") : null;
+
+        response.setContentType("text/html;charset=UTF-8");
+        PrintWriter out = response.getWriter();
+        out.println("<!DOCTYPE html>");
+        out.println("<html><head><title>Nearby Vehicles</title></head><body BGCOLOR=\"#FDF5E6\"><center>");
+        out.println("<h1>Nearby Vehicles</h1>");
+
+        if (user == null || !OperatorType.TRANSITMANAGER.equalsIgnoreCase(user.getUserType())) {
+            out.println("<h3>Error: Access denied. Manager privileges required.</h3>");
+        } else {
+            String mode = request.getParameter("mode");
+            printForms(out, request);
+            if (mode != null) {
+                try {
+                    printResults(out, search(mode, request));
+                } catch (NumberFormatException e) {
+                    out.println("<h3>Error: Invalid number format.</h3>");
+                } catch (IllegalArgumentException e) {
+                    out.println("<h3>Error: " + e.getMessage() + "</h3>");
+                }
+            }
+        }
+
+        out.println("<br><form action='FrontController' method='get'><button type='submit' name='action' value='dashboard'>Back to Dashboard</button></form>");
+        out.println("</center></body></html>");
+    }
+
+    /**
+     * Runs the search chosen by the mode parameter.
+     *
+     * @param mode radius, nearest or area
+     * @param request the HTTP request holding the search parameters
+     * @return the vehicles found
+     * @throws IllegalArgumentException if a parameter is missing or invalid
+     */
+    private List<Match> search(String mode, HttpServletRequest request) {
+        switch (mode) {
+            case "radius":
+                return fleetLogic.findVehiclesWithin(number(request, "latitude"), number(request, "longitude"),
+                        number(request, "radius"));
+            case "nearest":
+                return fleetLogic.findNearestVehicles(number(request, "latitude"), number(request, "longitude"),
+                        Integer.parseInt(request.getParameter("count")));
+            case "area":
+                return fleetLogic.findVehiclesInArea(number(request, "south"), number(request, "west"),
+                        number(request, "north"), number(request, "east"));
+            default:
+                throw new IllegalArgumentException("Unknown search.");
+        }
+    }
+
+    private static double number(HttpServletRequest request, String name) {
+        String value = request.getParameter(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing " + name + ".");
+        }
+        return Double.parseDouble(value);
+    }
+
+    private static void printForms(PrintWriter out, HttpServletRequest request) {
+        String latitude = value(request, "latitude", "45.42");
+        String longitude = value(request, "longitude", "-75.69");
+        out.println("<h3>Within a distance</h3>");
+        out.println("<form action='NearbyVehiclesServlet' method='get'><input type='hidden' name='mode' value='radius'>");
+        out.println("Latitude <input name='latitude' value='" + latitude + "' size='10'> ");
+        out.println("Longitude <input name='longitude' value='" + longitude + "' size='10'> ");
+        out.println("Radius (m) <input name='radius' value='" + value(request, "radius", "500") + "' size='6'> ");
+        out.println("<button type='submit'>Search</button></form>");
+
+        out.println("<h3>Nearest vehicles</h3>");
+        out.println("<form action='NearbyVehiclesServlet' method='get'><input type='hidden' name='mode' value='nearest'>");
+        out.println("Latitude <input name='latitude' value='" + latitude + "' size='10'> ");
+        out.println("Longitude <input name='longitude' value='" + longitude + "' size='10'> ");
+        out.println("Count <input name='count' value='" + value(request, "count", "5") + "' size='4'> ");
+        out.println("<button type='submit'>Search</button></form>");
+
+        out.println("<h3>Inside an area</h3>");
+        out.println("<form action='NearbyVehiclesServlet' method='get'><input type='hidden' name='mode' value='area'>");
+        out.println("South <input name='south' value='" + value(request, "south", "45.40") + "' size='8'> ");
+        out.println("West <input name='west' value='" + value(request, "west", "-75.70") + "' size='8'> ");
+        out.println("North <input name='north' value='" + value(request, "north", "45.50") + "' size='8'> ");
+        out.println("East <input name='east' value='" + value(request, "east", "-75.60") + "' size='8'> ");
+        out.println("<button type='submit'>Search</button></form>");
+    }
+
+    private static void printResults(PrintWriter out, List<Match> vehicles) {
+        out.println("<h2>Results</h2>");
+        out.println("<table border='1' cellpadding='8' style='border-collapse: collapse;'>");
+        out.println("<tr><th>Vehicle ID</th><th>Latitude</th><th>Longitude</th><th>Distance (m)</th></tr>");
+        if (vehicles.isEmpty()) {
+            out.println("<tr><td colspan='4'>No vehicles found</td></tr>");
+        }
+        for (Match vehicle : vehicles) {
+            out.println("<tr>");
+            out.println("<td>" + vehicle.getId() + "</td>");
+            out.println("<td>" + vehicle.getLatitude() + "</td>");
+            out.println("<td>" + vehicle.getLongitude() + "</td>");
+            out.println("<td>" + Math.round(vehicle.getDistanceMeters()) + "</td>");
+            out.println("</tr>");
+        }
+        out.println("</table>");
+    }
+
+    /**
+     * Returns a request parameter as a number to show in a form, or a default.
+     * Only numbers are echoed back, so the form cannot be used to inject markup.
+     */
+    private static String value(HttpServletRequest request, String name, String fallback) {
+        String value = request.getParameter(name);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            Double.parseDouble(value);
+            return value;
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
@@ -2,10 +2,7 @@
 package viewlayer;
 
 import businesslayer.ReportsBusinessLogic;
-import dataaccesslayer.FuelDAOImpl;
-import dataaccesslayer.MaintenanceDAOImpl;
-import dataaccesslayer.TripDAOImpl;
-import dataaccesslayer.VehicleDAOImpl;
+import businesslayer.ServiceRegistry;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
@@ -50,12 +47,7 @@ public class OperatorPerformanceIndividualServlet extends HttpServlet {
         }
         
         try {
-            ReportsBusinessLogic reportsLogic = new ReportsBusinessLogic(
-                new MaintenanceDAOImpl(),
-                new TripDAOImpl(),
-                new FuelDAOImpl(),
-                new VehicleDAOImpl()
-            );
+            ReportsBusinessLogic reportsLogic = ServiceRegistry.getInstance().getReportsLogic();
             
             List<TripDTO> operatorTrips = reportsLogic.getTripsForOperator(user.getUserID());
             double onTimePercentage = reportsLogic.getOnTimePercentageForOperator(user.getUserID());
@@ -3,10 +3,7 @@ package viewlayer;
 
 import javax.servlet.annotation.WebServlet;
 import businesslayer.ReportsBusinessLogic;
-import dataaccesslayer.FuelDAOImpl;
-import dataaccesslayer.MaintenanceDAOImpl;
-import dataaccesslayer.TripDAOImpl;
-import dataaccesslayer.VehicleDAOImpl;
+import businesslayer.ServiceRegistry;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
@@ -41,12 +38,7 @@ public class OperatorPerformanceServlet extends HttpServlet {
     response.setContentType("text/html;charset=UTF-8");
     
     try {
-        ReportsBusinessLogic reportsLogic = new ReportsBusinessLogic(
-            new MaintenanceDAOImpl(),
-            new TripDAOImpl(),
-            new FuelDAOImpl(),
-            new VehicleDAOImpl()
-        );
+        ReportsBusinessLogic reportsLogic = ServiceRegistry.getInstance().getReportsLogic();
         
         Map<Integer, List<TripDTO>> tripsByOperator = reportsLogic.getTripsByOperator();
         Map<Integer, Double> onTimePercentages = reportsLogic.getOperatorOnTimePercentages();
@@ -2,6 +2,7 @@
 package viewlayer;
 
 import businesslayer.FleetManagementBusinessLogic;
+import businesslayer.ServiceRegistry;
 import java.io.IOException;
 import java.io.PrintWriter;
 import javax.servlet.ServletException;
@@ -32,7 +33,7 @@ public class RefuelController extends HttpServlet {
         int vehicleId = Integer.valueOf(request.getParameter("vehicleId"));
         double cost = Double.valueOf(request.getParameter("cost"));
         response.setContentType("text/html;charset=UTF-8");
-        FleetManagementBusinessLogic logic = new FleetManagementBusinessLogic();       
+        FleetManagementBusinessLogic logic = ServiceRegistry.getInstance().getFleetLogic();       
         if(logic.refuel(vehicleId, cost)) {
             try(PrintWriter out = response.getWriter()) {
                 out.println("<!DOCTYPE html>");
@@ -1,6 +1,7 @@
 package viewlayer;
 
 import businesslayer.FleetManagementBusinessLogic;
+import businesslayer.ServiceRegistry;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.*;
@@ -21,7 +22,7 @@ public class RegistrationServlet extends HttpServlet {
      */
     @Override
     public void init() throws ServletException {
-        businessLogic = new FleetManagementBusinessLogic();
+        businessLogic = ServiceRegistry.getInstance().getFleetLogic();
     }
     /**
      * Handles POST requests to register a new user.
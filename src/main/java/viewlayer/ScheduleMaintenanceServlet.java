@@ -1,6 +1,7 @@
 package viewlayer;
 
 import businesslayer.FleetManagementBusinessLogic;
+import businesslayer.ServiceRegistry;
 import constants.MaintenancePurpose;
 
 import transferobjects.MaintenanceDTO;
@@ -20,7 +21,7 @@ import java.util.List;
  */
 public class ScheduleMaintenanceServlet extends HttpServlet {
 
-    private final FleetManagementBusinessLogic businessLogic = new FleetManagementBusinessLogic();
+    private final FleetManagementBusinessLogic businessLogic = ServiceRegistry.getInstance().getFleetLogic();
 
     /**
      * Handles GET requests to display the dashboard or forms based on the action.
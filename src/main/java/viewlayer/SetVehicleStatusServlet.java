@@ -1,6 +1,7 @@
 package viewlayer;
 
 import businesslayer.FleetManagementBusinessLogic;
+import businesslayer.ServiceRegistry;
 import constants.VehicleStatus;
 
 import javax.servlet.ServletException;
@@ -15,7 +16,7 @@ import java.io.PrintWriter;
  */
 public class SetVehicleStatusServlet extends HttpServlet {
 
-    private final FleetManagementBusinessLogic logic = new FleetManagementBusinessLogic();
+    private final FleetManagementBusinessLogic logic = ServiceRegistry.getInstance().getFleetLogic();
     /**
      * Handles the HTTP GET method.
      * Sends an HTML form allowing users to input a vehicle ID and select a status.
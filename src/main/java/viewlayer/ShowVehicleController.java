@@ -2,6 +2,7 @@
 package viewlayer;
 
 import businesslayer.FleetManagementBusinessLogic;
+import businesslayer.ServiceRegistry;
 import java.io.IOException;
 import java.io.PrintWriter;
 import javax.servlet.ServletException;
@@ -36,7 +37,7 @@ public class ShowVehicleController extends HttpServlet {
         }
         
         int vehicleId = Integer.valueOf(request.getParameter("vehicleId"));
-        FleetManagementBusinessLogic logic = new FleetManagementBusinessLogic();
+        FleetManagementBusinessLogic logic = ServiceRegistry.getInstance().getFleetLogic();
         VehicleDTO vehicle = logic.getVehicleById(vehicleId);
         response.setContentType("text/html;charset=UTF-8");
         if(vehicle != null) {
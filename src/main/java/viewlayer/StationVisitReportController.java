@@ -2,6 +2,7 @@
 package viewlayer;
 
 import businesslayer.FleetManagementBusinessLogic;
+import businesslayer.ServiceRegistry;
 import constants.OperatorType;
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -40,7 +41,7 @@ public class StationVisitReportController extends HttpServlet {
         
         int vehicleId = Integer.valueOf(request.getParameter("vehicleId"));
         
-        FleetManagementBusinessLogic logic = new FleetManagementBusinessLogic();
+        FleetManagementBusinessLogic logic = ServiceRegistry.getInstance().getFleetLogic();
         List<VehicleStationDTO> visits = logic.getStationVisitsByVehicleId(vehicleId);
         
         try(PrintWriter out = response.getWriter()) {
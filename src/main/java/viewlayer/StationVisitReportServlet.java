@@ -2,6 +2,7 @@
 package viewlayer;
 
 import businesslayer.FleetManagementBusinessLogic;
+import businesslayer.ServiceRegistry;
 import constants.OperatorType;
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -39,7 +40,7 @@ public class StationVisitReportServlet extends HttpServlet {
         UserDTO user = (session != null) ? (UserDTO) session.getAttribute("user") : null; 
         String userType = user.getUserType();
         
-        FleetManagementBusinessLogic logic = new FleetManagementBusinessLogic();
+        FleetManagementBusinessLogic logic = ServiceRegistry.getInstance().getFleetLogic();
         List<VehicleDTO> vehicles = logic.getAllVehicles();
         
 //        List<VehicleStationDTO> stationVisits = logic.getStationVisitsByVehicleId(vehicleId);
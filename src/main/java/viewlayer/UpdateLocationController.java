@@ -2,17 +2,17 @@
 package viewlayer;
 
 import businesslayer.FleetManagementBusinessLogic;
+import businesslayer.FleetPositionSnapshot;
+import businesslayer.ServiceRegistry;
 import constants.OperatorType;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.List;
-import java.util.ListIterator;
+import java.sql.Timestamp;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
-import transferobjects.LocationDTO;
 import transferobjects.UserDTO;
 
 /**
@@ -40,7 +40,7 @@ public class UpdateLocationController extends HttpServlet {
         int vehicleId = Integer.valueOf(request.getParameter("vehicleId"));
         double latitude = Double.valueOf(request.getParameter("latitude"));
         double longitude = Double.valueOf(request.getParameter("longitude"));
-        FleetManagementBusinessLogic logic = new FleetManagementBusinessLogic();
+        FleetManagementBusinessLogic logic = ServiceRegistry.getInstance().getFleetLogic();
         
         try(PrintWriter out = response.getWriter()) {
             out.println("<!DOCTYPE html>");
@@ -64,18 +64,14 @@ public class UpdateLocationController extends HttpServlet {
             out.println("<th>Longitude</th>");
             out.println("<th>Last Updated</th>");
             out.println("</tr>");
-            List<LocationDTO> locations = logic.getAllVehicleLocations();
-            if(locations.size() != 0) {
-                ListIterator<LocationDTO> iter = locations.listIterator();
-                while(iter.hasNext()) {
-                    LocationDTO location = iter.next();
-                    out.println("<tr>");
-                    out.println("<td>" + location.getVehicleId() + "</td>");
-                    out.println("<td>" + location.getLatitude() + "</td>");
-                    out.println("<td>" + location.getLongitude() + "</td>");
-                    out.println("<td>" + location.getUpdated() + "</td>");
-                    out.println("</tr>");
-                }
+            FleetPositionSnapshot positions = logic.getFleetPositions();
+            for(int i = 0; i < positions.size(); i++) {
+                out.println("<tr>");
+                out.println("<td>" + positions.getVehicleId(i) + "</td>");
+                out.println("<td>" + positions.getLatitude(i) + "</td>");
+                out.println("<td>" + positions.getLongitude(i) + "</td>");
+                out.println("<td>" + new Timestamp(positions.getUpdated(i)) + "</td>");
+                out.println("</tr>");
             }
             out.println("</table>");
             out.println("<form action='FrontController' method='get'><button type='submit' name='action' value='dashboard'>Back to Dashboard</button></form>");
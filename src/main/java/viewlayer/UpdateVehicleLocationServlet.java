@@ -2,6 +2,7 @@
 package viewlayer;
 
 import businesslayer.FleetManagementBusinessLogic;
+import businesslayer.ServiceRegistry;
 import constants.OperatorType;
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -38,7 +39,7 @@ public class UpdateVehicleLocationServlet extends HttpServlet {
         UserDTO user = (session != null) ? (UserDTO) session.getAttribute("user") : null; 
         String userType = user.getUserType();
         
-        FleetManagementBusinessLogic logic = new FleetManagementBusinessLogic();
+        FleetManagementBusinessLogic logic = ServiceRegistry.getInstance().getFleetLogic();
         List<LocationDTO> locations = logic.getAllVehicleLocations();
         try(PrintWriter out = response.getWriter()) {
             out.println("<!DOCTYPE html>");
@@ -0,0 +1,96 @@
+package businesslayer;
+
+import dataaccesslayer.AlertDAOImpl;
+import observer.VehicleEvent;
+import org.junit.jupiter.api.*;
+import transferobjects.AlertDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AlertDeduplicator. Open alerts come from an in-memory stub.
+ */
+class AlertDeduplicatorTest {
+
+    private final List<AlertDTO> open = new ArrayList<>();
+    private AlertDeduplicator deduplicator;
+
+    /**
+     * Creates a deduplicator allowing three alerts per vehicle per hour.
+     */
+    @BeforeEach
+    void setUp() {
+        open.clear();
+        AlertDAOImpl stub = new AlertDAOImpl() {
+            @Override
+            public List<AlertDTO> getOpenAlertsByVehicle(int vehicleID) {
+                return open;
+            }
+        };
+        deduplicator = new AlertDeduplicator(stub, 3, 1, TimeUnit.HOURS);
+    }
+
+    /**
+     * Tests that a repeat of an open alert of the same rule group is
+     * suppressed, while a different group is raised.
+     */
+    @Test
+    void testRepeatOfOpenAlertIsSuppressed() {
+        AlertDTO fuel = new AlertDTO(1, 7, "ACTIVE", "REFUEL", "Vehicle needs refuel. Fuel level at 40.0", null);
+        fuel.setRuleGroup("fuel");
+        open.add(fuel);
+
+        assertFalse(deduplicator.tryRaise(7, VehicleEvent.REFUEL, "fuel"));
+        assertTrue(deduplicator.tryRaise(7, VehicleEvent.MAINTENANCE, "oil"));
+        assertEquals(1, deduplicator.getDuplicatesSuppressed());
+        assertEquals(1, deduplicator.getSuppressedCount(7));
+    }
+
+    /**
+     * Tests that a raised alert suppresses repeats until it is resolved.
+     */
+    @Test
+    void testResolvedAlertCanBeRaisedAgain() {
+        assertTrue(deduplicator.tryRaise(7, VehicleEvent.MAINTENANCE, "components"));
+        assertFalse(deduplicator.tryRaise(7, VehicleEvent.MAINTENANCE, "components"));
+
+        AlertDTO resolved = new AlertDTO(1, 7, "RESOLVED", "MAINTENANCE",
+                "Wheels have reached service interval (130.0 hours). ", null);
+        resolved.setRuleGroup("components");
+        deduplicator.resolved(resolved);
+        assertTrue(deduplicator.tryRaise(7, VehicleEvent.MAINTENANCE, "components"));
+    }
+
+    /**
+     * Tests that an alert released after it failed to store neither
+     * suppresses its retry nor counts against the rate limit.
+     */
+    @Test
+    void testReleasedAlertCanBeRaisedAgain() {
+        assertTrue(deduplicator.tryRaise(7, VehicleEvent.MAINTENANCE, "oil"));
+        deduplicator.release(7, VehicleEvent.MAINTENANCE, "oil");
+
+        assertTrue(deduplicator.tryRaise(7, VehicleEvent.MAINTENANCE, "oil"));
+        assertTrue(deduplicator.tryRaise(7, VehicleEvent.REFUEL, "fuel"));
+        assertTrue(deduplicator.tryRaise(7, VehicleEvent.ROUTE_END, "route"));
+        assertEquals(0, deduplicator.getDuplicatesSuppressed());
+        assertEquals(0, deduplicator.getRateLimited());
+    }
+
+    /**
+     * Tests that a vehicle cannot raise more alerts than the rate limit allows.
+     */
+    @Test
+    void testRateLimitPerVehicle() {
+        assertTrue(deduplicator.tryRaise(7, VehicleEvent.REFUEL, "fuel"));
+        assertTrue(deduplicator.tryRaise(7, VehicleEvent.ROUTE_END, "route"));
+        assertTrue(deduplicator.tryRaise(7, VehicleEvent.MAINTENANCE, "emission"));
+        assertFalse(deduplicator.tryRaise(7, VehicleEvent.MAINTENANCE, "oil"));
+        assertTrue(deduplicator.tryRaise(8, VehicleEvent.MAINTENANCE, "oil"));
+        assertEquals(1, deduplicator.getRateLimited());
+    }
+}
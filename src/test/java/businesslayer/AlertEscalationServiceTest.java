@@ -0,0 +1,107 @@
+package businesslayer;
+
+import dataaccesslayer.AlertDAOImpl;
+import observer.VehicleEvent;
+import observer.VehicleEventNotifier;
+import org.junit.jupiter.api.*;
+import transferobjects.AlertDTO;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AlertEscalationService. Alerts are kept in an in-memory stub
+ * and the timer ticks every ten milliseconds.
+ */
+class AlertEscalationServiceTest {
+
+    private final Map<Integer, AlertDTO> alerts = new ConcurrentHashMap<>();
+    private AlertEscalationService escalation;
+
+    /**
+     * Creates a service that escalates maintenance alerts after 50 milliseconds.
+     */
+    @BeforeEach
+    void setUp() {
+        alerts.clear();
+        AlertDAOImpl stub = new AlertDAOImpl() {
+            @Override
+            public AlertDTO getAlertById(int alertID) {
+                return alerts.get(alertID);
+            }
+
+            @Override
+            public boolean transitionStatus(int alertID, String expectedStatus, String newStatus) {
+                AlertDTO current = alerts.get(alertID);
+                if (current == null || !expectedStatus.equals(current.getStatus())) {
+                    return false;
+                }
+                AlertDTO changed = alert(alertID);
+                changed.setStatus(newStatus);
+                alerts.put(alertID, changed);
+                return true;
+            }
+
+            @Override
+            public List<AlertDTO> getActiveAlerts() {
+                return new ArrayList<>(alerts.values());
+            }
+
+            @Override
+            public List<AlertDTO> getOpenAlertsByVehicle(int vehicleID) {
+                return new ArrayList<>();
+            }
+        };
+        Map<VehicleEvent, Long> levels = new EnumMap<>(VehicleEvent.class);
+        levels.put(VehicleEvent.MAINTENANCE, 50L);
+        VehicleAlertBusinessLogic alertLogic = new VehicleAlertBusinessLogic(stub, new VehicleEventNotifier());
+        escalation = new AlertEscalationService(stub, alertLogic, levels,
+                new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 64, "test-escalation-timer"));
+    }
+
+    /**
+     * Stops the timer.
+     */
+    @AfterEach
+    void tearDown() {
+        escalation.stop();
+    }
+
+    /**
+     * Tests that an active alert restored at startup is escalated once its
+     * service level has passed, while an acknowledged alert is not.
+     */
+    @Test
+    void testUnacknowledgedAlertIsEscalated() throws InterruptedException {
+        alerts.put(1, alert(1));
+        alerts.put(2, alert(2));
+        assertEquals(2, escalation.rebuild());
+
+        AlertDTO acknowledged = alert(2);
+        acknowledged.setStatus("ACKNOWLEDGED");
+        alerts.put(2, acknowledged);
+        escalation.onAlert(VehicleEvent.MAINTENANCE, acknowledged);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (escalation.getEscalatedCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals("ESCALATED", alerts.get(1).getStatus());
+        assertEquals("ACKNOWLEDGED", alerts.get(2).getStatus());
+        assertEquals(1, escalation.getEscalatedCount());
+        assertEquals(0, escalation.getPendingCount());
+    }
+
+    private static AlertDTO alert(int alertID) {
+        return new AlertDTO(alertID, 7, "ACTIVE", "MAINTENANCE", "Oil change required (120 hours since last change)",
+                new Timestamp(System.currentTimeMillis()));
+    }
+}
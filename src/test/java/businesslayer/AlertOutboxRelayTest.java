@@ -0,0 +1,141 @@
+package businesslayer;
+
+import dataaccesslayer.AlertOutboxDAO;
+import observer.VehicleEvent;
+import org.junit.jupiter.api.*;
+import transferobjects.AlertDTO;
+import transferobjects.OutboxEntryDTO;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AlertOutboxRelay. The outbox and the cursors are kept in an
+ * in-memory stub.
+ */
+class AlertOutboxRelayTest {
+
+    private final TreeMap<Long, OutboxEntryDTO> entries = new TreeMap<>();
+    private final Map<String, Long> cursors = new HashMap<>();
+    private AlertOutboxRelay relay;
+
+    /**
+     * Creates a relay over an in-memory outbox.
+     */
+    @BeforeEach
+    void setUp() {
+        entries.clear();
+        cursors.clear();
+        relay = new AlertOutboxRelay(new AlertOutboxDAO() {
+            @Override
+            public void append(List<AlertDTO> alerts) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<OutboxEntryDTO> getEntriesAfter(long outboxID, int limit) {
+                List<OutboxEntryDTO> after = new ArrayList<>(entries.tailMap(outboxID, false).values());
+                return after.subList(0, Math.min(limit, after.size()));
+            }
+
+            @Override
+            public long getCursor(String listenerName) {
+                return cursors.getOrDefault(listenerName, 0L);
+            }
+
+            @Override
+            public void saveCursor(String listenerName, long outboxID) {
+                cursors.put(listenerName, outboxID);
+            }
+
+            @Override
+            public int deleteUpTo(long outboxID) {
+                int removed = entries.headMap(outboxID, true).size();
+                entries.headMap(outboxID, true).clear();
+                return removed;
+            }
+        }, 10);
+    }
+
+    /**
+     * Tests that a failing listener is retried without holding up the others,
+     * and that entries are only removed once every listener has them.
+     */
+    @Test
+    void testFailingListenerIsRetried() {
+        List<Integer> received = new ArrayList<>();
+        boolean[] failing = {true};
+        relay.subscribe("healthy", (eventType, alert) -> received.add(alert.getAlertID()));
+        relay.subscribe("flaky", (eventType, alert) -> {
+            if (failing[0]) {
+                throw new IllegalStateException("unavailable");
+            }
+        });
+        for (long id = 1; id <= 3; id++) {
+            entries.put(id, entry(id));
+        }
+
+        assertEquals(0, relay.relay());
+        assertEquals(List.of(1, 2, 3), received);
+        assertEquals(3L, cursors.get("healthy"));
+        assertEquals(3, entries.size());
+        assertEquals(1, relay.getFailedDeliveries());
+
+        failing[0] = false;
+        assertEquals(3, relay.relay());
+        assertEquals(List.of(1, 2, 3), received);
+        assertEquals(3L, cursors.get("flaky"));
+        assertTrue(entries.isEmpty());
+    }
+
+    /**
+     * Tests that delivery stops at a recent gap in the outbox IDs, which may
+     * be a transaction that has not committed yet.
+     */
+    @Test
+    void testStopsAtRecentGap() {
+        List<Integer> received = new ArrayList<>();
+        relay.subscribe("listener", (eventType, alert) -> received.add(alert.getAlertID()));
+        entries.put(1L, entry(1));
+        assertEquals(1, relay.relay());
+
+        entries.put(3L, entry(3));
+        assertEquals(0, relay.relay());
+
+        entries.put(2L, entry(2));
+        assertEquals(2, relay.relay());
+        assertEquals(List.of(1, 2, 3), received);
+    }
+
+    /**
+     * Tests that a listener that unsubscribes no longer receives entries or
+     * holds up their removal, and that its cursor is kept.
+     */
+    @Test
+    void testUnsubscribedListenerResumes() {
+        List<Integer> received = new ArrayList<>();
+        relay.subscribe("stream", (eventType, alert) -> received.add(alert.getAlertID()));
+        entries.put(1L, entry(1));
+        assertEquals(1, relay.relay());
+
+        relay.unsubscribe("stream");
+        relay.subscribe("other", (eventType, alert) -> { });
+        entries.put(2L, entry(2));
+        assertEquals(1, relay.relay());
+        assertTrue(entries.isEmpty());
+        assertEquals(List.of(1), received);
+        assertEquals(1L, cursors.get("stream"));
+    }
+
+    private static OutboxEntryDTO entry(long outboxID) {
+        AlertDTO alert = new AlertDTO((int) outboxID, 7, "ACTIVE", VehicleEvent.MAINTENANCE.name(),
+                "Oil change required", new Timestamp(System.currentTimeMillis()));
+        return new OutboxEntryDTO(outboxID, alert, new Timestamp(System.currentTimeMillis()));
+    }
+}
@@ -0,0 +1,82 @@
+package businesslayer;
+
+import observer.VehicleEvent;
+import org.junit.jupiter.api.*;
+import transferobjects.BusDTO;
+import transferobjects.ElectricLightRailDTO;
+import transferobjects.VehicleDTO;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AlertRuleEngine.
+ */
+class AlertRuleEngineTest {
+
+    /**
+     * Tests that the default rules raise the same alerts as the former
+     * hard-coded checks, one alert per group.
+     */
+    @Test
+    void testDefaultRules() {
+        AlertRuleEngine engine = new AlertRuleEngine();
+        ElectricLightRailDTO train = new ElectricLightRailDTO();
+        train.setVehicleID(7);
+        train.setFuelLevel(500);
+        train.setBrakesCondition(120);
+        train.setWheelsCondition(110);
+        train.setPantographCondition(150);
+
+        List<AlertRuleEngine.RaisedAlert> raised = engine.evaluate(train);
+
+        assertEquals(2, raised.size());
+        assertEquals(VehicleEvent.MAINTENANCE, raised.get(0).getEventType());
+        assertEquals("components", raised.get(0).getGroup());
+        assertEquals("electrical", raised.get(1).getGroup());
+        assertTrue(raised.get(0).getReason().startsWith("Brakes have reached service interval (120.0 hours)."));
+        assertTrue(raised.get(0).getReason().contains("Wheels"));
+        assertEquals("Electrical system: Pantograph component have reached service interval (150.0 hours).",
+                raised.get(1).getReason());
+        assertEquals(7, raised.get(1).getVehicleID());
+    }
+
+    /**
+     * Tests that a rule limited to one vehicle type only applies to that type,
+     * and that a batch is checked in vehicle order.
+     */
+    @Test
+    void testVehicleTypesAndBatch() {
+        Properties configuration = new Properties();
+        configuration.setProperty("groups", "fuel");
+        configuration.setProperty("group.fuel.event", "REFUEL");
+        configuration.setProperty("rules", "busFuel");
+        configuration.setProperty("rule.busFuel.group", "fuel");
+        configuration.setProperty("rule.busFuel.metric", "FUEL_LEVEL");
+        configuration.setProperty("rule.busFuel.operator", "<=");
+        configuration.setProperty("rule.busFuel.threshold", "20");
+        configuration.setProperty("rule.busFuel.vehicleTypes", "BUS");
+        configuration.setProperty("rule.busFuel.message", "Vehicle needs refuel. Fuel level at {value}");
+        AlertRuleEngine engine = new AlertRuleEngine(configuration);
+
+        BusDTO bus = new BusDTO();
+        bus.setVehicleID(1);
+        bus.setFuelLevel(10);
+        ElectricLightRailDTO train = new ElectricLightRailDTO();
+        train.setVehicleID(2);
+        train.setFuelLevel(10);
+        List<VehicleDTO> vehicles = Arrays.asList(bus, train);
+
+        List<AlertRuleEngine.RaisedAlert> raised = engine.evaluate(vehicles);
+
+        assertEquals(1, raised.size());
+        assertEquals(1, raised.get(0).getVehicleID());
+        assertEquals(VehicleEvent.REFUEL, raised.get(0).getEventType());
+
+        configuration.setProperty("rule.busFuel.operator", "<>");
+        assertThrows(IllegalArgumentException.class, () -> new AlertRuleEngine(configuration));
+    }
+}
@@ -0,0 +1,119 @@
+package businesslayer;
+
+import dataaccesslayer.AlertDAOImpl;
+import dataaccesslayer.VehicleDAOImpl;
+import observer.VehicleEventNotifier;
+import org.junit.jupiter.api.*;
+import transferobjects.AlertDTO;
+import transferobjects.BusDTO;
+import transferobjects.VehicleDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FleetHealthSweep. The fleet and the Alert table are
+ * in-memory stubs.
+ */
+class FleetHealthSweepTest {
+
+    private final List<VehicleDTO> fleet = new ArrayList<>();
+    private final List<List<AlertDTO>> batches = new ArrayList<>();
+    private long loadDelayMillis;
+    private FleetHealthSweep sweep;
+    private FleetHealthSweep slowSweep;
+
+    /**
+     * Builds a fleet of 3000 buses where every third one is low on fuel.
+     */
+    @BeforeEach
+    void setUp() {
+        loadDelayMillis = 0;
+        for (int id = 1; id <= 3000; id++) {
+            BusDTO bus = new BusDTO();
+            bus.setVehicleID(id);
+            bus.setFuelLevel(id % 3 == 0 ? 50 : 500);
+            fleet.add(bus);
+        }
+        VehicleDAOImpl vehicles = new VehicleDAOImpl() {
+            @Override
+            public List<VehicleDTO> getAllVehiclesDetailed() {
+                try {
+                    Thread.sleep(loadDelayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return fleet;
+            }
+        };
+        AlertDAOImpl alerts = new AlertDAOImpl() {
+            @Override
+            public void addAlerts(List<AlertDTO> added) {
+                batches.add(new ArrayList<>(added));
+            }
+
+            @Override
+            public List<AlertDTO> getOpenAlertsByVehicle(int vehicleID) {
+                return new ArrayList<>();
+            }
+        };
+        VehicleAlertBusinessLogic alertLogic = new VehicleAlertBusinessLogic(alerts, new VehicleEventNotifier());
+        sweep = new FleetHealthSweep(vehicles, alertLogic, 4, 1, TimeUnit.MINUTES);
+        slowSweep = new FleetHealthSweep(vehicles, alertLogic, 4, 50, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Closes the sweep's threads.
+     */
+    @AfterEach
+    void tearDown() {
+        sweep.stop();
+        slowSweep.stop();
+    }
+
+    /**
+     * Tests that a sweep checks every vehicle and stores its alerts in one batch.
+     */
+    @Test
+    void testSweepRaisesAlertsInOneBatch() {
+        FleetHealthSweep.SweepResult result = sweep.sweep();
+
+        assertTrue(result.isComplete());
+        assertEquals(3000, result.getVehiclesEvaluated());
+        assertEquals(1000, result.getAlertsRaised());
+        assertEquals(1, batches.size());
+        assertEquals(1000, batches.get(0).size());
+        assertSame(result, sweep.getLastResult());
+    }
+
+    /**
+     * Tests that alerts already raised by an earlier sweep are not raised again.
+     */
+    @Test
+    void testRepeatedSweepIsDeduplicated() {
+        sweep.sweep();
+        FleetHealthSweep.SweepResult second = sweep.sweep();
+
+        assertEquals(1000, second.getAlertsMatched());
+        assertEquals(0, second.getAlertsRaised());
+        assertEquals(2, sweep.getSweepCount());
+    }
+
+    /**
+     * Tests that the time spent loading the fleet counts against the budget.
+     */
+    @Test
+    void testSlowLoadUsesUpBudget() {
+        loadDelayMillis = 100;
+        FleetHealthSweep.SweepResult result = slowSweep.sweep();
+
+        assertFalse(result.isComplete());
+        assertFalse(result.isWithinBudget());
+        assertEquals(0, result.getVehiclesEvaluated());
+        assertTrue(result.getLoadMillis() >= 100);
+        assertEquals(1, slowSweep.getOverBudgetCount());
+    }
+}
@@ -0,0 +1,88 @@
+package businesslayer;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FleetSpatialIndex. Results are compared with a scan of every
+ * vehicle.
+ */
+class FleetSpatialIndexTest {
+
+    private static final int FLEET = 2000;
+
+    private final double[][] positions = new double[FLEET][];
+    private FleetSpatialIndex index;
+
+    /**
+     * Scatters a fleet around Ottawa and moves some of it once, so vehicles
+     * change cells.
+     */
+    @BeforeEach
+    void setUp() {
+        index = new FleetSpatialIndex();
+        Random random = new Random(42);
+        for (int round = 0; round < 2; round++) {
+            for (int id = 0; id < FLEET; id += round + 1) {
+                positions[id] = new double[] {45.3 + random.nextDouble() * 0.2, -75.8 + random.nextDouble() * 0.2};
+                index.update(id, positions[id][0], positions[id][1]);
+            }
+        }
+    }
+
+    /**
+     * Tests radius and area queries against a full scan.
+     */
+    @Test
+    void testRadiusAndAreaMatchScan() {
+        List<Integer> within = new ArrayList<>();
+        List<Integer> inside = new ArrayList<>();
+        for (int id = 0; id < FLEET; id++) {
+            if (FleetSpatialIndex.distanceMeters(45.4, -75.7, positions[id][0], positions[id][1]) <= 500) {
+                within.add(id);
+            }
+            if (positions[id][0] >= 45.38 && positions[id][0] <= 45.42
+                    && positions[id][1] >= -75.72 && positions[id][1] <= -75.68) {
+                inside.add(id);
+            }
+        }
+
+        List<Integer> found = new ArrayList<>();
+        index.withinRadius(45.4, -75.7, 500).forEach(vehicle -> found.add(vehicle.getId()));
+        found.sort(null);
+        assertEquals(within, found);
+
+        List<Integer> foundInside = new ArrayList<>();
+        index.withinBox(45.38, -75.72, 45.42, -75.68).forEach(vehicle -> foundInside.add(vehicle.getId()));
+        assertEquals(inside, foundInside);
+        assertEquals(FLEET, index.withinBox(-90, -180, 90, 180).size());
+    }
+
+    /**
+     * Tests that the k nearest vehicles match a full scan, including when k is
+     * larger than the fleet.
+     */
+    @Test
+    void testNearestMatchesScan() {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 0; id < FLEET; id++) {
+            ids.add(id);
+        }
+        ids.sort(Comparator.comparingDouble(
+                id -> FleetSpatialIndex.distanceMeters(45.41, -75.69, positions[id][0], positions[id][1])));
+
+        List<Integer> nearest = new ArrayList<>();
+        index.nearest(45.41, -75.69, 10).forEach(vehicle -> nearest.add(vehicle.getId()));
+        assertEquals(ids.subList(0, 10), nearest);
+
+        assertEquals(FLEET, index.nearest(0, 0, FLEET + 5).size());
+        index.remove(ids.get(0));
+        assertEquals(ids.get(1), index.nearest(45.41, -75.69, 1).get(0).getId());
+    }
+}
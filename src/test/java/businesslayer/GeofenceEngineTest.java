@@ -0,0 +1,202 @@
+package businesslayer;
+
+import dataaccesslayer.VehicleDAOImpl;
+import org.junit.jupiter.api.*;
+import transferobjects.RouteDTO;
+import transferobjects.StationDTO;
+import transferobjects.VehicleStationDTO;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GeofenceEngine. Stations come from a stub DAO, which also
+ * records the visits written.
+ */
+class GeofenceEngineTest {
+
+    private final List<VehicleStationDTO> written = new ArrayList<>();
+    private int stationReads;
+    private int writes;
+    private boolean unavailable;
+    private ReferenceDataService referenceData;
+    private GeofenceEngine geofence;
+
+    /**
+     * Creates an engine over Baseline and Westboro stations, plus a station
+     * without coordinates.
+     */
+    @BeforeEach
+    void setUp() {
+        written.clear();
+        stationReads = 0;
+        writes = 0;
+        unavailable = false;
+        VehicleDAOImpl stub = new VehicleDAOImpl() {
+            @Override
+            public List<RouteDTO> getAllRoutes() {
+                return new ArrayList<>();
+            }
+
+            @Override
+            public List<StationDTO> getAllStations() {
+                stationReads++;
+                List<StationDTO> stations = new ArrayList<>();
+                stations.add(station(2, 45.3477, -75.7606));
+                stations.add(station(5, 45.3963, -75.7520));
+                stations.add(new StationDTO(7, "Unmapped Station"));
+                return stations;
+            }
+
+            @Override
+            public int logStationVisits(List<VehicleStationDTO> visits) {
+                writes++;
+                if (unavailable) {
+                    throw new RuntimeException("Failed to record station visits",
+                            new SQLTransientConnectionException("Connection refused"));
+                }
+                for (VehicleStationDTO visit : visits) {
+                    if (visit.getVehicleId() == 99) {
+                        throw new RuntimeException("Failed to record station visits",
+                                new SQLIntegrityConstraintViolationException("Unknown vehicle"));
+                    }
+                }
+                written.addAll(visits);
+                return visits.size();
+            }
+        };
+        referenceData = new ReferenceDataService(stub);
+        geofence = new GeofenceEngine(stub, referenceData);
+        referenceData.refresh();
+    }
+
+    /**
+     * Tests that a vehicle arriving, jittering at the edge of the station and
+     * leaving produces exactly one visit, written on flush.
+     */
+    @Test
+    void testArrivalAndDepartureMakeOneVisit() {
+        geofence.onLocation(11, 45.3600, -75.7606, 1000);
+        assertEquals(0, geofence.getCurrentStation(11));
+
+        geofence.onLocation(11, 45.3480, -75.7606, 2000);
+        assertEquals(2, geofence.getCurrentStation(11));
+        // About 150 m out: still inside the departure radius
+        geofence.onLocation(11, 45.3490, -75.7606, 3000);
+        geofence.onLocation(11, 45.3478, -75.7606, 4000);
+        // A late ping from before the arrival is ignored
+        geofence.onLocation(11, 45.3700, -75.7606, 1500);
+        assertEquals(2, geofence.getCurrentStation(11));
+
+        geofence.onLocation(11, 45.3550, -75.7606, 5000);
+        assertEquals(0, geofence.getCurrentStation(11));
+        assertEquals(1, geofence.getPendingCount());
+        assertTrue(written.isEmpty());
+
+        assertEquals(1, geofence.flush());
+        assertEquals(1, written.size());
+        VehicleStationDTO visit = written.get(0);
+        assertEquals(11, visit.getVehicleId());
+        assertEquals(2, visit.getStationId());
+        assertEquals(2000, visit.getArrivalTime().getTime());
+        assertEquals(5000, visit.getDepartureTime().getTime());
+    }
+
+    /**
+     * Tests that a vehicle moving straight from one station to the next
+     * completes the first visit and starts the second.
+     */
+    @Test
+    void testMovingBetweenStations() {
+        geofence.onLocation(12, 45.3477, -75.7606, 1000);
+        geofence.onLocation(12, 45.3963, -75.7521, 9000);
+
+        assertEquals(5, geofence.getCurrentStation(12));
+        assertEquals(2, geofence.getArrivalCount());
+        geofence.stop();
+        assertEquals(1, written.size());
+        assertEquals(2, written.get(0).getStationId());
+    }
+
+    /**
+     * Tests that pings never load the reference data themselves, and that
+     * stations are matched once the snapshot has been loaded.
+     */
+    @Test
+    void testStationsWaitForLoadedSnapshot() {
+        referenceData = new ReferenceDataService(new VehicleDAOImpl() {
+            @Override
+            public List<StationDTO> getAllStations() {
+                stationReads++;
+                throw new RuntimeException("Failed to read stations");
+            }
+        });
+        GeofenceEngine unloaded = new GeofenceEngine(new VehicleDAOImpl(), referenceData);
+        stationReads = 0;
+        writes = 0;
+        unavailable = false;
+
+        unloaded.onLocation(15, 45.3477, -75.7606, 1000);
+        unloaded.onLocation(15, 45.3477, -75.7606, 2000);
+        assertEquals(0, unloaded.getCurrentStation(15));
+        assertEquals(0, stationReads);
+
+        geofence.onLocation(15, 45.3477, -75.7606, 1000);
+        assertEquals(2, geofence.getCurrentStation(15));
+    }
+
+    /**
+     * Tests that a visit the database rejects does not hold back the others
+     * and is dropped, and that a visit shorter than a second is not recorded.
+     */
+    @Test
+    void testRejectedVisitIsDropped() {
+        geofence.onLocation(99, 45.3477, -75.7606, 1000);
+        geofence.onLocation(99, 45.3600, -75.7606, 9000);
+        geofence.onLocation(13, 45.3477, -75.7606, 1000);
+        geofence.onLocation(13, 45.3600, -75.7606, 9000);
+        geofence.onLocation(14, 45.3477, -75.7606, 1000);
+        geofence.onLocation(14, 45.3600, -75.7606, 1500);
+
+        assertEquals(1, geofence.flush());
+        assertEquals(1, written.size());
+        assertEquals(13, written.get(0).getVehicleId());
+        assertEquals(0, geofence.getPendingCount());
+        assertEquals(1, geofence.getDroppedVisits());
+    }
+
+    /**
+     * Tests that visits are kept whole, with one write per flush, while the
+     * database is unavailable.
+     */
+    @Test
+    void testUnavailableDatabaseKeepsVisits() {
+        geofence.onLocation(13, 45.3477, -75.7606, 1000);
+        geofence.onLocation(13, 45.3600, -75.7606, 9000);
+        geofence.onLocation(14, 45.3477, -75.7606, 1000);
+        geofence.onLocation(14, 45.3600, -75.7606, 9000);
+        unavailable = true;
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, geofence.flush());
+        }
+        assertEquals(5, writes);
+        assertEquals(2, geofence.getPendingCount());
+        assertEquals(0, geofence.getDroppedVisits());
+
+        unavailable = false;
+        assertEquals(2, geofence.flush());
+        assertEquals(2, written.size());
+    }
+
+    private static StationDTO station(int stationID, double latitude, double longitude) {
+        StationDTO station = new StationDTO(stationID, "Station " + stationID);
+        station.setLatitude(latitude);
+        station.setLongitude(longitude);
+        return station;
+    }
+}
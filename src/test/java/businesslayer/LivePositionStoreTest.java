@@ -0,0 +1,117 @@
+package businesslayer;
+
+import dataaccesslayer.VehicleDAOImpl;
+import org.junit.jupiter.api.*;
+import transferobjects.LocationDTO;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LivePositionStore. The database is replaced by a stub that
+ * returns a fixed set of current locations.
+ */
+class LivePositionStoreTest {
+
+    private final List<LocationDTO> stored = new ArrayList<>();
+    private LivePositionStore store;
+
+    /**
+     * Creates a store over two stored locations.
+     */
+    @BeforeEach
+    void setUp() {
+        stored.clear();
+        stored.add(location(9, 45.40, 5000));
+        stored.add(location(3, 45.30, 5000));
+        store = new LivePositionStore(new VehicleDAOImpl() {
+            @Override
+            public List<LocationDTO> getAllVehicleLocations() {
+                return stored;
+            }
+        });
+    }
+
+    /**
+     * Tests that the store is seeded from the database, keeps vehicles in ID
+     * order and never replaces a position with an older one.
+     */
+    @Test
+    void testSeedAndOrdering() {
+        assertEquals(2, store.load());
+        assertTrue(store.update(location(5, 45.50, 6000)));
+        assertFalse(store.update(location(9, 45.99, 1000)));
+
+        FleetPositionSnapshot snapshot = store.snapshot();
+        assertEquals(3, snapshot.size());
+        assertEquals(3, snapshot.getVehicleId(0));
+        assertEquals(5, snapshot.getVehicleId(1));
+        assertEquals(9, snapshot.getVehicleId(2));
+        assertEquals(45.40, snapshot.getLatitude(2));
+        assertEquals(45.50, store.get(5).getLatitude());
+        assertNull(store.get(42));
+    }
+
+    /**
+     * Tests that a failed load leaves the store unloaded, serving the
+     * positions reported since, and that the next read loads it.
+     */
+    @Test
+    void testFailedLoadIsRetried() {
+        boolean[] databaseDown = {true};
+        LivePositionStore retrying = new LivePositionStore(new VehicleDAOImpl() {
+            @Override
+            public List<LocationDTO> getAllVehicleLocations() {
+                if (databaseDown[0]) {
+                    throw new RuntimeException("Failed to read vehicle locations");
+                }
+                return stored;
+            }
+        });
+        assertThrows(RuntimeException.class, retrying::load);
+        retrying.update(location(5, 45.50, 6000));
+        assertEquals(1, retrying.snapshot().size());
+
+        databaseDown[0] = false;
+        assertEquals(3, retrying.snapshot().size());
+    }
+
+    /**
+     * Tests that snapshots taken while positions change never show half of an
+     * update. Each update sets latitude and longitude to the same value.
+     */
+    @Test
+    void testSnapshotsAreConsistent() throws InterruptedException {
+        stored.clear();
+        store.load();
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= 20_000; i++) {
+                store.update(i % 200, i, i, i);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            FleetPositionSnapshot snapshot = store.snapshot();
+            for (int i = 0; i < snapshot.size(); i++) {
+                assertEquals(snapshot.getLatitude(i), snapshot.getLongitude(i));
+                if (i > 0) {
+                    assertTrue(snapshot.getVehicleId(i - 1) < snapshot.getVehicleId(i));
+                }
+            }
+        }
+        writer.join();
+        assertEquals(200, store.size());
+    }
+
+    private static LocationDTO location(int vehicleId, double latitude, long time) {
+        LocationDTO location = new LocationDTO();
+        location.setVehicleId(vehicleId);
+        location.setLatitude(latitude);
+        location.setLongitude(-75.69);
+        location.setUpdated(new Timestamp(time));
+        return location;
+    }
+}
@@ -0,0 +1,66 @@
+package businesslayer;
+
+import dataaccesslayer.VehicleDAOImpl;
+import org.junit.jupiter.api.*;
+import transferobjects.RouteDTO;
+import transferobjects.StationDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReferenceDataService. The database is replaced by a stub
+ * that can be made to fail.
+ */
+class ReferenceDataServiceTest {
+
+    private boolean databaseDown;
+    private ReferenceDataService referenceData;
+
+    /**
+     * Creates a service over a stub with one station and no routes.
+     */
+    @BeforeEach
+    void setUp() {
+        databaseDown = false;
+        referenceData = new ReferenceDataService(new VehicleDAOImpl() {
+            @Override
+            public List<RouteDTO> getAllRoutes() {
+                if (databaseDown) {
+                    throw new RuntimeException("Failed to read routes");
+                }
+                return new ArrayList<>();
+            }
+
+            @Override
+            public List<StationDTO> getAllStations() {
+                if (databaseDown) {
+                    throw new RuntimeException("Failed to read stations");
+                }
+                List<StationDTO> stations = new ArrayList<>();
+                stations.add(new StationDTO(2, "Baseline Station"));
+                return stations;
+            }
+        });
+    }
+
+    /**
+     * Tests that a failed refresh keeps the previous snapshot, and that a
+     * failed first load is tried again by the next reader.
+     */
+    @Test
+    void testFailedRefreshKeepsSnapshot() {
+        databaseDown = true;
+        assertThrows(RuntimeException.class, referenceData::getSnapshot);
+
+        databaseDown = false;
+        ReferenceDataSnapshot loaded = referenceData.getSnapshot();
+        assertEquals(1, loaded.getStations().size());
+
+        databaseDown = true;
+        assertThrows(RuntimeException.class, referenceData::refresh);
+        assertSame(loaded, referenceData.getSnapshot());
+    }
+}
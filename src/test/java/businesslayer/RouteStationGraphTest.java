@@ -0,0 +1,64 @@
+package businesslayer;
+
+import org.junit.jupiter.api.*;
+import transferobjects.RouteDTO;
+import transferobjects.StationDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RouteStationGraph.
+ */
+class RouteStationGraphTest {
+
+    private RouteStationGraph graph;
+
+    /**
+     * Builds a graph of three routes: 1 through stations 10, 20, 30; 2 through
+     * stations 30, 40; and 3 with no stations.
+     */
+    @BeforeEach
+    void setUp() {
+        graph = new RouteStationGraph(Arrays.asList(
+                route(1, 10, 20, 30), route(2, 30, 40), route(3)));
+    }
+
+    /**
+     * Tests that the stations of a route come back in route order.
+     */
+    @Test
+    void testStationsOfRoute() {
+        assertArrayEquals(new int[] {10, 20, 30}, graph.getStationIds(1));
+        assertEquals(0, graph.getStationCount(3));
+        assertEquals(0, graph.getStationIds(99).length);
+    }
+
+    /**
+     * Tests the reverse lookup from a station to the routes serving it.
+     */
+    @Test
+    void testRoutesOfStation() {
+        assertArrayEquals(new int[] {1, 2}, graph.getRouteIds(30));
+        assertArrayEquals(new int[] {2}, graph.getRouteIds(40));
+        assertEquals(0, graph.getRouteIds(50).length);
+        assertTrue(graph.routeServesStation(1, 20));
+        assertFalse(graph.routeServesStation(2, 20));
+    }
+
+    private static RouteDTO route(int routeId, int... stationIds) {
+        List<StationDTO> stations = new ArrayList<>();
+        for (int stationId : stationIds) {
+            StationDTO station = new StationDTO();
+            station.setStationID(stationId);
+            stations.add(station);
+        }
+        RouteDTO route = new RouteDTO();
+        route.setRouteID(routeId);
+        route.setStationList(stations);
+        return route;
+    }
+}
@@ -4,6 +4,8 @@ import org.junit.jupiter.api.*;
 import transferobjects.AlertDTO;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -54,6 +56,7 @@ class AlertDAOImplTest {
                 "Vehicle_ID INT," +
                 "Alert_Type VARCHAR(100)," +
                 "Alert_Reason TEXT," +
+                "Rule_Group VARCHAR(50)," +
                 "Status VARCHAR(50)," +
                 "Alert_Time TIMESTAMP," +
                 "FOREIGN KEY (Vehicle_ID) REFERENCES Vehicle(Vehicle_ID))");
@@ -228,6 +231,103 @@ class AlertDAOImplTest {
         assertEquals("Overheating", engineAlerts.get(0).getAlertReason());
     }
 
+    /**
+     * Tests that a conditional status change succeeds once and loses to a
+     * change that already happened.
+     * 
+     * @throws SQLException if a database access error occurs
+     */
+    @Test
+    void testTransitionStatus() throws SQLException {
+        int vehicleId = insertVehicle();
+        int alertId = insertAlert(vehicleId, "Engine", "Overheating", "ACTIVE", "2025-08-08 10:00:00");
+
+        assertTrue(alertDAO.transitionStatus(alertId, "ACTIVE", "ACKNOWLEDGED"));
+        assertFalse(alertDAO.transitionStatus(alertId, "ACTIVE", "ESCALATED"));
+        assertEquals("ACKNOWLEDGED", alertDAO.getAlertById(alertId).getStatus());
+    }
+    /**
+     * Tests that a bulk status change returns exactly the alerts it changed.
+     * 
+     * @throws SQLException if a database access error occurs
+     */
+    @Test
+    void testTransitionStatuses() throws SQLException {
+        int vehicleId = insertVehicle();
+        int active = insertAlert(vehicleId, "Engine", "Overheating", "ACTIVE", "2025-08-08 10:00:00");
+        int acknowledged = insertAlert(vehicleId, "Battery", "Low voltage", "ACKNOWLEDGED", "2025-08-08 11:00:00");
+        int resolved = insertAlert(vehicleId, "Brake", "Wear", "RESOLVED", "2025-08-08 12:00:00");
+        List<Integer> ids = Arrays.asList(active, acknowledged, resolved);
+
+        List<AlertDTO> changed = alertDAO.transitionStatuses(ids, Arrays.asList("ACTIVE", "ACKNOWLEDGED"), "RESOLVED");
+        List<Integer> changedIds = new ArrayList<>();
+        for (AlertDTO alert : changed) {
+            assertEquals("RESOLVED", alert.getStatus());
+            changedIds.add(alert.getAlertID());
+        }
+        assertEquals(2, changedIds.size());
+        assertTrue(changedIds.containsAll(Arrays.asList(active, acknowledged)));
+        assertEquals("RESOLVED", alertDAO.getAlertById(acknowledged).getStatus());
+
+        assertTrue(alertDAO.transitionStatuses(ids, Arrays.asList("ACTIVE", "ACKNOWLEDGED"), "RESOLVED").isEmpty());
+    }
+    /**
+     * Tests that adding alerts in a batch gives each one its own generated ID.
+     * 
+     * @throws SQLException if a database access error occurs
+     */
+    @Test
+    void testAddAlertsBackfillsIds() throws SQLException {
+        int vehicleId = insertVehicle();
+        List<AlertDTO> alerts = new ArrayList<>();
+        for (String reason : Arrays.asList("Overheating", "Low voltage", "Wear")) {
+            AlertDTO alert = new AlertDTO();
+            alert.setVehicleID(vehicleId);
+            alert.setAlertType("MAINTENANCE");
+            alert.setAlertReason(reason);
+            alert.setRuleGroup("components");
+            alert.setStatus("ACTIVE");
+            alert.setAlertTime(Timestamp.valueOf("2025-08-08 10:00:00"));
+            alerts.add(alert);
+        }
+
+        alertDAO.addAlerts(alerts);
+
+        for (AlertDTO alert : alerts) {
+            assertTrue(alert.getAlertID() > 0);
+            AlertDTO fetched = alertDAO.getAlertById(alert.getAlertID());
+            assertEquals(alert.getAlertReason(), fetched.getAlertReason());
+            assertEquals("components", fetched.getRuleGroup());
+        }
+        assertEquals(3, alerts.stream().mapToInt(AlertDTO::getAlertID).distinct().count());
+    }
+    /**
+     * Tests retrieving the unresolved alerts, in total, by vehicle and by type.
+     * 
+     * @throws SQLException if a database access error occurs
+     */
+    @Test
+    void testGetOpenAlerts() throws SQLException {
+        int vehicleId = insertVehicle();
+        int otherVehicleId = insertVehicle();
+        insertAlert(vehicleId, "Engine", "Overheating", "ACTIVE", "2025-08-08 10:00:00");
+        insertAlert(vehicleId, "Engine", "Overheating again", "ESCALATED", "2025-08-08 11:00:00");
+        insertAlert(vehicleId, "Battery", "Low voltage", "RESOLVED", "2025-08-08 12:00:00");
+        insertAlert(otherVehicleId, "Battery", "Low voltage", "ACKNOWLEDGED", "2025-08-08 13:00:00");
+
+        List<AlertDTO> open = alertDAO.getOpenAlerts();
+        assertEquals(3, open.size());
+        assertEquals("ACKNOWLEDGED", open.get(0).getStatus()); // Ordered by time DESC
+
+        List<AlertDTO> byVehicle = alertDAO.getOpenAlertsByVehicle(vehicleId);
+        assertEquals(2, byVehicle.size());
+        assertEquals("ESCALATED", byVehicle.get(0).getStatus());
+
+        List<AlertDTO> byType = alertDAO.getOpenAlertsByType("Battery");
+        assertEquals(1, byType.size());
+        assertEquals(otherVehicleId, byType.get(0).getVehicleID());
+    }
+
     /**
      * Inserts a vehicle and its route into the database for testing.
      * 
@@ -280,9 +380,10 @@ class AlertDAOImplTest {
      * @param reason the alert reason
      * @param status the alert status
      * @param time the alert timestamp in string format
+     * @return the generated alert ID
      * @throws SQLException if a database access error occurs
      */
-    private void insertAlert(int vehicleId, String type, String reason, String status, String time) throws SQLException {
+    private int insertAlert(int vehicleId, String type, String reason, String status, String time) throws SQLException {
         AlertDTO alert = new AlertDTO();
         alert.setVehicleID(vehicleId);
         alert.setAlertType(type);
@@ -290,5 +391,6 @@ class AlertDAOImplTest {
         alert.setStatus(status);
         alert.setAlertTime(Timestamp.valueOf(time));
         alertDAO.addAlert(alert);
+        return alert.getAlertID();
     }
 }
\ No newline at end of file
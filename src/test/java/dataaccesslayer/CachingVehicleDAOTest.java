@@ -0,0 +1,116 @@
+package dataaccesslayer;
+
+import org.junit.jupiter.api.*;
+import transferobjects.BusDTO;
+import transferobjects.VehicleDTO;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CachingVehicleDAO. The wrapped DAO is replaced by an
+ * in-memory stub so no database is needed.
+ */
+class CachingVehicleDAOTest {
+
+    private int loads;
+    private boolean updateDuringLoad;
+    private CachingVehicleDAO cachingDAO;
+
+    /**
+     * Creates a cache of two entries in front of a stub DAO that counts how
+     * many times a vehicle is loaded.
+     */
+    @BeforeEach
+    void setUp() {
+        loads = 0;
+        updateDuringLoad = false;
+        VehicleDAOImpl stub = new VehicleDAOImpl() {
+            @Override
+            public VehicleDTO getVehicleById(int vehicleID) {
+                loads++;
+                if(updateDuringLoad) {
+                    updateDuringLoad = false;
+                    cachingDAO.invalidate(vehicleID);
+                }
+                BusDTO bus = new BusDTO();
+                bus.setVehicleID(vehicleID);
+                bus.setFuelLevel(100.0);
+                bus.setEmissionRate(5.0);
+                return bus;
+            }
+
+            @Override
+            public boolean updateVehicle(VehicleDTO vehicle) {
+                return true;
+            }
+        };
+        cachingDAO = new CachingVehicleDAO(stub, 2, 1, TimeUnit.HOURS);
+    }
+
+    /**
+     * Tests that a second lookup is served from the cache.
+     */
+    @Test
+    void testRepeatedLookupIsCached() {
+        cachingDAO.getVehicleById(1);
+        VehicleDTO vehicle = cachingDAO.getVehicleById(1);
+
+        assertTrue(vehicle instanceof BusDTO);
+        assertEquals(1, loads);
+        assertEquals(1, cachingDAO.getHitCount());
+        assertEquals(1, cachingDAO.getMissCount());
+    }
+
+    /**
+     * Tests that changing a returned vehicle does not change the cached copy.
+     */
+    @Test
+    void testReturnedVehicleIsACopy() {
+        cachingDAO.getVehicleById(1).setFuelLevel(0.0);
+
+        assertEquals(100.0, cachingDAO.getVehicleById(1).getFuelLevel());
+    }
+
+    /**
+     * Tests that updating a vehicle evicts it from the cache.
+     */
+    @Test
+    void testUpdateInvalidatesVehicle() {
+        VehicleDTO vehicle = cachingDAO.getVehicleById(1);
+        cachingDAO.updateVehicle(vehicle);
+        cachingDAO.getVehicleById(1);
+
+        assertEquals(2, loads);
+    }
+
+    /**
+     * Tests that a vehicle read while it was being updated is not cached.
+     */
+    @Test
+    void testVehicleReadDuringUpdateIsNotCached() {
+        updateDuringLoad = true;
+        cachingDAO.getVehicleById(1);
+        cachingDAO.getVehicleById(1);
+
+        assertEquals(2, loads);
+        assertEquals(0, cachingDAO.getHitCount());
+    }
+
+    /**
+     * Tests that the least recently used vehicle is evicted when the cache is full.
+     */
+    @Test
+    void testLeastRecentlyUsedVehicleIsEvicted() {
+        cachingDAO.getVehicleById(1);
+        cachingDAO.getVehicleById(2);
+        cachingDAO.getVehicleById(1);
+        cachingDAO.getVehicleById(3);
+
+        assertEquals(2, cachingDAO.size());
+        assertEquals(1, cachingDAO.getEvictionCount());
+        cachingDAO.getVehicleById(1);
+        assertEquals(3, loads);
+    }
+}
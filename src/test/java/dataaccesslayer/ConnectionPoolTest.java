@@ -0,0 +1,230 @@
+package dataaccesslayer;
+
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ConnectionPool. Physical connections come from a stub JDBC
+ * driver that records every connection it opens.
+ */
+class ConnectionPoolTest {
+
+    private static final String URL = "jdbc:pooltest:fleet";
+
+    private static final StubDriver DRIVER = new StubDriver();
+
+    private ConnectionPool pool;
+
+    /**
+     * Registers the stub driver.
+     *
+     * @throws SQLException if the driver cannot be registered
+     */
+    @BeforeAll
+    static void registerDriver() throws SQLException {
+        DriverManager.registerDriver(DRIVER);
+    }
+
+    /**
+     * Removes the stub driver.
+     *
+     * @throws SQLException if the driver cannot be removed
+     */
+    @AfterAll
+    static void deregisterDriver() throws SQLException {
+        DriverManager.deregisterDriver(DRIVER);
+    }
+
+    /**
+     * Forgets the connections opened by earlier tests.
+     */
+    @BeforeEach
+    void setUp() {
+        DRIVER.opened.clear();
+    }
+
+    /**
+     * Shuts the pool down.
+     */
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Tests that a borrower gives up after the borrow timeout when every
+     * connection is in use, and succeeds once one is returned.
+     */
+    @Test
+    void testBorrowTimesOutWhenPoolIsExhausted() throws SQLException {
+        pool = new ConnectionPool(URL, "user", "password", 0, 1, 60_000, 100, 1);
+        Connection first = pool.borrow();
+
+        long started = System.nanoTime();
+        assertThrows(SQLException.class, pool::borrow);
+        assertTrue(System.nanoTime() - started >= 90_000_000L);
+
+        first.close();
+        try (Connection second = pool.borrow()) {
+            assertFalse(second.isClosed());
+        }
+        assertEquals(1, DRIVER.opened.size());
+    }
+
+    /**
+     * Tests that an idle connection that fails validation is closed and
+     * replaced instead of being handed out.
+     */
+    @Test
+    void testInvalidIdleConnectionIsReplaced() throws SQLException {
+        pool = new ConnectionPool(URL, "user", "password", 0, 2, 60_000, 1000, 1);
+        pool.borrow().close();
+        StubConnection broken = DRIVER.opened.get(0);
+        broken.valid = false;
+
+        try (Connection connection = pool.borrow()) {
+            assertFalse(connection.isClosed());
+        }
+        assertTrue(broken.closed);
+        assertEquals(2, DRIVER.opened.size());
+        assertEquals(1, pool.getOpenConnections());
+    }
+
+    /**
+     * Tests that the housekeeper closes connections that stay idle too long,
+     * keeping the minimum number open.
+     */
+    @Test
+    void testIdleConnectionsAreEvicted() throws Exception {
+        pool = new ConnectionPool(URL, "user", "password", 1, 3, 50, 1000, 1);
+        Connection first = pool.borrow();
+        Connection second = pool.borrow();
+        Connection third = pool.borrow();
+        first.close();
+        second.close();
+        third.close();
+        assertEquals(3, pool.getIdleConnections());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.getIdleConnections() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, pool.getIdleConnections());
+        assertEquals(1, pool.getOpenConnections());
+    }
+
+    /**
+     * Tests that the housekeeper does not open connections beyond the maximum
+     * while every permit is held by a borrower.
+     */
+    @Test
+    void testRefillStaysWithinMaxSize() throws Exception {
+        pool = new ConnectionPool(URL, "user", "password", 2, 2, 50, 1000, 1);
+        Connection first = pool.borrow();
+        Connection second = pool.borrow();
+
+        Thread.sleep(1500);
+        assertEquals(2, pool.getOpenConnections());
+        assertTrue(DRIVER.opened.size() <= 2);
+        first.close();
+        second.close();
+    }
+
+    /**
+     * A physical connection handed out by the stub driver.
+     */
+    private static final class StubConnection {
+        private volatile boolean valid = true;
+        private volatile boolean closed;
+        private boolean autoCommit = true;
+
+        private Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "isValid":
+                                return valid && !closed;
+                            case "isClosed":
+                                return closed;
+                            case "close":
+                                closed = true;
+                                return null;
+                            case "getAutoCommit":
+                                return autoCommit;
+                            case "setAutoCommit":
+                                autoCommit = (Boolean) args[0];
+                                return null;
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                return null;
+                        }
+                    });
+        }
+    }
+
+    /**
+     * JDBC driver for the jdbc:pooltest: URLs that records the connections it
+     * opens.
+     */
+    private static final class StubDriver implements Driver {
+        private final List<StubConnection> opened = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            StubConnection connection = new StubConnection();
+            opened.add(connection);
+            return connection.proxy();
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith("jdbc:pooltest:");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package dataaccesslayer;
+
+import org.junit.jupiter.api.*;
+import transferobjects.AlertDTO;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IndexedAlertDAO. The wrapped DAO is replaced by an in-memory
+ * stub so no database is needed.
+ */
+class IndexedAlertDAOTest {
+
+    private int queries;
+    private IndexedAlertDAO indexedDAO;
+
+    /**
+     * Creates an index in front of a stub DAO holding two active alerts and
+     * one resolved alert.
+     */
+    @BeforeEach
+    void setUp() {
+        queries = 0;
+        List<AlertDTO> stored = new ArrayList<>();
+        stored.add(alert(1, 10, "MAINTENANCE", "ACTIVE", 1000));
+        stored.add(alert(2, 10, "REFUEL", "ACTIVE", 2000));
+        stored.add(alert(3, 20, "MAINTENANCE", "RESOLVED", 3000));
+        AlertDAOImpl stub = new AlertDAOImpl() {
+            @Override
+            public List<AlertDTO> getOpenAlerts() {
+                queries++;
+                List<AlertDTO> open = new ArrayList<>();
+                for (AlertDTO alert : stored) {
+                    if (!"RESOLVED".equals(alert.getStatus())) {
+                        open.add(alert);
+                    }
+                }
+                return open;
+            }
+
+            @Override
+            public void addAlert(AlertDTO alert) {
+                alert.setAlertID(stored.size() + 1);
+                stored.add(alert);
+            }
+
+            @Override
+            public void updateAlert(AlertDTO alert) {
+            }
+        };
+        indexedDAO = new IndexedAlertDAO(stub);
+    }
+
+    /**
+     * Tests that active alerts come from the index, newest first, after one load.
+     */
+    @Test
+    void testActiveAlertsServedFromIndex() {
+        indexedDAO.getActiveAlerts();
+        List<AlertDTO> active = indexedDAO.getActiveAlerts();
+
+        assertEquals(1, queries);
+        assertEquals(2, active.size());
+        assertEquals(2, active.get(0).getAlertID());
+        assertEquals(1, active.get(1).getAlertID());
+    }
+
+    /**
+     * Tests that added and resolved alerts are reflected in every index.
+     */
+    @Test
+    void testIndexFollowsChanges() {
+        indexedDAO.rebuild();
+        indexedDAO.addAlert(alert(0, 20, "ACCIDENT", "ACTIVE", 4000));
+        AlertDTO resolved = indexedDAO.getAlertById(1);
+        resolved.setStatus("RESOLVED");
+        indexedDAO.updateAlert(resolved);
+
+        assertEquals(1, indexedDAO.getOpenAlertsByVehicle(10).size());
+        assertEquals(0, indexedDAO.getOpenAlertsByType("MAINTENANCE").size());
+        assertEquals(1, indexedDAO.getOpenAlertsByType("ACCIDENT").size());
+        assertEquals(4, indexedDAO.getActiveAlerts().get(0).getAlertID());
+    }
+
+    private static AlertDTO alert(int id, int vehicleId, String type, String status, long time) {
+        return new AlertDTO(id, vehicleId, status, type, "reason", new Timestamp(time));
+    }
+}
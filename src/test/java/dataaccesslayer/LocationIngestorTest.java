@@ -0,0 +1,164 @@
+package dataaccesslayer;
+
+import org.junit.jupiter.api.*;
+import transferobjects.LocationDTO;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LocationIngestor. The database is replaced by a stub that
+ * records each batch.
+ */
+class LocationIngestorTest {
+
+    private final List<List<LocationDTO>> batches = Collections.synchronizedList(new ArrayList<>());
+    private VehicleDAOImpl stub;
+
+    /**
+     * Creates the recording stub.
+     */
+    @BeforeEach
+    void setUp() {
+        batches.clear();
+        stub = new VehicleDAOImpl() {
+            @Override
+            public int recordLocations(List<LocationDTO> locations) {
+                batches.add(new ArrayList<>(locations));
+                return locations.size();
+            }
+        };
+    }
+
+    /**
+     * Tests that a full buffer is written as one batch without waiting for the
+     * delay, and that pings of the same vehicle keep their order.
+     */
+    @Test
+    void testFullBatchIsWrittenEarly() throws InterruptedException {
+        LocationIngestor ingestor = new LocationIngestor(stub, 4, 6, 100, 1, TimeUnit.HOURS);
+        for (int i = 0; i < 6; i++) {
+            ingestor.submit(location(i % 2 + 1, i, i));
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (batches.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        ingestor.close();
+
+        assertEquals(1, batches.size());
+        assertEquals(6, batches.get(0).size());
+        double previous = -1;
+        for (LocationDTO location : batches.get(0)) {
+            if (location.getVehicleId() == 1) {
+                assertTrue(location.getLatitude() > previous);
+                previous = location.getLatitude();
+            }
+        }
+        assertEquals(6, ingestor.getLocationsWritten());
+        assertEquals(0, ingestor.getQueueDepth());
+    }
+
+    /**
+     * Tests that closing writes what is still buffered.
+     */
+    @Test
+    void testFlushOnClose() {
+        LocationIngestor ingestor = new LocationIngestor(stub, 4, 100, 100, 1, TimeUnit.HOURS);
+        ingestor.submit(location(7, 1, 2000));
+        ingestor.submit(location(7, 2, 1000));
+        ingestor.submit(location(8, 3, 1500));
+
+        assertEquals(3, ingestor.getQueueDepth());
+
+        assertTrue(ingestor.close(5, TimeUnit.SECONDS));
+        assertEquals(1, batches.size());
+        assertEquals(3, batches.get(0).size());
+        assertEquals(1, ingestor.getFlushCount());
+    }
+
+    /**
+     * Tests that a ping the database rejects is isolated and dropped while the
+     * rest of its batch is written.
+     */
+    @Test
+    void testRejectedPingDoesNotLoseBatch() {
+        VehicleDAOImpl rejecting = new VehicleDAOImpl() {
+            @Override
+            public int recordLocations(List<LocationDTO> locations) {
+                for (LocationDTO location : locations) {
+                    if (location.getVehicleId() == 99) {
+                        throw new RuntimeException("Failed to record vehicle locations",
+                                new SQLIntegrityConstraintViolationException("foreign key"));
+                    }
+                }
+                batches.add(new ArrayList<>(locations));
+                return locations.size();
+            }
+        };
+        LocationIngestor ingestor = new LocationIngestor(rejecting, 4, 100, 100, 1, TimeUnit.HOURS);
+        for (int i = 0; i < 7; i++) {
+            ingestor.submit(location(i == 3 ? 99 : i + 1, i, i));
+        }
+        ingestor.flush();
+
+        assertEquals(6, ingestor.getLocationsWritten());
+        assertEquals(1, ingestor.getFailedCount());
+        assertEquals(0, ingestor.getQueueDepth());
+        ingestor.close();
+    }
+
+    /**
+     * Tests that a batch that fails because the database is unavailable is
+     * kept and written with the next flush.
+     */
+    @Test
+    void testUnavailableDatabaseKeepsBatch() {
+        boolean[] down = {true};
+        VehicleDAOImpl flaky = new VehicleDAOImpl() {
+            @Override
+            public int recordLocations(List<LocationDTO> locations) {
+                if (down[0]) {
+                    throw new RuntimeException("Failed to record vehicle locations",
+                            new SQLTransientConnectionException("connection refused"));
+                }
+                batches.add(new ArrayList<>(locations));
+                return locations.size();
+            }
+        };
+        LocationIngestor ingestor = new LocationIngestor(flaky, 4, 100, 100, 1, TimeUnit.HOURS);
+        ingestor.submit(location(1, 1, 1000));
+        ingestor.submit(location(2, 2, 1000));
+        ingestor.flush();
+
+        assertEquals(0, ingestor.getLocationsWritten());
+        assertEquals(0, ingestor.getFailedCount());
+        assertEquals(2, ingestor.getQueueDepth());
+
+        down[0] = false;
+        ingestor.submit(location(3, 3, 2000));
+        ingestor.flush();
+
+        assertEquals(1, batches.size());
+        assertEquals(3, batches.get(0).size());
+        assertEquals(0, ingestor.getQueueDepth());
+        ingestor.close();
+    }
+
+    private static LocationDTO location(int vehicleId, double latitude, long time) {
+        LocationDTO location = new LocationDTO();
+        location.setVehicleId(vehicleId);
+        location.setLatitude(latitude);
+        location.setLongitude(-75.69);
+        location.setUpdated(new Timestamp(time));
+        return location;
+    }
+}
@@ -0,0 +1,78 @@
+package dataaccesslayer;
+
+import org.junit.jupiter.api.*;
+import transferobjects.AlertDTO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WriteBehindAlertSink. The database is replaced by a stub
+ * that records each batch and hands out IDs in order.
+ */
+class WriteBehindAlertSinkTest {
+
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger nextID = new AtomicInteger(1);
+    private AlertDAOImpl stub;
+
+    /**
+     * Creates the recording stub.
+     */
+    @BeforeEach
+    void setUp() {
+        batchSizes.clear();
+        stub = new AlertDAOImpl() {
+            @Override
+            public void addAlerts(List<AlertDTO> alerts) {
+                batchSizes.add(alerts.size());
+                for (AlertDTO alert : alerts) {
+                    alert.setAlertID(nextID.getAndIncrement());
+                }
+            }
+        };
+    }
+
+    /**
+     * Tests that alerts are written in batches no larger than the batch size
+     * and that every alert gets its generated ID.
+     */
+    @Test
+    void testAlertsAreBatchedAndGetIDs() throws Exception {
+        WriteBehindAlertSink sink = new WriteBehindAlertSink(stub, 100, 10, 1, TimeUnit.SECONDS);
+        List<CompletableFuture<AlertDTO>> futures = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            futures.add(sink.submit(new AlertDTO()));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            AlertDTO stored = futures.get(i).get(5, TimeUnit.SECONDS);
+            assertEquals(i + 1, stored.getAlertID());
+        }
+        assertEquals(25, sink.getAlertsWritten());
+        for (int size : batchSizes) {
+            assertTrue(size <= 10);
+        }
+        assertTrue(sink.close(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that closing the sink writes the alerts still in the buffer.
+     */
+    @Test
+    void testCloseFlushesBuffer() {
+        WriteBehindAlertSink sink = new WriteBehindAlertSink(stub, 100, 50, 1, TimeUnit.MINUTES);
+        CompletableFuture<AlertDTO> future = sink.submit(new AlertDTO());
+
+        assertTrue(sink.close(5, TimeUnit.SECONDS));
+        assertTrue(future.isDone());
+        assertEquals(1, sink.getAlertsWritten());
+        assertEquals(0, sink.getQueuedCount());
+    }
+}
@@ -0,0 +1,110 @@
+package observer;
+
+import org.junit.jupiter.api.*;
+import transferobjects.AlertDTO;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for event routing and the asynchronous mode of VehicleEventNotifier.
+ */
+class VehicleEventNotifierTest {
+
+    /**
+     * Tests that a listener receives asynchronous events in the order raised.
+     */
+    @Test
+    void testAsynchronousEventsKeepOrder() throws InterruptedException {
+        VehicleEventNotifier notifier = new VehicleEventNotifier(Executors.newFixedThreadPool(4),
+                100, VehicleEventNotifier.OverflowPolicy.BLOCK);
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        notifier.addListener((eventType, alert) -> received.add(alert.getVehicleID()));
+
+        for (int i = 0; i < 50; i++) {
+            notifier.notifyListeners(VehicleEvent.MAINTENANCE, alert(i));
+        }
+        notifier.shutdown(5, TimeUnit.SECONDS);
+
+        assertEquals(50, received.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, received.get(i));
+        }
+    }
+
+    /**
+     * Tests that events beyond the queue capacity are dropped and counted
+     * while a listener is busy.
+     */
+    @Test
+    void testFullQueueDropsNewestEvents() throws InterruptedException {
+        VehicleEventNotifier notifier = new VehicleEventNotifier(Executors.newSingleThreadExecutor(),
+                2, VehicleEventNotifier.OverflowPolicy.DROP_NEWEST);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        notifier.addListener((eventType, alert) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        notifier.notifyListeners(VehicleEvent.REFUEL, alert(0));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 4; i++) {
+            notifier.notifyListeners(VehicleEvent.REFUEL, alert(i));
+        }
+        release.countDown();
+        notifier.shutdown(5, TimeUnit.SECONDS);
+
+        assertEquals(2, notifier.getDroppedEventCount());
+    }
+
+    /**
+     * Tests that a listener only receives the event types it subscribed to.
+     */
+    @Test
+    void testListenerOnlyReceivesSubscribedTypes() {
+        VehicleEventNotifier notifier = new VehicleEventNotifier();
+        List<VehicleEvent> received = new CopyOnWriteArrayList<>();
+        Listener listener = (eventType, alert) -> received.add(eventType);
+        notifier.addListener(listener, VehicleEvent.MAINTENANCE, VehicleEvent.REFUEL);
+
+        notifier.notifyListeners(VehicleEvent.MAINTENANCE, alert(1));
+        notifier.notifyListeners(VehicleEvent.ROUTE_END, alert(1));
+        notifier.notifyListeners(VehicleEvent.REFUEL, alert(1));
+        notifier.removeListener(listener);
+        notifier.notifyListeners(VehicleEvent.MAINTENANCE, alert(1));
+
+        assertEquals(List.of(VehicleEvent.MAINTENANCE, VehicleEvent.REFUEL), received);
+    }
+
+    /**
+     * Tests that a null event type is delivered to every listener instead of
+     * failing.
+     */
+    @Test
+    void testNullEventTypeReachesEveryListener() {
+        VehicleEventNotifier notifier = new VehicleEventNotifier();
+        List<VehicleEvent> received = new CopyOnWriteArrayList<>();
+        notifier.addListener((eventType, alert) -> received.add(eventType), VehicleEvent.MAINTENANCE);
+        notifier.addListener((eventType, alert) -> received.add(eventType));
+
+        notifier.notifyListeners(null, alert(1));
+
+        assertEquals(2, received.size());
+    }
+
+    private static AlertDTO alert(int vehicleId) {
+        AlertDTO alert = new AlertDTO();
+        alert.setVehicleID(vehicleId);
+        return alert;
+    }
+}